@@ -0,0 +1,72 @@
+// Compares platform vs virtual-thread request execution under many concurrent, slow clients.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e USERNAME=... -e PASSWORD=... loadtest/virtual-threads.js
+//
+// Run it once per mode against the same database (see README.md) and compare the summaries.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const rejected = new Counter('rejected_503');
+
+export const options = {
+    scenarios: {
+        // Clients that hold requests open for a while (slow networks, long polling)
+        browsing: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 200 },
+                { duration: '2m', target: 1000 },
+                { duration: '30s', target: 0 },
+            ],
+            exec: 'browse',
+        },
+        // Authenticated reads that hit the JWT user lookup and the order queries
+        ordering: {
+            executor: 'constant-vus',
+            vus: 50,
+            duration: '3m',
+            exec: 'listOrders',
+        },
+    },
+    thresholds: {
+        'http_req_duration{scenario:browsing}': ['p(99)<2000'],
+        'http_req_failed': ['rate<0.05'],
+    },
+};
+
+export function setup() {
+    if (!__ENV.USERNAME) return { token: null };
+    const res = http.post(`${BASE_URL}/auth/login`,
+        JSON.stringify({ username: __ENV.USERNAME, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'logged in': (r) => r.status === 200 });
+    return { token: res.json('jwt') };
+}
+
+export function browse() {
+    const page = Math.floor(Math.random() * 5);
+    const list = http.get(`${BASE_URL}/products?page=${page}&size=10`);
+    track(list);
+    const id = 1 + Math.floor(Math.random() * 50);
+    track(http.get(`${BASE_URL}/products/${id}`));
+    sleep(1 + Math.random() * 2);
+}
+
+export function listOrders(data) {
+    if (!data.token) {
+        sleep(1);
+        return;
+    }
+    track(http.get(`${BASE_URL}/orders?page=0&size=10`, {
+        headers: { Authorization: `Bearer ${data.token}` },
+    }));
+    sleep(0.5);
+}
+
+function track(res) {
+    if (res.status === 503) rejected.add(1);
+    check(res, { 'ok or shed': (r) => r.status === 200 || r.status === 404 || r.status === 503 });
+}
@@ -0,0 +1,79 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
+import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
+import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrderItems;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
+import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
+import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ModelMapper conversions used by ProductService (per product) and OrderService (per order).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperConfigBenchmark {
+
+    @Param({"1", "20"})
+    public int orderLines;
+
+    private ModelMapper modelMapper;
+    private Product product;
+    private LocalOrder order;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new MapperConfig().modelMapper();
+        product = product(1L);
+
+        order = new LocalOrder();
+        order.setId(1L);
+        order.setStatus(OrderStatus.PENDING);
+        order.setCurrency("VND");
+        order.setCreatedAt(OffsetDateTime.now());
+        order.setTotalAmount(BigDecimal.valueOf(100L * orderLines));
+        for (long i = 1; i <= orderLines; i++) {
+            LocalOrderItems line = new LocalOrderItems();
+            line.setId(i);
+            line.setProduct(product(i));
+            line.setQuantity(2);
+            line.setUnitPrice(BigDecimal.valueOf(50));
+            order.addItem(line);
+        }
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setShortDescription("Short description " + id);
+        product.setLongDescription("A much longer description of product " + id);
+        product.setPrice(BigDecimal.valueOf(9.99));
+        Inventory inventory = new Inventory();
+        inventory.setQuantity(100L);
+        inventory.setProduct(product);
+        product.setInventory(inventory);
+        return product;
+    }
+
+    @Benchmark
+    public ProductResponse productToResponse() {
+        return modelMapper.map(product, ProductResponse.class);
+    }
+
+    @Benchmark
+    public OrderResponse orderToResponse() {
+        return modelMapper.map(order, OrderResponse.class);
+    }
+}
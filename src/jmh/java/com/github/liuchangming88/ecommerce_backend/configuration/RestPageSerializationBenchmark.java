@@ -0,0 +1,73 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
+import com.github.liuchangming88.ecommerce_backend.configuration.JpaDataPage.RestPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RestPage is what GET /products returns and what the "products" cache stores:
+ * plain JSON for the HTTP response, CompactRedisSerializer (Smile/JSON, optional gzip) for Redis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestPageSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    @Param({"JSON", "SMILE"})
+    public RedisCacheProperties.Format format;
+
+    private ObjectMapper objectMapper;
+    private CompactRedisSerializer redisSerializer;
+    private RestPage<ProductResponse> page;
+    private byte[] cached;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        redisSerializer = new CompactRedisSerializer(format, 2048);
+
+        List<ProductResponse> content = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            ProductResponse product = new ProductResponse();
+            product.setId(id);
+            product.setName("Product " + id);
+            product.setShortDescription("Short description of product " + id);
+            product.setLongDescription("A much longer description of product " + id + " that is repeated on every page.");
+            product.setPrice(BigDecimal.valueOf(9.99));
+            product.setQuantity(100L);
+            content.add(product);
+        }
+        page = new RestPage<>(PageRequest.of(0, pageSize), content, 1000);
+        cached = redisSerializer.serialize(page);
+    }
+
+    // Independent of the format parameter; kept here so both paths are compared on the same page
+    @Benchmark
+    public byte[] httpJson() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] redisSerialize() {
+        return redisSerializer.serialize(page);
+    }
+
+    @Benchmark
+    public Object redisDeserialize() {
+        return redisSerializer.deserialize(cached);
+    }
+}
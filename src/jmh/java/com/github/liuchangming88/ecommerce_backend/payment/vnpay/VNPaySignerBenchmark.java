@@ -0,0 +1,61 @@
+package com.github.liuchangming88.ecommerce_backend.payment.vnpay;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing runs once per payment URL and verification once per return/IPN callback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VNPaySignerBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret";
+
+    private Map<String, String> params;
+    private Map<String, String> signedParams;
+
+    @Setup
+    public void setUp() {
+        params = new HashMap<>();
+        params.put("vnp_Version", "2.1.0");
+        params.put("vnp_Command", "pay");
+        params.put("vnp_TmnCode", "DEMOV210");
+        params.put("vnp_Amount", "10000000");
+        params.put("vnp_CurrCode", "VND");
+        params.put("vnp_TxnRef", "ORD-123456-1700000000000");
+        params.put("vnp_OrderInfo", "Thanh toan don hang 123456");
+        params.put("vnp_OrderType", "other");
+        params.put("vnp_Locale", "vn");
+        params.put("vnp_ReturnUrl", "https://ecommerce-application.com/payments/vnpay/return");
+        params.put("vnp_IpAddr", "203.0.113.10");
+        params.put("vnp_CreateDate", "20240101120000");
+        params.put("vnp_ExpireDate", "20240101121500");
+
+        signedParams = new HashMap<>(params);
+        signedParams.put("vnp_SecureHash", VNPaySigner.computeSignature(params, SECRET));
+        signedParams.put("vnp_SecureHashType", "HmacSHA512");
+    }
+
+    @Benchmark
+    public String computeSignature() {
+        return VNPaySigner.computeSignature(params, SECRET);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return VNPaySigner.verify(signedParams, SECRET);
+    }
+
+    @Benchmark
+    public String buildQueryStringWithHash() {
+        return VNPaySigner.buildQueryStringWithHash(params, SECRET);
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.liuchangming88.ecommerce_backend.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * shouldNotFilter runs on every request, before authentication. A protected path is the worst case:
+ * every public pattern is tried and none matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private JwtRequestFilter filter;
+    private MockHttpServletRequest publicRequest;
+    private MockHttpServletRequest protectedRequest;
+
+    @Setup
+    public void setUp() {
+        // Matching doesn't touch the collaborators
+        filter = new JwtRequestFilter(null, null);
+        publicRequest = request("/products/42");
+        protectedRequest = request("/orders");
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    @Benchmark
+    public boolean publicPath() throws Exception {
+        return filter.shouldNotFilter(publicRequest);
+    }
+
+    @Benchmark
+    public boolean protectedPath() throws Exception {
+        return filter.shouldNotFilter(protectedRequest);
+    }
+}
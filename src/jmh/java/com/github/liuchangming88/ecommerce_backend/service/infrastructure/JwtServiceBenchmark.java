@@ -0,0 +1,54 @@
+package com.github.liuchangming88.ecommerce_backend.service.infrastructure;
+
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.model.user.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation runs on every login; verification runs on every authenticated request (JwtRequestFilter calls it twice).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private LocalUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "algorithmKey", "benchmark-signing-key");
+        ReflectionTestUtils.setField(jwtService, "issuer", "ecommerce-backend");
+        ReflectionTestUtils.setField(jwtService, "expiryInSeconds", 3600);
+        jwtService.postConstruct();
+
+        user = new LocalUser();
+        user.setUsername("benchmarkUser");
+        user.setRole(Role.USER);
+        token = jwtService.generateJwt(user);
+    }
+
+    @Benchmark
+    public String generateJwt() {
+        return jwtService.generateJwt(user);
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtService.getSubject(token);
+    }
+
+    @Benchmark
+    public String getRole() {
+        return jwtService.getRole(token);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.ItemRequest;
+import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
+import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price snapshot + total computation done by OrderService.createOrder for every new order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalsBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int orderLines;
+
+    private List<ItemRequest> items;
+    private Map<Long, Product> productMap;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(orderLines);
+        productMap = new HashMap<>();
+        for (long id = 1; id <= orderLines; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setPrice(new BigDecimal("12345.50"));
+            productMap.put(id, product);
+            items.add(new ItemRequest(id, (int) (id % 5) + 1));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal addLines() {
+        LocalOrder order = new LocalOrder();
+        OrderService.addLines(order, items, productMap);
+        return order.getTotalAmount();
+    }
+}
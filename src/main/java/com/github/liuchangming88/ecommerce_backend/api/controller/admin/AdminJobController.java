@@ -0,0 +1,43 @@
+package com.github.liuchangming88.ecommerce_backend.api.controller.admin;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.JobRunResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.JobStatusResponse;
+import com.github.liuchangming88.ecommerce_backend.jobs.JobScheduler;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admins/jobs")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminJobController {
+
+    private final JobScheduler jobScheduler;
+
+    public AdminJobController(JobScheduler jobScheduler) {
+        this.jobScheduler = jobScheduler;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<JobStatusResponse>> getJobs() {
+        return new ResponseEntity<>(jobScheduler.getJobs(), HttpStatus.OK);
+    }
+
+    @GetMapping("/{name}/runs")
+    public ResponseEntity<List<JobRunResponse>> getRuns(@PathVariable String name) {
+        return new ResponseEntity<>(jobScheduler.getRuns(name), HttpStatus.OK);
+    }
+
+    // 409 when the job is already running; the run shows up in the history once it finishes
+    @PostMapping("/{name}/runs")
+    public ResponseEntity<Void> triggerRun(@PathVariable String name) {
+        return new ResponseEntity<>(jobScheduler.trigger(name) ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT);
+    }
+}
@@ -1,24 +1,40 @@
 package com.github.liuchangming88.ecommerce_backend.api.controller.admin;
 
+import com.github.liuchangming88.ecommerce_backend.api.model.BulkInventoryAdjustmentRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.BulkInventoryAdjustmentResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductImportResponse;
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductQuantityUpdateRequest;
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductRequest;
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
 import com.github.liuchangming88.ecommerce_backend.service.product.AdminProductService;
+import com.github.liuchangming88.ecommerce_backend.service.product.InventoryAdjustmentService;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductImportService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/admins/products")
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminProductController {
 
     private final AdminProductService adminProductService;
+    private final ProductImportService productImportService;
+    private final InventoryAdjustmentService inventoryAdjustmentService;
 
-    public AdminProductController(AdminProductService adminProductService) {
+    public AdminProductController(AdminProductService adminProductService,
+                                  ProductImportService productImportService,
+                                  InventoryAdjustmentService inventoryAdjustmentService) {
         this.adminProductService = adminProductService;
+        this.productImportService = productImportService;
+        this.inventoryAdjustmentService = inventoryAdjustmentService;
     }
 
     @PostMapping
@@ -28,6 +44,17 @@ public class AdminProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    // The body is consumed as a stream, so large catalogs are never held in memory as a whole
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ProductImportService.Format format = "csv".equalsIgnoreCase(MediaType.parseMediaType(contentType).getSubtype())
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        return new ResponseEntity<>(productImportService.importProducts(body, format), HttpStatus.OK);
+    }
+
     @PutMapping("/{productId}")
     public ResponseEntity<ProductResponse> updateProduct(
             @PathVariable Long productId,
@@ -48,4 +75,10 @@ public class AdminProductController {
             @Valid @RequestBody ProductQuantityUpdateRequest quantityUpdateRequest) {
         return new ResponseEntity<>(adminProductService.updateProductQuantity(productId, quantityUpdateRequest.getQuantity()), HttpStatus.OK);
     }
+
+    @PatchMapping("/quantities")
+    public ResponseEntity<BulkInventoryAdjustmentResponse> adjustQuantities(
+            @Valid @RequestBody BulkInventoryAdjustmentRequest adjustmentRequest) {
+        return new ResponseEntity<>(inventoryAdjustmentService.adjust(adjustmentRequest.getAdjustments()), HttpStatus.OK);
+    }
 }
@@ -0,0 +1,59 @@
+package com.github.liuchangming88.ecommerce_backend.api.controller.cart;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.*;
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.service.cart.CartService;
+import com.github.liuchangming88.ecommerce_backend.service.order.CheckoutAdmission;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping(path = "/cart")
+@PreAuthorize("hasRole('USER')")
+public class CartController {
+    private final CartService cartService;
+
+    public CartController(CartService cartService) {
+        this.cartService = cartService;
+    }
+
+    @GetMapping
+    public ResponseEntity<CartResponse> getCart(@AuthenticationPrincipal LocalUser user) {
+        return ResponseEntity.ok(cartService.getCart(user.getId()));
+    }
+
+    // Adds to the quantity already in the cart
+    @PostMapping("/items")
+    public ResponseEntity<CartResponse> addItem(@AuthenticationPrincipal LocalUser user,
+                                                @RequestBody @Valid ItemRequest request) {
+        return ResponseEntity.ok(cartService.addItem(user.getId(), request));
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartResponse> updateItem(@AuthenticationPrincipal LocalUser user,
+                                                   @PathVariable Long productId,
+                                                   @RequestBody @Valid CartItemUpdateRequest request) {
+        return ResponseEntity.ok(cartService.updateItem(user.getId(), productId, request));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartResponse> removeItem(@AuthenticationPrincipal LocalUser user,
+                                                   @PathVariable Long productId) {
+        return ResponseEntity.ok(cartService.removeItem(user.getId(), productId));
+    }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderResponse> checkout(@AuthenticationPrincipal LocalUser user,
+                                                  @RequestBody @Valid CartCheckoutRequest request,
+                                                  @RequestHeader(name = CheckoutAdmission.TICKET_HEADER, required = false) String ticket) {
+        OrderResponse order = cartService.checkout(user, request, ticket);
+        return ResponseEntity
+                .created(URI.create("/orders/" + order.getId()))
+                .body(order);
+    }
+}
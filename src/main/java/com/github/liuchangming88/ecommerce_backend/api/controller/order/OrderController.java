@@ -1,16 +1,26 @@
 package com.github.liuchangming88.ecommerce_backend.api.controller.order;
 
+import com.github.liuchangming88.ecommerce_backend.api.model.CheckoutTicketResponse;
 import com.github.liuchangming88.ecommerce_backend.api.model.CreateOrderRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderHistoryRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderHistoryResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderQuoteRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderQuoteResponse;
 import com.github.liuchangming88.ecommerce_backend.api.model.OrderResponse;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.service.order.CheckoutAdmission;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderHistoryService;
 import com.github.liuchangming88.ecommerce_backend.service.order.OrderService;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderStatusStreams;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
 import java.util.List;
@@ -19,9 +29,16 @@ import java.util.List;
 @RequestMapping(path = "/orders")
 public class OrderController {
     OrderService orderService;
+    OrderHistoryService orderHistoryService;
+    OrderStatusStreams orderStatusStreams;
+    CheckoutAdmission checkoutAdmission;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderHistoryService orderHistoryService,
+                           OrderStatusStreams orderStatusStreams, CheckoutAdmission checkoutAdmission) {
         this.orderService = orderService;
+        this.orderHistoryService = orderHistoryService;
+        this.orderStatusStreams = orderStatusStreams;
+        this.checkoutAdmission = checkoutAdmission;
     }
 
     @PreAuthorize("hasRole('USER')")
@@ -34,13 +51,52 @@ public class OrderController {
         return new ResponseEntity<>(allOrdersList, HttpStatus.OK);
     }
 
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/history")
+    public ResponseEntity<OrderHistoryResponse> getOrderHistory(@AuthenticationPrincipal LocalUser user,
+                                                                @Valid @ModelAttribute OrderHistoryRequest request) {
+        return ResponseEntity.ok(orderHistoryService.getOrderHistory(user.getId(), request));
+    }
+
+    // Server-sent events: one "order-status" event per status change of the user's orders, instead of polling
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(@AuthenticationPrincipal LocalUser user,
+                                        @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return orderStatusStreams.subscribe(user.getId(), lastEventId);
+    }
+
     @PreAuthorize("hasRole('USER')")
     @PostMapping
     public ResponseEntity<OrderResponse> createOrder(@AuthenticationPrincipal LocalUser user,
-                                                     @RequestBody @Valid CreateOrderRequest request) {
-        OrderResponse resp = orderService.createOrder(user, request);
+                                                     @RequestBody @Valid CreateOrderRequest request,
+                                                     @RequestHeader(name = CheckoutAdmission.TICKET_HEADER, required = false) String ticket) {
+        // Sold out -> 409 before any database work; checkout busy -> 202 with a ticket to poll
+        OrderResponse resp = checkoutAdmission.checkout(user.getId(), request.getItems(), ticket,
+                () -> orderService.createOrder(user, request));
         return ResponseEntity
                 .created(URI.create("/orders/" + resp.getId()))
                 .body(resp);
     }
+
+    // PENDING orders only; the stock is released right away instead of at expiry
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/{orderId}/cancel")
+    public ResponseEntity<OrderResponse> cancelOrder(@AuthenticationPrincipal LocalUser user, @PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.cancelOrder(user, orderId));
+    }
+
+    // Prices and stock for the items as they are now; reserves nothing (unlike POST /orders)
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping("/quote")
+    public ResponseEntity<OrderQuoteResponse> quoteOrder(@RequestBody @Valid OrderQuoteRequest request) {
+        return ResponseEntity.ok(orderService.quote(request));
+    }
+
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/tickets/{ticket}")
+    public ResponseEntity<CheckoutTicketResponse> getCheckoutTicket(@AuthenticationPrincipal LocalUser user,
+                                                                    @PathVariable String ticket) {
+        return ResponseEntity.ok(checkoutAdmission.ticketStatus(user.getId(), ticket));
+    }
 }
@@ -1,11 +1,14 @@
 package com.github.liuchangming88.ecommerce_backend.api.controller.product;
 
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
+import com.github.liuchangming88.ecommerce_backend.model.product.CatalogVersion;
+import com.github.liuchangming88.ecommerce_backend.model.product.ProductVersion;
 import com.github.liuchangming88.ecommerce_backend.service.product.ProductService;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,14 +24,30 @@ public class ProductController {
     @GetMapping
     public ResponseEntity<Page<ProductResponse>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        // Answer 304 from the catalog version alone; checkNotModified also sets ETag/Last-Modified for the 200 case
+        CatalogVersion version = productService.getCatalogVersion();
+        if (webRequest.checkNotModified(version.toWeakEtag(page, size), version.lastModifiedMillis())) {
+            return null;
+        }
 
         Page<ProductResponse> allProducts = productService.getAllProducts(page, size);
         return new ResponseEntity<>(allProducts, HttpStatus.OK);
     }
 
+    // GET /products?ids=1,2,3 - batch lookup for cart/checkout screens, results in request order
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(@RequestParam List<Long> ids) {
+        return new ResponseEntity<>(productService.getProducts(ids), HttpStatus.OK);
+    }
+
     @GetMapping(path = "/{productId}")
-    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long productId) {
+    public ResponseEntity<ProductResponse> getProduct(@PathVariable Long productId, WebRequest webRequest) {
+        ProductVersion version = productService.getProductVersion(productId);
+        if (webRequest.checkNotModified(version.toEtag(), version.lastModifiedMillis())) {
+            return null;
+        }
         return new ResponseEntity<>(productService.getProduct(productId), HttpStatus.OK);
     }
 }
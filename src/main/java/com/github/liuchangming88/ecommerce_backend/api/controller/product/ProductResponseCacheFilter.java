@@ -0,0 +1,181 @@
+package com.github.liuchangming88.ecommerce_backend.api.controller.product;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.CachedHttpResponse;
+import com.github.liuchangming88.ecommerce_backend.configuration.CompactRedisSerializer;
+import com.github.liuchangming88.ecommerce_backend.configuration.ResponseCacheProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Serves GET /products and GET /products/{id} from fully rendered JSON bytes.
+ *
+ * A hit skips the controller, the service cache lookup and message conversion entirely.
+ * A miss lets the request through, captures the rendered body and stores it (optionally gzipped).
+ * Single products (CACHE_NAME) and pages or id lists (PAGE_CACHE_NAME) are kept apart: the bodies show stock, so
+ * when an order moves a product's stock ProductStockEvictionHandler evicts that product's entry and clears the pages,
+ * leaving the other products' entries alone. Admin changes evict both together with the "products"/"product" caches.
+ */
+@Component
+public class ProductResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_NAME = "productResponses";
+    public static final String PAGE_CACHE_NAME = "productPageResponses";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductResponseCacheFilter.class);
+
+    private static final RequestMatcher PAGE_ENDPOINT = new AntPathRequestMatcher("/products", "GET");
+    private static final RequestMatcher PRODUCT_ENDPOINT = new AntPathRequestMatcher("/products/*", "GET");
+    private static final RequestMatcher CATALOG_ENDPOINTS = new OrRequestMatcher(PAGE_ENDPOINT, PRODUCT_ENDPOINT);
+
+    private final CacheManager cacheManager;
+    private final ResponseCacheProperties props;
+
+    public ProductResponseCacheFilter(CacheManager cacheManager, ResponseCacheProperties props) {
+        this.cacheManager = cacheManager;
+        this.props = props;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !props.isEnabled() || !CATALOG_ENDPOINTS.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Cache cache = cacheManager.getCache(PRODUCT_ENDPOINT.matches(request) ? CACHE_NAME : PAGE_CACHE_NAME);
+        if (cache == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = cacheKey(request);
+        CachedHttpResponse cached = readQuietly(cache, key);
+        if (cached != null) {
+            writeCached(request, response, cached);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && body.length > 0 && body.length <= props.getMaxBodySize()) {
+            // Controller may already have set a (version based) ETag; fall back to a content hash
+            String etag = wrapper.getHeader(HttpHeaders.ETAG);
+            if (etag == null) {
+                etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+                wrapper.setHeader(HttpHeaders.ETAG, etag);
+            }
+            String contentType = wrapper.getContentType() != null ? wrapper.getContentType() : MediaType.APPLICATION_JSON_VALUE;
+            CachedHttpResponse entry = props.isGzip()
+                    ? new CachedHttpResponse(contentType, etag, true, CompactRedisSerializer.gzip(body))
+                    : new CachedHttpResponse(contentType, etag, false, body);
+            writeQuietly(cache, key, entry);
+            wrapper.setHeader(HttpHeaders.CACHE_CONTROL, props.getCacheControl());
+            wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            wrapper.setHeader("X-Cache", "MISS");
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response, CachedHttpResponse cached) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.getEtag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, props.getCacheControl());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader("X-Cache", "HIT");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = cached.getBody();
+        if (cached.isGzipped()) {
+            if (acceptsGzip(request)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            } else {
+                body = CompactRedisSerializer.gunzip(body);
+            }
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.getContentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Key of the rendered GET /products/{productId}, for evicting it.
+     */
+    public static String productKey(Long productId) {
+        return "/products/" + productId;
+    }
+
+    // Path within the application plus query parameters in name order, so "?size=5&page=1" and "?page=1&size=5"
+    // share one entry
+    private static String cacheKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String query = request.getParameterMap().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getKey() + "=" + String.join(",", e.getValue()))
+                .collect(Collectors.joining("&"));
+        return query.isEmpty() ? path : path + "?" + query;
+    }
+
+    // If-None-Match holds "*" or a list of tags and is compared weakly (RFC 9110 13.1.2): W/"x" matches "x"
+    static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        String opaque = opaqueTag(etag);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || opaqueTag(tag).equals(opaque));
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(encoding -> encoding.startsWith("gzip"));
+    }
+
+    // The response cache is an optimisation only; a Redis hiccup must never fail a catalog read
+    private static CachedHttpResponse readQuietly(Cache cache, String key) {
+        try {
+            return cache.get(key, CachedHttpResponse.class);
+        } catch (RuntimeException e) {
+            log.warn("Response cache read failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeQuietly(Cache cache, String key, CachedHttpResponse entry) {
+        try {
+            cache.put(key, entry);
+        } catch (RuntimeException e) {
+            log.warn("Response cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkInventoryAdjustmentResponse {
+    private int requested;
+    private int applied;
+    private List<InventoryAdjustmentFailure> failures = new ArrayList<>();
+}
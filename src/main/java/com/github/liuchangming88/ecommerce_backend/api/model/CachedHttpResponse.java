@@ -0,0 +1,20 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Fully rendered response body kept in the response cache, so a hit can be written straight to the output stream.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedHttpResponse {
+    private String contentType;
+    private String etag;
+    private boolean gzipped;
+    private byte[] body;
+}
@@ -0,0 +1,16 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartCheckoutRequest {
+    @NotNull
+    private Long addressId;
+}
@@ -0,0 +1,19 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * New quantity of a cart line; remove the line with DELETE instead of setting 0.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemUpdateRequest {
+    @Min(1)
+    private int quantity;
+}
@@ -0,0 +1,22 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartLineResponse {
+    private Long productId;
+    private String name;
+    private BigDecimal unitPrice;
+    private int quantity;
+    private BigDecimal lineTotal;
+    // From the cached product, so indicative only; checkout has the final word
+    private boolean inStock;
+}
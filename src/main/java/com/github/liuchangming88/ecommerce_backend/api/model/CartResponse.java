@@ -0,0 +1,21 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The user's cart priced at current product prices. Products deleted since they were added are left out.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartResponse {
+    private List<CartLineResponse> items;
+    private BigDecimal total;
+}
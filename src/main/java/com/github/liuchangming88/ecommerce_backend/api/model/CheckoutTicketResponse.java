@@ -0,0 +1,26 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A place in the checkout line of a product. WAITING: poll again after retryAfterSeconds; ADMITTED: repeat
+ * POST /orders with the ticket before admittedUntil; SOLD_OUT and EXPIRED are final.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutTicketResponse {
+    private String ticket;
+    private Long productId;
+    private String status;
+    // 1 = next in line; 0 unless WAITING
+    private long position;
+    private OffsetDateTime admittedUntil;
+    private long retryAfterSeconds;
+}
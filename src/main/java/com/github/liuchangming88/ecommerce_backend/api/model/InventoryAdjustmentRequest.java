@@ -0,0 +1,31 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One line of a bulk inventory adjustment: either an absolute stock level (SET) or a signed change (DELTA).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryAdjustmentRequest {
+
+    public enum Mode {
+        SET,
+        DELTA
+    }
+
+    @NotNull(message = "Product ID is required.")
+    private Long productId;
+
+    @NotNull(message = "Mode is required.")
+    private Mode mode;
+
+    @NotNull(message = "Quantity is required.")
+    private Long quantity;
+}
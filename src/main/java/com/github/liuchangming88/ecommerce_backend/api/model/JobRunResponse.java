@@ -0,0 +1,22 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import com.github.liuchangming88.ecommerce_backend.jobs.JobOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobRunResponse {
+    private String job;
+    private OffsetDateTime startedAt;
+    private long durationMs;
+    private int rowsProcessed;
+    private JobOutcome outcome;
+    private String error;
+}
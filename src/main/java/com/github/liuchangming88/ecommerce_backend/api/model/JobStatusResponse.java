@@ -0,0 +1,23 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobStatusResponse {
+    private String name;
+    private boolean scheduled;
+    private boolean running;
+    private long fixedDelayMs;
+    private long timeBudgetMs;
+    // Most recent first
+    private List<JobRunResponse> recentRuns = new ArrayList<>();
+}
@@ -0,0 +1,45 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Query parameters of GET /orders/history. Every filter is optional; from is inclusive and to exclusive.
+ * cursor is the nextCursor of the previous page.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderHistoryRequest {
+    private List<OrderStatus> status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime to;
+
+    @PositiveOrZero
+    private BigDecimal minAmount;
+
+    @PositiveOrZero
+    private BigDecimal maxAmount;
+
+    private String cursor;
+
+    @Min(1)
+    @Max(100)
+    private int size = 20;
+}
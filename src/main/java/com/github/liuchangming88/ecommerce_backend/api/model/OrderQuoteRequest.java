@@ -0,0 +1,25 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * The items of a prospective order; no address, since nothing is placed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderQuoteRequest {
+    @NotNull
+    @Size(min = 1, message = "At least one item required")
+    @Valid
+    private List<ItemRequest> items;
+}
@@ -0,0 +1,25 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * What POST /orders would charge for the items right now, and whether there is stock for them.
+ * Nothing is reserved: stock can still run out before the order is placed.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderQuoteResponse {
+    private List<OrderQuoteLineResponse> items;
+    private BigDecimal totalAmount;
+    private String currency;
+    // Every line is available
+    private boolean available;
+}
@@ -0,0 +1,19 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One rejected row of a bulk product import. Line numbers are 1-based and count the CSV header.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportError {
+    private long line;
+    private String name;
+    private String message;
+}
@@ -0,0 +1,22 @@
+package com.github.liuchangming88.ecommerce_backend.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResponse {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    // Only the first errors are listed (see product.import.max-reported-errors); failed holds the full count
+    private boolean errorsTruncated;
+    private List<ProductImportError> errors = new ArrayList<>();
+}
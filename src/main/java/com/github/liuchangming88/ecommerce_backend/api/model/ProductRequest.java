@@ -26,6 +26,10 @@ public class ProductRequest {
     @Digits(integer = 10, fraction = 2, message = "Price can only have up to 10 integer digits and 2 decimal places")
     private BigDecimal price;
 
+    @Size(max = 32, message = "Product class can be at most 32 characters")
+    @Pattern(regexp = "^[a-z0-9-]*$", message = "Product class can only contain lowercase letters, numbers and dashes")
+    private String productClass;
+
     @NotNull(message = "Quantity must not be empty.")
     @Min(value = 0, message = "Quantity cannot be negative.")
     private Long quantity;
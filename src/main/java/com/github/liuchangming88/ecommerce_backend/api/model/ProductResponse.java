@@ -1,5 +1,7 @@
 package com.github.liuchangming88.ecommerce_backend.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,6 +13,8 @@ import java.math.BigDecimal;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+// Also the cached form of a product: entries written by another version of this class must still read
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class ProductResponse {
     private Long id;
     private String name;
@@ -18,4 +22,11 @@ public class ProductResponse {
     private String longDescription;
     private BigDecimal price;
     private Long quantity;
+    // Selects the order hold (order.hold.by-class); left out when unset, so those cache entries keep their old shape
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String productClass;
+
+    public ProductResponse(Long id, String name, String shortDescription, String longDescription, BigDecimal price, Long quantity) {
+        this(id, name, shortDescription, longDescription, price, quantity, null);
+    }
 }
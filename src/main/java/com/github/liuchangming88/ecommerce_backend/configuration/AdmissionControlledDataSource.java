@@ -0,0 +1,102 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.exception.DatabaseBusyException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gates connection checkout with a (fair) semaphore.
+ *
+ * With virtual threads, thousands of requests can reach the data layer at once. Without a gate they all queue inside
+ * the 5-connection Hikari pool until its 30s connection timeout; with it, waiters queue in arrival order and give up
+ * after a short, configurable timeout with DatabaseBusyException (mapped to 503), which sheds load instead of piling it up.
+ * A permit is held from getConnection() until the connection is closed, i.e. for a whole transaction.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public AdmissionControlledDataSource(DataSource target, DatabaseAdmissionProperties properties) {
+        super(target);
+        this.permits = new Semaphore(properties.getMaxConcurrent(), properties.isFair());
+        this.timeoutNanos = properties.getAcquireTimeout().toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new DatabaseBusyException("The database is busy, please retry shortly.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for a database connection.");
+        }
+    }
+
+    // Releases the permit exactly once, on the first close()
+    private Connection guard(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        if (released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    if (method.getName().equals("unwrap") && ((Class<?>) args[0]).isInstance(connection)) {
+                        return connection;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Raises the request pool's statement timeout (db.pools.statement-timeout) to db.pools.bulk-statement-timeout for
+ * the current transaction of a bulk admin operation (import, inventory adjustment), whose batched statements can run
+ * far longer than a request's. SET LOCAL ends with the transaction, so the connection goes back to the pool unchanged.
+ * Applied on PostgreSQL only, like the pool timeouts themselves.
+ */
+@Component
+public class BulkStatementTimeout {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConnectionPoolProperties pools;
+    private final boolean postgres;
+
+    public BulkStatementTimeout(JdbcTemplate jdbcTemplate, ConnectionPoolProperties pools, DataSourceProperties dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pools = pools;
+        this.postgres = dataSource.getUrl() != null && dataSource.getUrl().startsWith("jdbc:postgresql:");
+    }
+
+    /**
+     * Must be called inside the bulk transaction, before its first long statement.
+     */
+    public void applyToCurrentTransaction() {
+        Duration timeout = pools.getBulkStatementTimeout();
+        if (!postgres || timeout == null) return;
+        // SET doesn't take bind parameters; the value is a number of milliseconds
+        jdbcTemplate.execute("SET LOCAL statement_timeout = " + timeout.toMillis());
+    }
+}
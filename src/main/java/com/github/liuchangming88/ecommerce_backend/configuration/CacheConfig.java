@@ -1,23 +1,43 @@
 package com.github.liuchangming88.ecommerce_backend.configuration;
 
+import com.github.liuchangming88.ecommerce_backend.api.controller.product.ProductResponseCacheFilter;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
-import java.time.Duration;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
     @Bean
-    public RedisCacheConfiguration cacheConfiguration() {
+    public RedisCacheConfiguration cacheConfiguration(RedisCacheProperties properties) {
         return RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(60)) // Set default TTL to 60 minutes
+                .entryTtl(properties.getTtl()) // Defaults to 60 minutes
                 .disableCachingNullValues()
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
-                        new GenericJackson2JsonRedisSerializer()));
+                        new CompactRedisSerializer(properties)));
     }
-}
\ No newline at end of file
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer redisCacheManagerCustomizer(RedisConnectionFactory connectionFactory,
+                                                                         RedisCacheConfiguration cacheConfiguration,
+                                                                         RedisCacheProperties properties) {
+        return builder -> builder
+                // allEntries evictions use SCAN instead of a blocking KEYS
+                .cacheWriter(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000)))
+                // Rendered responses may already be gzipped, so don't compress them a second time
+                .withCacheConfiguration(ProductResponseCacheFilter.CACHE_NAME, uncompressed(cacheConfiguration, properties))
+                .withCacheConfiguration(ProductResponseCacheFilter.PAGE_CACHE_NAME, uncompressed(cacheConfiguration, properties));
+    }
+
+    private static RedisCacheConfiguration uncompressed(RedisCacheConfiguration cacheConfiguration, RedisCacheProperties properties) {
+        return cacheConfiguration.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                new CompactRedisSerializer(properties.getFormat(), -1)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Server-side shopping carts (CartService).
+ */
+@Component
+@ConfigurationProperties(prefix = "cart")
+@Getter
+@Setter
+public class CartProperties {
+    /**
+     * Where carts are kept: "redis" (one hash per user, so cart reads never reach the database) or "database"
+     * (the cart_item table), the fallback for deployments without Redis.
+     */
+    private String store = "database";
+
+    /**
+     * Hash key prefix when store is "redis"; the user id is appended.
+     */
+    private String keyPrefix = "cart:";
+
+    /**
+     * A Redis cart untouched for this long is dropped.
+     */
+    private Duration ttl = Duration.ofDays(30);
+
+    /**
+     * Different products one cart may hold.
+     */
+    private int maxItems = 100;
+
+    /**
+     * Largest quantity of one product in a cart.
+     */
+    private int maxQuantity = 999;
+}
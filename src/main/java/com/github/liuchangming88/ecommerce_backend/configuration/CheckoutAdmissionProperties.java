@@ -0,0 +1,47 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Admission control in front of order creation (CheckoutAdmission): per-product checkout limits and waiting room.
+ */
+@Component
+@ConfigurationProperties(prefix = "order.admission")
+@Getter
+@Setter
+public class CheckoutAdmissionProperties {
+    /**
+     * Whether POST /orders goes through admission control at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Checkouts of one product running at once; further buyers wait in line. Keep below the connection pool size.
+     */
+    private int maxConcurrentPerProduct = 4;
+
+    /**
+     * How long the in-memory stock level of a product is trusted before it is read from the database again.
+     */
+    private Duration stockRefreshInterval = Duration.ofSeconds(2);
+
+    /**
+     * How long an admitted ticket may wait to be used before its checkout slot goes to the next in line.
+     */
+    private Duration admissionWindow = Duration.ofSeconds(30);
+
+    /**
+     * A waiting ticket that hasn't been polled for this long is dropped from the line.
+     */
+    private Duration abandonAfter = Duration.ofSeconds(30);
+
+    /**
+     * Suggested polling interval for waiting clients (Retry-After).
+     */
+    private Duration pollInterval = Duration.ofSeconds(2);
+}
@@ -0,0 +1,103 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+  Redis value serializer used by the caches in place of GenericJackson2JsonRedisSerializer.
+  Values are written as Smile (binary JSON, same data model and type hints as the JSON serializer) and gzipped once they reach the configured threshold.
+  Reading sniffs the leading bytes, so entries written earlier as plain JSON (or with a different threshold) stay readable after a config change.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte GZIP_MAGIC_1 = (byte) 0x1f;
+    private static final byte GZIP_MAGIC_2 = (byte) 0x8b;
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final GenericJackson2JsonRedisSerializer smileSerializer;
+    private final GenericJackson2JsonRedisSerializer jsonSerializer;
+    private final RedisCacheProperties.Format format;
+    private final int compressionThreshold;
+
+    public CompactRedisSerializer(RedisCacheProperties.Format format, int compressionThreshold) {
+        this.smileSerializer = jacksonSerializer(new SmileMapper());
+        this.jsonSerializer = jacksonSerializer(new ObjectMapper());
+        this.format = format;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public CompactRedisSerializer(RedisCacheProperties properties) {
+        this(properties.getFormat(), properties.getCompressionThreshold());
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) return new byte[0];
+        byte[] encoded = (format == RedisCacheProperties.Format.SMILE ? smileSerializer : jsonSerializer).serialize(value);
+        if (compressionThreshold < 0 || encoded.length < compressionThreshold) {
+            return encoded;
+        }
+        try {
+            return gzip(encoded);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value of type " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) return null;
+        byte[] encoded;
+        try {
+            encoded = isGzipped(bytes) ? gunzip(bytes) : bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Could not decompress cache value", e);
+        }
+        return (isSmile(encoded) ? smileSerializer : jsonSerializer).deserialize(encoded);
+    }
+
+    // Reuse Spring's typing scheme ("@class" hints) for both formats; only the underlying JsonFactory differs
+    private static GenericJackson2JsonRedisSerializer jacksonSerializer(ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        return GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(mapper)
+                .defaultTyping(true)
+                .build();
+    }
+
+    private static boolean isGzipped(byte[] bytes) {
+        return bytes.length > 2 && bytes[0] == GZIP_MAGIC_1 && bytes[1] == GZIP_MAGIC_2;
+    }
+
+    private static boolean isSmile(byte[] bytes) {
+        return bytes.length >= SMILE_HEADER.length
+                && bytes[0] == SMILE_HEADER[0]
+                && bytes[1] == SMILE_HEADER[1]
+                && bytes[2] == SMILE_HEADER[2];
+    }
+
+    // Also used by ProductResponseCacheFilter for its pre-compressed bodies
+    public static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-pool limits on top of spring.datasource.hikari (the request pool) and the pools in DataSourceConfig.
+ */
+@Component
+@ConfigurationProperties(prefix = "db.pools")
+@Getter
+@Setter
+public class ConnectionPoolProperties {
+    /**
+     * Server-side statement timeout for the request pool (and the replica pool). Applied on PostgreSQL only.
+     */
+    private Duration statementTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Statement timeout inside the transactions of bulk admin operations on the request pool (BulkStatementTimeout);
+     * 0 disables it there. Applied on PostgreSQL only.
+     */
+    private Duration bulkStatementTimeout = Duration.ofMinutes(2);
+
+    private final Jobs jobs = new Jobs();
+
+    @Getter
+    @Setter
+    public static class Jobs {
+        /**
+         * Whether transactions of jobsTransactionManager take connections from their own pool.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Connections in the jobs pool; counts against the database's connection limit next to the request pool.
+         */
+        private int maximumPoolSize = 2;
+
+        /**
+         * Server-side statement timeout for the jobs pool. Applied on PostgreSQL only.
+         */
+        private Duration statementTimeout = Duration.ofSeconds(60);
+
+        /**
+         * Default timeout of jobsTransactionManager transactions; also caps each JPA query in them.
+         */
+        private Duration transactionTimeout = Duration.ofMinutes(2);
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Connection pools and how the application DataSource picks between them:
+ *  - primary: request traffic (spring.datasource / spring.datasource.hikari)
+ *  - jobs:    transactions of jobsTransactionManager (db.pools.jobs), see JobAwareDataSource
+ *  - replica: read-only transactions when db.replica.enabled (ReadReplicaConfig)
+ *  - flyway:  unpooled connections for migrations only, without a statement timeout
+ * Each pool reports Hikari metrics under its pool name plus db.pool.utilization (active / max).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    public static final String JOBS_TRANSACTION_MANAGER = "jobsTransactionManager";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, ConnectionPoolProperties pools) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        applyStatementTimeout(dataSource, pools.getStatementTimeout());
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "db.pools.jobs.enabled", havingValue = "true", matchIfMissing = true)
+    public HikariDataSource jobsDataSource(DataSourceProperties properties, ConnectionPoolProperties pools) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("jobs");
+        dataSource.setMaximumPoolSize(pools.getJobs().getMaximumPoolSize());
+        // Jobs run every few seconds; don't hold idle connections between runs
+        dataSource.setMinimumIdle(0);
+        applyStatementTimeout(dataSource, pools.getJobs().getStatementTimeout());
+        return dataSource;
+    }
+
+    // Backfills and CREATE INDEX CONCURRENTLY outlast any request-sized statement timeout, so Flyway doesn't use the
+    // primary pool. Not a default candidate: nothing but Flyway (@FlywayDataSource) is handed these connections.
+    @Bean(defaultCandidate = false)
+    @FlywayDataSource
+    @ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "true", matchIfMissing = true)
+    public DataSource flywayDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("jobsDataSource") ObjectProvider<DataSource> jobsDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReadYourWritesGuard> readYourWritesGuard) {
+        DataSource jobs = jobsDataSource.getIfAvailable();
+        DataSource writable = jobs != null ? new JobAwareDataSource(primaryDataSource, jobs) : primaryDataSource;
+
+        DataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null) return writable;
+
+        // A transaction takes its physical connection at the first statement, once its read-only flag is known
+        ReadYourWritesGuard guard = readYourWritesGuard.getObject();
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(guard.trackingWrites(writable));
+        routing.setReadOnlyDataSource(guard.replicaUnlessRecentWriter(replica, primaryDataSource));
+        return routing;
+    }
+
+    // Declaring a second transaction manager switches off Boot's default one, so it is declared here as well
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean(JOBS_TRANSACTION_MANAGER)
+    public JobsTransactionManager jobsTransactionManager(EntityManagerFactory entityManagerFactory, ConnectionPoolProperties pools) {
+        JobsTransactionManager transactionManager = new JobsTransactionManager(entityManagerFactory);
+        transactionManager.setDefaultTimeout((int) pools.getJobs().getTransactionTimeout().toSeconds());
+        return transactionManager;
+    }
+
+    @Bean
+    public MeterBinder connectionPoolUtilization(ObjectProvider<DataSource> dataSources) {
+        return meterRegistry -> {
+            Set<String> bound = new HashSet<>();
+            dataSources.forEach(dataSource -> {
+                // Pools may be wrapped (admission control, routing); the routing beans themselves unwrap to nothing
+                HikariDataSource pool = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+                if (pool == null || !bound.add(pool.getPoolName())) return;
+                Gauge.builder("db.pool.utilization", pool, DataSourceConfig::utilization)
+                        .description("Share of the pool's connections in use; 1 means callers are queueing")
+                        .tag("pool", pool.getPoolName())
+                        .register(meterRegistry);
+            });
+        };
+    }
+
+    private static double utilization(HikariDataSource pool) {
+        if (pool.getHikariPoolMXBean() == null) return 0;
+        return (double) pool.getHikariPoolMXBean().getActiveConnections() / pool.getMaximumPoolSize();
+    }
+
+    // PostgreSQL takes session settings through the "options" connection property; other drivers would reject it
+    static void applyStatementTimeout(HikariDataSource dataSource, Duration timeout) {
+        if (timeout == null || timeout.isZero() || dataSource.getJdbcUrl() == null
+                || !dataSource.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+            return;
+        }
+        dataSource.addDataSourceProperty("options", "-c statement_timeout=" + timeout.toMillis());
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "db.admission.enabled", havingValue = "true")
+public class DatabaseAdmissionConfig {
+
+    // Static so the post-processor doesn't force early initialization of this configuration class
+    @Bean
+    public static BeanPostProcessor admissionControlledDataSourcePostProcessor(ObjectProvider<DatabaseAdmissionProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Each pool (primary, jobs, replica) is gated on its own; the routing DataSources in front of them are not
+                if (bean instanceof DataSource dataSource && !(bean instanceof AdmissionControlledDataSource)
+                        && !(bean instanceof LazyConnectionDataSourceProxy) && !(bean instanceof AbstractRoutingDataSource)) {
+                    return new AdmissionControlledDataSource(dataSource, properties.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limits how many threads may hold a database connection at once (see AdmissionControlledDataSource).
+ */
+@Component
+@ConfigurationProperties(prefix = "db.admission")
+@Getter
+@Setter
+public class DatabaseAdmissionProperties {
+    /**
+     * Whether connections are handed out through the limiter. Meant for the virtual-thread mode.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Concurrent connection holders; keep at or below the Hikari pool size.
+     */
+    private int maxConcurrent = 5;
+
+    /**
+     * How long a caller waits for a slot before the request fails with 503.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+    /**
+     * First come, first served; prevents starvation of early waiters under heavy load.
+     */
+    private boolean fair = true;
+}
@@ -0,0 +1,42 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out connections from the jobs pool while the current thread runs a JobsTransactionManager transaction,
+ * and from the request pool otherwise. Both pools serve the same database and the same EntityManagerFactory,
+ * so repositories and services are shared; only where the connection comes from differs.
+ */
+public class JobAwareDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> JOB_DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private enum Pool { REQUESTS, JOBS }
+
+    public JobAwareDataSource(DataSource requests, DataSource jobs) {
+        setTargetDataSources(Map.of(Pool.REQUESTS, requests, Pool.JOBS, jobs));
+        setDefaultTargetDataSource(requests);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return JOB_DEPTH.get() > 0 ? Pool.JOBS : Pool.REQUESTS;
+    }
+
+    static void enterJob() {
+        JOB_DEPTH.set(JOB_DEPTH.get() + 1);
+    }
+
+    static void exitJob() {
+        int depth = JOB_DEPTH.get() - 1;
+        if (depth <= 0) {
+            JOB_DEPTH.remove();
+        } else {
+            JOB_DEPTH.set(depth);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Scheduling of maintenance jobs (see JobScheduler). Each job is configured under jobs.definitions.&lt;job name&gt;;
+ * a job without an entry runs with the defaults below.
+ */
+@Component
+@ConfigurationProperties(prefix = "jobs")
+@Getter
+@Setter
+public class JobSchedulerProperties {
+    /**
+     * How long shutdown waits for running jobs to finish their current batch.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Number of past runs kept per job for the admin run history.
+     */
+    private int historySize = 50;
+
+    /**
+     * Per-job settings, keyed by job name.
+     */
+    private Map<String, Job> definitions = new LinkedHashMap<>();
+
+    public Job job(String name) {
+        return definitions.getOrDefault(name, new Job());
+    }
+
+    @Getter
+    @Setter
+    public static class Job {
+        /**
+         * Whether the job runs on its schedule. A disabled job can still be started from the admin endpoint.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay before the first run after startup.
+         */
+        private Duration initialDelay = Duration.ofSeconds(5);
+
+        /**
+         * Delay between the end of one run and the start of the next.
+         */
+        private Duration fixedDelay = Duration.ofSeconds(30);
+
+        /**
+         * Wall-clock budget of one run. A job checks it between batches and leaves the rest for the next run.
+         */
+        private Duration timeBudget = Duration.ofSeconds(20);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Transaction manager for maintenance jobs: @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER).
+ *
+ * Same EntityManagerFactory as the default manager, so the two join each other's transactions, but the connection
+ * of a transaction it starts comes from the jobs pool (JobAwareDataSource). A heavy expiry sweep then waits on its own
+ * pool instead of taking connections from checkout.
+ */
+public class JobsTransactionManager extends JpaTransactionManager {
+
+    public JobsTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        JobAwareDataSource.enterJob();
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            JobAwareDataSource.exitJob();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            JobAwareDataSource.exitJob();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Properties controlling the move of old terminal orders into the archive tables (OrderArchiveService).
+ */
+@Component
+@ConfigurationProperties(prefix = "order.archive")
+@Getter
+@Setter
+public class OrderArchiveProperties {
+    /**
+     * Whether the archive job moves anything.
+     */
+    private boolean enabled = true;
+
+    /**
+     * PAID, FAILED and CANCELLED orders created longer ago than this are moved, with their items and payments.
+     */
+    private Duration olderThan = Duration.ofDays(90);
+
+    /**
+     * Orders moved per transaction.
+     */
+    private int batchSize = 500;
+}
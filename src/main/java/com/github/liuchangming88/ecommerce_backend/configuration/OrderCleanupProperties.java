@@ -22,4 +22,15 @@ public class OrderCleanupProperties {
      * Whether the scheduler is enabled.
      */
     private boolean enabled = true;
+
+    /**
+     * Where orders wait for their expiresAt: "memory" (this instance only) or "redis" (a sorted set shared by all
+     * instances). The database sweep (stale-order-failure) catches whatever the queue misses, e.g. after a restart.
+     */
+    private String expiryQueue = "memory";
+
+    /**
+     * Sorted set key used when expiry-queue is "redis".
+     */
+    private String expiryQueueKey = "orders:expiry";
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * How long a PENDING order keeps its stock reserved before the expiry job fails it and puts the stock back.
+ */
+@Component
+@ConfigurationProperties(prefix = "order.hold")
+@Getter
+@Setter
+public class OrderHoldProperties {
+    /**
+     * Hold for products without a product class, or with a class not listed in by-class.
+     */
+    private Duration defaultDuration = Duration.ofMinutes(15);
+
+    /**
+     * Hold per product class (Product.productClass), e.g. order.hold.by-class.flash-sale=5m.
+     */
+    private Map<String, Duration> byClass = new HashMap<>();
+
+    /**
+     * Hold of an order with products of these classes: the shortest among them, so a scarce item isn't held longer
+     * because it shares the order with ordinary ones.
+     */
+    public Duration holdFor(Collection<String> productClasses) {
+        return productClasses.stream()
+                .map(productClass -> productClass == null ? null : byClass.get(productClass))
+                .map(hold -> Objects.requireNonNullElse(hold, defaultDuration))
+                .min(Duration::compareTo)
+                .orElse(defaultDuration);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Properties of the order status event stream (GET /orders/events, OrderStatusStreams).
+ */
+@Component
+@ConfigurationProperties(prefix = "order.status-stream")
+@Getter
+@Setter
+public class OrderStatusStreamProperties {
+    /**
+     * How status changes reach the streams: "memory" (streams on this instance only) or "redis" (pub/sub, so a
+     * change made on one instance reaches streams open on every instance).
+     */
+    private String broadcaster = "memory";
+
+    /**
+     * Pub/sub channel used when broadcaster is "redis".
+     */
+    private String channel = "orders:status";
+
+    /**
+     * A stream is closed after this; the client reconnects with Last-Event-ID and misses nothing within replay-window.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Comment line sent on idle streams, so proxies don't close them and dead clients are noticed.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * Recent events kept per user for clients resuming with Last-Event-ID.
+     */
+    private int replaySize = 20;
+
+    /**
+     * Kept events older than this are dropped.
+     */
+    private Duration replayWindow = Duration.ofMinutes(5);
+
+    /**
+     * Open streams per user (tabs, devices); opening one more closes that user's oldest.
+     */
+    private int maxStreamsPerUser = 5;
+
+    /**
+     * Threads writing events to the streams. A client that stops reading holds one of them, at most for send-timeout.
+     */
+    private int sendThreads = 4;
+
+    /**
+     * A stream whose current write hasn't finished after this is closed; the client reconnects with Last-Event-ID.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Events waiting to be written to one stream; a client that falls further behind is closed.
+     */
+    private int maxPendingEvents = 32;
+}
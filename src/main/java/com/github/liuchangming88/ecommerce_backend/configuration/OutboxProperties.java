@@ -0,0 +1,43 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Properties of the transactional outbox and its relay job (Outbox, OutboxRelay).
+ */
+@Component
+@ConfigurationProperties(prefix = "outbox")
+@Getter
+@Setter
+public class OutboxProperties {
+    /**
+     * Events claimed and dispatched per batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long claimed events stay hidden from other relays. Events a relay claimed but never recorded (it died)
+     * are handed out again after this.
+     */
+    private Duration lease = Duration.ofMinutes(1);
+
+    /**
+     * Wait before retrying an event whose handler failed, multiplied by the number of failed attempts.
+     */
+    private Duration retryDelay = Duration.ofSeconds(30);
+
+    /**
+     * Failed attempts after which an event is no longer retried. It stays in the table, with its last error.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Relayed events are deleted after this.
+     */
+    private Duration retention = Duration.ofDays(7);
+}
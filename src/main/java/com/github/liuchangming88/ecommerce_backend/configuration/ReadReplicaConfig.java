@@ -0,0 +1,41 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Replica pool for the primary/replica split, enabled by db.replica.enabled.
+ *
+ * DataSourceConfig then makes the application DataSource a LazyConnectionDataSourceProxy: a transaction only takes
+ * a physical connection at its first statement, after Spring has marked it read-only or not. Read-only transactions
+ * (@Transactional(readOnly = true), and Spring Data's own read methods) then use the replica pool; everything else,
+ * and reads by a user who just wrote (ReadYourWritesGuard), use the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, ReplicaDataSourceProperties replica, ConnectionPoolProperties pools) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(primary.determineDriverClassName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        DataSourceConfig.applyStatementTimeout(dataSource, pools.getStatementTimeout());
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesGuard readYourWritesGuard(ReplicaDataSourceProperties replica) {
+        return new ReadYourWritesGuard(replica.getReadYourWritesWindow(), Clock.systemUTC());
+    }
+}
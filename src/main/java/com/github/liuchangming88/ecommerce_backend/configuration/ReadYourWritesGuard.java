@@ -0,0 +1,93 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a user's reads on the primary for a short window after they wrote, so replication lag never hides
+ * their own order or profile change from them.
+ *
+ * A write is noticed when the primary hands out a connection to a read-write transaction for an authenticated user.
+ * The window is tracked per instance; with several instances behind a load balancer, a user whose next request lands
+ * elsewhere can still see replica lag.
+ */
+public class ReadYourWritesGuard {
+
+    // Expired entries are pruned once the map grows past this many users
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final Map<String, Long> lastWriteMillis = new ConcurrentHashMap<>();
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesGuard(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    /**
+     * The primary pool, noting the current user whenever a read-write transaction takes a connection.
+     */
+    public DataSource trackingWrites(DataSource primary) {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (TransactionSynchronizationManager.isActualTransactionActive()
+                        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                    markWrite();
+                }
+                return super.getConnection();
+            }
+        };
+    }
+
+    /**
+     * The replica pool, except for users who wrote within the window; they get a primary connection instead.
+     */
+    public DataSource replicaUnlessRecentWriter(DataSource replica, DataSource primary) {
+        return new DelegatingDataSource(replica) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return wroteRecently() ? primary.getConnection() : super.getConnection();
+            }
+        };
+    }
+
+    void markWrite() {
+        String user = currentUser();
+        if (user == null) return;
+        long now = clock.millis();
+        lastWriteMillis.put(user, now);
+        if (lastWriteMillis.size() > PRUNE_THRESHOLD) {
+            lastWriteMillis.values().removeIf(at -> now - at > window.toMillis());
+        }
+    }
+
+    boolean wroteRecently() {
+        String user = currentUser();
+        if (user == null) return false;
+        Long at = lastWriteMillis.get(user);
+        return at != null && clock.millis() - at <= window.toMillis();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        // JwtRequestFilter authenticates with the LocalUser entity, whose toString() is not a stable name
+        return authentication.getPrincipal() instanceof LocalUser user ? user.getUsername() : authentication.getName();
+    }
+}
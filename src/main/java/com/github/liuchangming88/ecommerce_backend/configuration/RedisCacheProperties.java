@@ -0,0 +1,37 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Properties controlling how cached values are stored in Redis.
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.redis")
+@Getter
+@Setter
+public class RedisCacheProperties {
+    /**
+     * Time to live of every cache entry.
+     */
+    private Duration ttl = Duration.ofMinutes(60);
+
+    /**
+     * Wire format of cached values; SMILE is binary JSON.
+     */
+    private Format format = Format.SMILE;
+
+    /**
+     * Encoded values at least this large (in bytes) are gzipped before being written. Negative disables compression.
+     */
+    private int compressionThreshold = 2048;
+
+    public enum Format {
+        JSON,
+        SMILE
+    }
+}
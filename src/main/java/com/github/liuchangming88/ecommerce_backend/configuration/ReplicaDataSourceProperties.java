@@ -0,0 +1,41 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Optional read replica that serves read-only transactions (see ReadReplicaConfig).
+ */
+@Component
+@ConfigurationProperties(prefix = "db.replica")
+@Getter
+@Setter
+public class ReplicaDataSourceProperties {
+    /**
+     * Whether read-only transactions are routed to the replica. When off, everything uses spring.datasource.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URL of the replica. The driver is the one of spring.datasource.
+     */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * Connections in the replica pool.
+     */
+    private int maximumPoolSize = 5;
+
+    /**
+     * How long after a write a user's reads keep going to the primary; should exceed the usual replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
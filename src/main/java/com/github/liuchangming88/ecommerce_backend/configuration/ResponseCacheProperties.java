@@ -0,0 +1,35 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Properties controlling the pre-serialized response cache in front of the public catalog endpoints.
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.response")
+@Getter
+@Setter
+public class ResponseCacheProperties {
+    /**
+     * Whether rendered catalog responses are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Store bodies gzipped, so clients accepting gzip are served without any encoding work.
+     */
+    private boolean gzip = true;
+
+    /**
+     * Cache-Control header sent with cached catalog responses.
+     */
+    private String cacheControl = "public, max-age=60";
+
+    /**
+     * Responses larger than this (in bytes) are not cached.
+     */
+    private int maxBodySize = 1024 * 1024;
+}
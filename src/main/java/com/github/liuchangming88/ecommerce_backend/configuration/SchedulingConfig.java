@@ -1,9 +0,0 @@
-package com.github.liuchangming88.ecommerce_backend.configuration;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableScheduling;
-
-@Configuration
-@EnableScheduling
-public class SchedulingConfig {
-}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.github.liuchangming88.ecommerce_backend.configuration;
 
 import com.github.liuchangming88.ecommerce_backend.security.JwtRequestFilter;
+import jakarta.servlet.DispatcherType;
 import com.github.liuchangming88.ecommerce_backend.security.oauth2.UserHandler.CustomOAuth2UserService;
 import com.github.liuchangming88.ecommerce_backend.security.oauth2.OAuth2AuthenticationSuccessHandler;
 import com.github.liuchangming88.ecommerce_backend.security.oauth2.UserHandler.CustomOidcUserService;
@@ -17,6 +18,9 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -45,6 +49,11 @@ public class SecurityConfig {
                 .cors(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(SecurityConstants.getPublicRequestMatchers()).permitAll()
+                        // The stream was authorized when it started; the JWT filter doesn't run again when its async
+                        // response completes. Only this endpoint: any other async dispatch is checked as usual
+                        .requestMatchers(new AndRequestMatcher(
+                                new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                                new AntPathRequestMatcher("/orders/events", "GET"))).permitAll()
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth2 -> oauth2
@@ -26,7 +26,10 @@ public class SecurityConstants {
             "/oauth2/**",
             "/login/oauth2/**",
             "/payments/vnpay/ipn",
-            "/payments/vnpay/return"
+            "/payments/vnpay/return",
+            // Served on the management port (management.server.port), which is not exposed publicly
+            "/actuator/health",
+            "/actuator/prometheus"
     };
 
     // Convert to RequestMatchers for use elsewhere
@@ -0,0 +1,51 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wires per-request SQL accounting: Hibernate reports statements and JDBC time, SqlAccountingFilter scopes them
+ * per request and the interceptor below names the controller method they are tagged with.
+ * Replaces spring.jpa.show-sql, which printed every statement to stdout.
+ */
+@Configuration
+public class SqlAccountingConfig implements WebMvcConfigurer {
+
+    private final SqlAccountingProperties props;
+
+    public SqlAccountingConfig(SqlAccountingProperties props) {
+        this.props = props;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlAccountingHibernateCustomizer() {
+        return hibernateProperties -> {
+            if (!props.isEnabled()) return;
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector());
+            hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingListener.class.getName());
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                SqlStatementStats stats = SqlStatementStats.current();
+                if (stats != null && handler instanceof HandlerMethod method) {
+                    // e.g. "OrderController.createOrder"; bounded by the number of endpoints
+                    stats.setHandler(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+                }
+                return true;
+            }
+        });
+    }
+}
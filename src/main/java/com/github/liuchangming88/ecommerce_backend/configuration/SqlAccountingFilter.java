@@ -0,0 +1,107 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Opens a SqlStatementStats scope around each request (ahead of the security chain, whose user lookup counts too)
+ * and publishes the totals tagged by controller method:
+ *  - http.server.sql.statements{handler}          statements per request
+ *  - http.server.sql.time{handler}                JDBC execute time per request
+ *  - http.server.sql.budget.exceeded{handler,reason}
+ * Exceeding a budget or repeating one statement shape too often (a likely N+1) logs a warning.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlAccountingFilter.class);
+
+    // Requests rejected before reaching a controller (401, 404, cached catalog hits)
+    static final String NO_HANDLER = "none";
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    private final SqlAccountingProperties props;
+    private final MeterRegistry meterRegistry;
+
+    public SqlAccountingFilter(SqlAccountingProperties props, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !props.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (SqlStatementStats stats = SqlStatementStats.open()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                publish(request, stats);
+            }
+        }
+    }
+
+    private void publish(HttpServletRequest request, SqlStatementStats stats) {
+        String handler = stats.getHandler() != null ? stats.getHandler() : NO_HANDLER;
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.sql.time")
+                .description("JDBC execute time per HTTP request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(stats.getTime());
+
+        if (stats.getStatements() > props.getMaxStatements()) {
+            exceeded(handler, "statements");
+            log.warn("SQL budget exceeded: {} {} ({}) ran {} statements (budget {})",
+                    request.getMethod(), request.getRequestURI(), handler, stats.getStatements(), props.getMaxStatements());
+        }
+        if (stats.getTime().compareTo(props.getMaxTime()) > 0) {
+            exceeded(handler, "time");
+            log.warn("SQL budget exceeded: {} {} ({}) spent {} ms in JDBC (budget {} ms)",
+                    request.getMethod(), request.getRequestURI(), handler, stats.getTime().toMillis(), props.getMaxTime().toMillis());
+        }
+        Map.Entry<String, Integer> mostRepeated = stats.getMostRepeated();
+        if (mostRepeated != null && mostRepeated.getValue() >= props.getRepeatThreshold()) {
+            exceeded(handler, "repeated");
+            log.warn("Possible N+1: {} {} ({}) ran the same statement {} times: {}",
+                    request.getMethod(), request.getRequestURI(), handler, mostRepeated.getValue(), abbreviate(mostRepeated.getKey()));
+        }
+    }
+
+    private void exceeded(String handler, String reason) {
+        Counter.builder("http.server.sql.budget.exceeded")
+                .description("Requests that exceeded a per-request SQL budget")
+                .tag("handler", handler)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+}
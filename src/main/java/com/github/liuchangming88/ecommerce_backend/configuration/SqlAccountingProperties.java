@@ -0,0 +1,37 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-request SQL budgets enforced (as warnings) by SqlAccountingFilter.
+ */
+@Component
+@ConfigurationProperties(prefix = "sql.accounting")
+@Getter
+@Setter
+public class SqlAccountingProperties {
+    /**
+     * Whether statements are counted and timed per request.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Statements one request may execute before a warning is logged.
+     */
+    private int maxStatements = 20;
+
+    /**
+     * JDBC time one request may spend before a warning is logged.
+     */
+    private Duration maxTime = Duration.ofMillis(500);
+
+    /**
+     * Executions of the same statement shape in one request that are reported as a likely N+1.
+     */
+    private int repeatThreshold = 5;
+}
@@ -0,0 +1,15 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares into the current SqlStatementStats scope. The SQL is left unchanged.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementStats.recordStatement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statements and JDBC time accumulated on the current thread since open().
+ * Fed by SqlStatementInspector / SqlTimingListener (Hibernate), opened per request by SqlAccountingFilter.
+ * Scopes nest: a statement is counted in every open scope, so a test can wrap a whole MockMvc call
+ * while the filter keeps its own per-request scope.
+ */
+public final class SqlStatementStats implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    // "in (?, ?, ?)" and "in (?)" are the same statement for N+1 purposes
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlStatementStats parent;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statements;
+    private long nanos;
+    private String handler;
+
+    private SqlStatementStats(SqlStatementStats parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatementStats open() {
+        SqlStatementStats stats = new SqlStatementStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    static void recordStatement(String sql) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) return;
+        String shape = shapeOf(sql);
+        for (; stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static void recordTime(long elapsedNanos) {
+        for (SqlStatementStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.nanos += elapsedNanos;
+        }
+    }
+
+    static String shapeOf(String sql) {
+        String collapsed = PARAMETER_LIST.matcher(sql).replaceAll("(?)");
+        return WHITESPACE.matcher(collapsed).replaceAll(" ").trim();
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public Duration getTime() {
+        return Duration.ofNanos(nanos);
+    }
+
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    // The statement shape executed most often, or null when nothing ran
+    public Map.Entry<String, Integer> getMostRepeated() {
+        return shapes.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public void setHandler(String handler) {
+        this.handler = handler;
+    }
+}
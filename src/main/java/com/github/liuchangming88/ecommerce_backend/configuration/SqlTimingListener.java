@@ -0,0 +1,32 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds JDBC execute time (single statements and batches) to the current SqlStatementStats scope.
+ * Hibernate creates one instance per session (hibernate.session.events.auto), so the start time needs no synchronisation.
+ */
+public class SqlTimingListener implements SessionEventListener {
+
+    private long startNanos;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementStats.recordTime(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementStats.recordTime(System.nanoTime() - startNanos);
+    }
+}
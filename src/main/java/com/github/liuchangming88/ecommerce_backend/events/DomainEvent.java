@@ -0,0 +1,11 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+/**
+ * Something that happened to an order or product. The transaction that makes it happen records it with
+ * Outbox.append; after commit OutboxRelay hands it to every DomainEventHandler for its type, at least once.
+ * Events travel as JSON, so they carry ids and values, never entities.
+ */
+public sealed interface DomainEvent permits OrderCreated, OrderPaid, OrderExpired, OrderCancelled, ProductChanged {
+
+    Long aggregateId();
+}
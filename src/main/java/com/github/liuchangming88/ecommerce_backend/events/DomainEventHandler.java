@@ -0,0 +1,14 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+/**
+ * Reacts to one type of DomainEvent. Beans implementing this are called by OutboxRelay on a job thread, after the
+ * event's transaction committed, outside any transaction of the relay.
+ * Delivery is at least once: an event is handed out again if any of its handlers throws, or if the relay dies
+ * before recording it, so handlers must tolerate seeing an event twice.
+ */
+public interface DomainEventHandler<E extends DomainEvent> {
+
+    Class<E> eventType();
+
+    void handle(E event);
+}
@@ -0,0 +1,16 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * The user cancelled a PENDING order; its stock is back in inventory and its unfinished payments are expired.
+ */
+public record OrderCancelled(Long orderId, Long userId, OffsetDateTime cancelledAt, List<Long> productIds)
+        implements DomainEvent, StockChange {
+
+    @Override
+    public Long aggregateId() {
+        return orderId;
+    }
+}
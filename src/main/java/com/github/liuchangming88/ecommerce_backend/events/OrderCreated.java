@@ -0,0 +1,17 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * A PENDING order was placed and its stock (of productIds) reserved.
+ */
+public record OrderCreated(Long orderId, Long userId, BigDecimal totalAmount, String currency,
+                           OffsetDateTime createdAt, List<Long> productIds) implements DomainEvent, StockChange {
+
+    @Override
+    public Long aggregateId() {
+        return orderId;
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * A PENDING order passed its expiry unpaid; it is now FAILED and its stock is back in inventory.
+ */
+public record OrderExpired(Long orderId, Long userId, OffsetDateTime expiredAt, List<Long> productIds)
+        implements DomainEvent, StockChange {
+
+    @Override
+    public Long aggregateId() {
+        return orderId;
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import java.math.BigDecimal;
+
+/**
+ * VNPay confirmed the payment txnRef and the order moved to PAID.
+ */
+public record OrderPaid(Long orderId, Long userId, String txnRef, BigDecimal amount, String currency) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return orderId;
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Records domain events in the outbox_event table. Only inside the transaction that makes the change (MANDATORY):
+ * the event then exists if and only if the change committed, and OutboxRelay delivers it afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(DomainEvent event) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OutboxEvent row = new OutboxEvent();
+        row.setEventType(event.getClass().getSimpleName());
+        row.setAggregateId(event.aggregateId());
+        row.setPayload(serialize(event));
+        row.setCreatedAt(now);
+        row.setAvailableAt(now);
+        outboxEventRepository.save(row);
+    }
+
+    private String serialize(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event, e);
+        }
+    }
+}
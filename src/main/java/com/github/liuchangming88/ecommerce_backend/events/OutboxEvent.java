@@ -0,0 +1,51 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A DomainEvent waiting in the outbox_event table, or already relayed (publishedAt set) until OutboxStore purges it.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    // Simple name of the DomainEvent record
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    // Not handed out before this: retry backoff, or the lease of the relay that claimed it
+    @Column(name = "available_at", nullable = false)
+    private OffsetDateTime availableAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "published_at")
+    private OffsetDateTime publishedAt;
+}
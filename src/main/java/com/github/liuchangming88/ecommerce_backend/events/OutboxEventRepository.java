@@ -0,0 +1,31 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Lock timeout -2 is SKIP LOCKED: concurrent relays each take different rows instead of queueing
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e FROM OutboxEvent e
+             WHERE e.publishedAt IS NULL AND e.availableAt <= :now AND e.attempts < :maxAttempts
+             ORDER BY e.id
+            """)
+    List<OutboxEvent> findDue(@Param("now") OffsetDateTime now, @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") OffsetDateTime before);
+}
@@ -0,0 +1,120 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Delivers outbox events to the DomainEventHandler beans of their type, a batch at a time (OutboxRelayScheduler).
+ * Every handler of an event runs even if an earlier one fails; the event counts as published only if all succeed,
+ * otherwise all of them see it again on retry.
+ * Outcomes are counted in outbox.events{type, outcome=published|failed|abandoned}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final Map<String, Class<? extends DomainEvent>> EVENT_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : DomainEvent.class.getPermittedSubclasses()) {
+            EVENT_TYPES.put(type.getSimpleName(), type.asSubclass(DomainEvent.class));
+        }
+    }
+
+    private final OutboxStore outboxStore;
+    private final List<DomainEventHandler<?>> handlers;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public OutboxRelay(OutboxStore outboxStore, List<DomainEventHandler<?>> handlers, ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
+        this.outboxStore = outboxStore;
+        this.handlers = handlers;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Claims, dispatches and records one batch. Returns the number of events claimed.
+     */
+    public int relayBatch() {
+        List<OutboxEvent> batch = outboxStore.claim(OffsetDateTime.now());
+        if (batch.isEmpty()) return 0;
+
+        List<Long> published = new ArrayList<>();
+        Map<Long, String> errors = new HashMap<>();
+        for (OutboxEvent row : batch) {
+            String error = dispatch(row);
+            if (error == null) {
+                published.add(row.getId());
+                count(row, "published");
+            } else {
+                errors.put(row.getId(), error);
+                count(row, "failed");
+            }
+        }
+
+        for (OutboxEvent abandoned : outboxStore.complete(published, errors, OffsetDateTime.now())) {
+            log.error("Outbox event {} ({} for {}) failed {} times, giving up: {}", abandoned.getId(),
+                    abandoned.getEventType(), abandoned.getAggregateId(), abandoned.getAttempts(), abandoned.getLastError());
+            count(abandoned, "abandoned");
+        }
+        return batch.size();
+    }
+
+    public int purgePublished() {
+        return outboxStore.purgePublished(OffsetDateTime.now());
+    }
+
+    // Returns the first error, or null when every handler succeeded
+    private String dispatch(OutboxEvent row) {
+        Class<? extends DomainEvent> type = EVENT_TYPES.get(row.getEventType());
+        if (type == null) return "Unknown event type " + row.getEventType();
+
+        DomainEvent event;
+        try {
+            event = objectMapper.readValue(row.getPayload(), type);
+        } catch (Exception e) {
+            return truncate("Unreadable payload: " + e.getMessage());
+        }
+
+        String error = null;
+        for (DomainEventHandler<?> handler : handlers) {
+            if (!handler.eventType().isInstance(event)) continue;
+            try {
+                handle(handler, event);
+            } catch (RuntimeException e) {
+                log.warn("Handler {} failed on outbox event {} ({})", handler.getClass().getSimpleName(), row.getId(), row.getEventType(), e);
+                if (error == null) error = truncate(handler.getClass().getSimpleName() + ": " + e);
+            }
+        }
+        return error;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends DomainEvent> void handle(DomainEventHandler<E> handler, DomainEvent event) {
+        handler.handle((E) event);
+    }
+
+    private void count(OutboxEvent row, String outcome) {
+        Counter.builder("outbox.events")
+                .description("Outbox events relayed, by type and outcome")
+                .tag("type", row.getEventType())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
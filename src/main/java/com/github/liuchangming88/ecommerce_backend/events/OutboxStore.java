@@ -0,0 +1,59 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.DataSourceConfig;
+import com.github.liuchangming88.ecommerce_backend.configuration.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The relay's short transactions on outbox_event, on the jobs pool. Handlers run between claim and complete, outside
+ * of both, so a slow handler holds neither row locks nor a connection.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxStore {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxProperties props;
+
+    /**
+     * Takes up to batchSize due events and hides them from other relays for the lease.
+     */
+    @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER)
+    public List<OutboxEvent> claim(OffsetDateTime now) {
+        List<OutboxEvent> due = outboxEventRepository.findDue(now, props.getMaxAttempts(), PageRequest.of(0, props.getBatchSize()));
+        OffsetDateTime leaseEnd = now.plus(props.getLease());
+        due.forEach(event -> event.setAvailableAt(leaseEnd));
+        return due;
+    }
+
+    /**
+     * Records a dispatched batch: published events, and per failed event its error. Failed events become due again
+     * after retryDelay times their failed attempts. Returns the events that have now used up their attempts.
+     */
+    @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER)
+    public List<OutboxEvent> complete(Collection<Long> publishedIds, Map<Long, String> errors, OffsetDateTime now) {
+        for (OutboxEvent event : outboxEventRepository.findAllById(publishedIds)) {
+            event.setPublishedAt(now);
+        }
+        List<OutboxEvent> failed = outboxEventRepository.findAllById(errors.keySet());
+        for (OutboxEvent event : failed) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(errors.get(event.getId()));
+            event.setAvailableAt(now.plus(props.getRetryDelay().multipliedBy(event.getAttempts())));
+        }
+        return failed.stream().filter(event -> event.getAttempts() >= props.getMaxAttempts()).toList();
+    }
+
+    @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER)
+    public int purgePublished(OffsetDateTime now) {
+        return outboxEventRepository.deletePublishedBefore(now.minus(props.getRetention()));
+    }
+}
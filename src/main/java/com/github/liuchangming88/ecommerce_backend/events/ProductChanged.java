@@ -0,0 +1,14 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+/**
+ * An admin created, edited (including its stock level) or deleted a product.
+ */
+public record ProductChanged(Long productId, Change change) implements DomainEvent {
+
+    public enum Change { CREATED, UPDATED, DELETED }
+
+    @Override
+    public Long aggregateId() {
+        return productId;
+    }
+}
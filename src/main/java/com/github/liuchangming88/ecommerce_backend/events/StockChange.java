@@ -0,0 +1,13 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import java.util.List;
+
+/**
+ * An event that moved stock of these products (reserved it for an order or put it back). Catalog caches render the
+ * stock level, so ProductStockEvictionHandler evicts these products when such an event is relayed.
+ * Events recorded before the field existed read back with productIds null: the products are unknown.
+ */
+public interface StockChange {
+
+    List<Long> productIds();
+}
@@ -0,0 +1,19 @@
+package com.github.liuchangming88.ecommerce_backend.exception;
+
+/**
+ * A cart write that would go over cart.max-items or cart.max-quantity. Answered as invalid input (400).
+ */
+public class CartLimitException extends IllegalArgumentException {
+
+    public CartLimitException(String message) {
+        super(message);
+    }
+
+    public static CartLimitException tooManyProducts(int maxItems) {
+        return new CartLimitException("A cart holds at most " + maxItems + " different products");
+    }
+
+    public static CartLimitException tooManyOfOne(int maxQuantity) {
+        return new CartLimitException("At most " + maxQuantity + " of one product fit in a cart");
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.liuchangming88.ecommerce_backend.exception;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.CheckoutTicketResponse;
+
+/**
+ * The product's checkouts are all taken: the request joined the waiting line instead of being processed.
+ */
+public class CheckoutQueuedException extends RuntimeException {
+    private final CheckoutTicketResponse ticket;
+
+    public CheckoutQueuedException(CheckoutTicketResponse ticket) {
+        super("Checkout of product " + ticket.getProductId() + " is busy, waiting in line with ticket " + ticket.getTicket());
+        this.ticket = ticket;
+    }
+
+    public CheckoutTicketResponse getTicket() {
+        return ticket;
+    }
+}
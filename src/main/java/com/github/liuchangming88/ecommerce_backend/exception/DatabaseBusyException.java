@@ -0,0 +1,18 @@
+package com.github.liuchangming88.ecommerce_backend.exception;
+
+/**
+ * Thrown when no database connection slot frees up within the admission timeout.
+ * Usually arrives wrapped (e.g. in CannotCreateTransactionException), hence isCauseOf.
+ */
+public class DatabaseBusyException extends RuntimeException {
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+
+    public static boolean isCauseOf(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof DatabaseBusyException) return true;
+        }
+        return false;
+    }
+}
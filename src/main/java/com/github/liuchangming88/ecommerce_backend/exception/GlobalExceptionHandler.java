@@ -1,10 +1,13 @@
 package com.github.liuchangming88.ecommerce_backend.exception;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.github.liuchangming88.ecommerce_backend.api.model.CheckoutTicketResponse;
 import com.github.liuchangming88.ecommerce_backend.api.model.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.mail.MailException;
@@ -117,6 +120,13 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request);
     }
 
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(OrderNotPendingException.class)
+    public ErrorResponse handleOrderNotPendingException(OrderNotPendingException ex, HttpServletRequest request) {
+        logger.error("Order not pending: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(MailException.class)
     public ErrorResponse handleMailException(MailException ex, HttpServletRequest request) {
@@ -145,6 +155,24 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
     }
 
+    // Matched on the cause as well, so it also catches the wrapped form (e.g. CannotCreateTransactionException)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ErrorResponse handleDatabaseBusyException(DatabaseBusyException ex, HttpServletRequest request, HttpServletResponse response) {
+        logger.warn("Database busy: {}", ex.getMessage());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+    }
+
+    // Not an error: the order was not placed yet, the body is the ticket to poll
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ExceptionHandler(CheckoutQueuedException.class)
+    public CheckoutTicketResponse handleCheckoutQueuedException(CheckoutQueuedException ex, HttpServletResponse response) {
+        logger.info("Checkout queued: {}", ex.getMessage());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getTicket().getRetryAfterSeconds()));
+        response.setHeader(HttpHeaders.LOCATION, "/orders/tickets/" + ex.getTicket().getTicket());
+        return ex.getTicket();
+    }
 
     private ErrorResponse buildErrorResponse(HttpStatus status, String message, HttpServletRequest request) {
         return new ErrorResponse(
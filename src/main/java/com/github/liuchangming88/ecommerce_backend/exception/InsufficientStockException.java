@@ -1,10 +1,19 @@
 package com.github.liuchangming88.ecommerce_backend.exception;
 
-import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotNull;
-
 public class InsufficientStockException extends RuntimeException {
+    // The product that ran short, when known
+    private final Long productId;
+
     public InsufficientStockException(String message) {
+        this(message, null);
+    }
+
+    public InsufficientStockException(String message, Long productId) {
         super(message);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
     }
 }
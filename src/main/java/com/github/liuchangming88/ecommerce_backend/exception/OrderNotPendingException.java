@@ -0,0 +1,8 @@
+package com.github.liuchangming88.ecommerce_backend.exception;
+
+// The order's status moved on (paid, failed, expired, cancelled) before the change could apply
+public class OrderNotPendingException extends RuntimeException {
+    public OrderNotPendingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * State of one job run: its time budget and the rows processed so far.
+ */
+public class JobContext {
+
+    private final String job;
+    private final long deadlineNanos;
+    private final BooleanSupplier stopping;
+    private final JobMetrics jobMetrics;
+
+    private int rowsProcessed;
+    private boolean cutShort;
+
+    JobContext(String job, long deadlineNanos, BooleanSupplier stopping, JobMetrics jobMetrics) {
+        this.job = job;
+        this.deadlineNanos = deadlineNanos;
+        this.stopping = stopping;
+        this.jobMetrics = jobMetrics;
+    }
+
+    /**
+     * False once the run's time budget is spent or the application is shutting down.
+     */
+    public boolean hasTimeLeft() {
+        if (stopping.getAsBoolean() || System.nanoTime() - deadlineNanos >= 0) {
+            cutShort = true;
+            return false;
+        }
+        return true;
+    }
+
+    public void batch(int rows) {
+        rowsProcessed += rows;
+        jobMetrics.batch(job, rows);
+    }
+
+    public int getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    boolean isCutShort() {
+        return cutShort;
+    }
+}
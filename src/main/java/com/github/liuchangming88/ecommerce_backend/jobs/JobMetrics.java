@@ -0,0 +1,70 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared meters for the maintenance jobs, tagged by job name:
+ *  - jobs.run{job,outcome}      duration of one run
+ *  - jobs.batch.size{job}       rows handled per batch
+ *  - jobs.schedule.lag{job}     how late a run started compared to (previous finish + fixed delay)
+ *  - jobs.skipped{job}          runs not started because the previous one was still going
+ * A growing lag means the job's thread is busy; a batch size stuck at the limit or PARTIAL runs mean a backlog.
+ */
+@Component
+public class JobMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> lastFinishedNanos = new ConcurrentHashMap<>();
+
+    public JobMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start(String job, Duration fixedDelay) {
+        long now = System.nanoTime();
+        Long lastFinished = lastFinishedNanos.get(job);
+        if (lastFinished != null) {
+            long lateBy = now - lastFinished - fixedDelay.toNanos();
+            Timer.builder("jobs.schedule.lag")
+                    .description("Delay between the planned and actual start of a scheduled run")
+                    .tag("job", job)
+                    .register(meterRegistry)
+                    .record(Math.max(lateBy, 0), TimeUnit.NANOSECONDS);
+        }
+        return Timer.start(meterRegistry);
+    }
+
+    public void batch(String job, int size) {
+        DistributionSummary.builder("jobs.batch.size")
+                .description("Rows processed per batch")
+                .tag("job", job)
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    public void skipped(String job) {
+        Counter.builder("jobs.skipped")
+                .description("Runs skipped because the previous run was still in progress")
+                .tag("job", job)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void finish(String job, Timer.Sample sample, JobOutcome outcome) {
+        sample.stop(Timer.builder("jobs.run")
+                .description("Duration of one scheduled run")
+                .tag("job", job)
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry));
+        lastFinishedNanos.put(job, System.nanoTime());
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+public enum JobOutcome {
+    /** All pending work was processed. */
+    COMPLETED,
+    /** The time budget ran out (or shutdown began) with work left for the next run. */
+    PARTIAL,
+    FAILED,
+    /** Not started because the previous run of the same job was still going. */
+    SKIPPED
+}
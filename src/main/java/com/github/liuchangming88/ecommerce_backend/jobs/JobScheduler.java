@@ -0,0 +1,224 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.JobRunResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.JobStatusResponse;
+import com.github.liuchangming88.ecommerce_backend.configuration.JobSchedulerProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs every MaintenanceJob bean on a fixed delay, each on its own single-thread executor so a long order sweep
+ * can't hold back payment expiry.
+ *  - A job never overlaps itself: a run that finds the previous one (e.g. a manual trigger) still going is skipped.
+ *  - Each run gets a time budget (jobs.definitions.&lt;name&gt;.time-budget) that the job checks between batches.
+ *  - On shutdown the jobs are told to stop after their current batch, and shutdown waits up to jobs.shutdown-timeout.
+ *  - The last jobs.history-size runs of each job are kept for GET /admins/jobs.
+ */
+@Component
+public class JobScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(JobScheduler.class);
+
+    private final JobSchedulerProperties properties;
+    private final JobMetrics jobMetrics;
+    private final Map<String, ScheduledJob> jobs = new LinkedHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+
+    public JobScheduler(List<MaintenanceJob> jobs, JobSchedulerProperties properties, JobMetrics jobMetrics) {
+        this.properties = properties;
+        this.jobMetrics = jobMetrics;
+        for (MaintenanceJob job : jobs) {
+            this.jobs.put(job.name(), new ScheduledJob(job, properties.job(job.name())));
+        }
+    }
+
+    @Override
+    public void start() {
+        stopping = false;
+        jobs.values().forEach(ScheduledJob::start);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        // Running jobs see hasTimeLeft() == false and return after their current batch
+        stopping = true;
+        jobs.values().forEach(job -> job.executor.shutdown());
+
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        for (ScheduledJob job : jobs.values()) {
+            try {
+                if (!job.executor.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                    log.warn("Job {} did not finish within {}, interrupting it", job.name(), properties.getShutdownTimeout());
+                    job.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                job.executor.shutdownNow();
+            }
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public List<JobStatusResponse> getJobs() {
+        List<JobStatusResponse> statuses = new ArrayList<>();
+        for (ScheduledJob job : jobs.values()) {
+            statuses.add(new JobStatusResponse(
+                    job.name(),
+                    job.settings.isEnabled(),
+                    job.busy.get(),
+                    job.settings.getFixedDelay().toMillis(),
+                    job.settings.getTimeBudget().toMillis(),
+                    job.history()));
+        }
+        return statuses;
+    }
+
+    public List<JobRunResponse> getRuns(String name) {
+        return find(name).history();
+    }
+
+    /**
+     * Queues a run of the job on its own executor.
+     *
+     * @return false if the job is already running or queued; the request is then recorded as SKIPPED
+     */
+    public boolean trigger(String name) {
+        return find(name).trigger();
+    }
+
+    private ScheduledJob find(String name) {
+        ScheduledJob job = jobs.get(name);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job not found: " + name);
+        }
+        return job;
+    }
+
+    private final class ScheduledJob {
+
+        private final MaintenanceJob job;
+        private final JobSchedulerProperties.Job settings;
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final Deque<JobRunResponse> history = new ArrayDeque<>();
+        private volatile ScheduledExecutorService executor;
+
+        ScheduledJob(MaintenanceJob job, JobSchedulerProperties.Job settings) {
+            this.job = job;
+            this.settings = settings;
+        }
+
+        String name() {
+            return job.name();
+        }
+
+        void start() {
+            executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("job-" + name() + "-"));
+            if (settings.isEnabled()) {
+                executor.scheduleWithFixedDelay(this::tick,
+                        settings.getInitialDelay().toMillis(), settings.getFixedDelay().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void tick() {
+            if (!busy.compareAndSet(false, true)) {
+                skip();
+                return;
+            }
+            try {
+                execute();
+            } finally {
+                busy.set(false);
+            }
+        }
+
+        boolean trigger() {
+            if (executor == null) {
+                throw new IllegalStateException("Job scheduler is not running");
+            }
+            if (!busy.compareAndSet(false, true)) {
+                skip();
+                return false;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        execute();
+                    } finally {
+                        busy.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                busy.set(false);
+                throw new IllegalStateException("Job scheduler is shutting down");
+            }
+            return true;
+        }
+
+        private void execute() {
+            OffsetDateTime startedAt = OffsetDateTime.now();
+            long start = System.nanoTime();
+            Timer.Sample sample = jobMetrics.start(name(), settings.getFixedDelay());
+            JobContext context = new JobContext(name(), start + settings.getTimeBudget().toNanos(), () -> stopping, jobMetrics);
+
+            JobOutcome outcome = JobOutcome.COMPLETED;
+            String error = null;
+            try {
+                job.run(context);
+                if (context.isCutShort()) {
+                    outcome = JobOutcome.PARTIAL;
+                    log.info("Job {} stopped after {} rows, the rest is left for the next run", name(), context.getRowsProcessed());
+                }
+            } catch (Exception e) {
+                outcome = JobOutcome.FAILED;
+                error = e.getMessage();
+                log.error("Job {} failed", name(), e);
+            } finally {
+                jobMetrics.finish(name(), sample, outcome);
+                record(new JobRunResponse(name(), startedAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        context.getRowsProcessed(), outcome, error));
+            }
+        }
+
+        private void skip() {
+            jobMetrics.skipped(name());
+            record(new JobRunResponse(name(), OffsetDateTime.now(), 0, 0, JobOutcome.SKIPPED, null));
+        }
+
+        private synchronized void record(JobRunResponse run) {
+            history.addFirst(run);
+            while (history.size() > properties.getHistorySize()) {
+                history.removeLast();
+            }
+        }
+
+        synchronized List<JobRunResponse> history() {
+            return new ArrayList<>(history);
+        }
+    }
+}
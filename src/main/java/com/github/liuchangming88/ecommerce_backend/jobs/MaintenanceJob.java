@@ -0,0 +1,13 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+/**
+ * A periodic background task run by JobScheduler on its own thread.
+ * Implementations report their work through JobContext.batch and stop between batches once
+ * JobContext.hasTimeLeft() turns false; whatever is left is picked up by the next run.
+ */
+public interface MaintenanceJob {
+
+    String name();
+
+    void run(JobContext context);
+}
@@ -0,0 +1,33 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderArchiveProperties;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class OrderArchiveScheduler implements MaintenanceJob {
+
+    private final OrderArchiveProperties props;
+    private final OrderArchiveService archiveService;
+
+    @Override
+    public String name() {
+        return "order-archive";
+    }
+
+    @Override
+    public void run(JobContext context) {
+        if (!props.isEnabled()) return;
+
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(props.getOlderThan());
+        int batch;
+        do {
+            batch = archiveService.archiveBatch(cutoff, props.getBatchSize());
+            context.batch(batch);
+        } while (batch == props.getBatchSize() && context.hasTimeLeft());
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderCleanupProperties;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderExpiryQueue;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderRestockService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Releases stock of orders as they fall due in OrderExpiryQueue. It runs every second but only reaches the database
+ * when an order is due; StaleOrderFailureScheduler remains as a slow sweep for orders the queue doesn't know about.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderExpiryScheduler implements MaintenanceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryScheduler.class);
+
+    private final OrderCleanupProperties props;
+    private final OrderExpiryQueue expiryQueue;
+    private final OrderRestockService restockService;
+
+    @Override
+    public String name() {
+        return "order-expiry";
+    }
+
+    @Override
+    public void run(JobContext context) {
+        if (!props.isEnabled()) return;
+
+        List<Long> due;
+        do {
+            OffsetDateTime now = OffsetDateTime.now();
+            due = expiryQueue.pollDue(now, props.getBatchSize());
+            if (due.isEmpty()) return;
+            try {
+                context.batch(restockService.failAndRestock(due, now));
+            } catch (RuntimeException e) {
+                // Put them back so the next run retries instead of waiting for the sweep
+                due.forEach(id -> expiryQueue.schedule(id, now));
+                throw e;
+            }
+        } while (due.size() == props.getBatchSize() && context.hasTimeLeft());
+
+        if (log.isDebugEnabled()) {
+            log.debug("Order expiry queue: {} rows processed, {} orders still queued", context.getRowsProcessed(), expiryQueue.size());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.OutboxProperties;
+import com.github.liuchangming88.ecommerce_backend.events.OutboxRelay;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxRelayScheduler implements MaintenanceJob {
+
+    private final OutboxProperties props;
+    private final OutboxRelay outboxRelay;
+
+    @Override
+    public String name() {
+        return "outbox-relay";
+    }
+
+    @Override
+    public void run(JobContext context) {
+        int batch;
+        do {
+            batch = outboxRelay.relayBatch();
+            context.batch(batch);
+        } while (batch == props.getBatchSize() && context.hasTimeLeft());
+
+        if (context.hasTimeLeft()) {
+            outboxRelay.purgePublished();
+        }
+    }
+}
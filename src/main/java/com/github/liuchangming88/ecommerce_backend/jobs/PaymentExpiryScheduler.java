@@ -4,27 +4,28 @@ import com.github.liuchangming88.ecommerce_backend.service.payment.PaymentMainte
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class PaymentExpiryScheduler {
+public class PaymentExpiryScheduler implements MaintenanceJob {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentExpiryScheduler.class);
 
     private final PaymentMaintenanceService paymentMaintenanceService;
 
-    // Run every 30 seconds (configurable)
-    @Scheduled(fixedDelayString = "30000")
-    public void run() {
-        try {
-            int changed = paymentMaintenanceService.expireInitiatedPayments();
-            if (changed == 0 && log.isDebugEnabled()) {
-                log.debug("No payments expired this cycle");
-            }
-        } catch (Exception e) {
-            log.error("Payment expiry task failed", e);
+    @Override
+    public String name() {
+        return "payment-expiry";
+    }
+
+    // A single bulk update; its duration is bounded by the jobs pool's statement timeout rather than the time budget
+    @Override
+    public void run(JobContext context) {
+        int changed = paymentMaintenanceService.expireInitiatedPayments();
+        context.batch(changed);
+        if (changed == 0 && log.isDebugEnabled()) {
+            log.debug("No payments expired this cycle");
         }
     }
-}
\ No newline at end of file
+}
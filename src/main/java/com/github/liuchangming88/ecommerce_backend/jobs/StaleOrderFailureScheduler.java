@@ -5,37 +5,44 @@ import com.github.liuchangming88.ecommerce_backend.service.order.OrderRestockSer
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
 
+/**
+ * Database sweep for expired PENDING orders. OrderExpiryScheduler releases orders on time from its queue;
+ * this slower pass covers orders the queue missed (restarts with the in-memory queue, Redis outages).
+ */
 @Component
 @RequiredArgsConstructor
-public class StaleOrderFailureScheduler {
+public class StaleOrderFailureScheduler implements MaintenanceJob {
 
     private static final Logger log = LoggerFactory.getLogger(StaleOrderFailureScheduler.class);
 
     private final OrderCleanupProperties props;
     private final OrderRestockService restockService;
 
-    @Scheduled(fixedDelayString = "${orders.cleanup.delay-ms:30000}")
-    public void run() {
+    @Override
+    public String name() {
+        return "stale-order-failure";
+    }
+
+    @Override
+    public void run(JobContext context) {
         if (!props.isEnabled()) return;
 
-        int total = 0;
-        int batch;
         // Capture a consistent 'now' for the entire loop pass; prevents a long run from drifting
         OffsetDateTime now = OffsetDateTime.now();
+        int batch;
         do {
             batch = restockService.failAndRestockExpired(now, props.getBatchSize());
-            total += batch;
+            context.batch(batch);
             // Optional: refresh 'now' each iteration if you WANT drifting boundary
             // now = OffsetDateTime.now();
-        } while (batch == props.getBatchSize());
+        } while (batch == props.getBatchSize() && context.hasTimeLeft());
 
-        if (total > 0) {
-            log.info("Order expiry cycle finished. Total processed: {}", total);
+        if (context.getRowsProcessed() > 0) {
+            log.info("Order expiry cycle finished. Total processed: {}", context.getRowsProcessed());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.github.liuchangming88.ecommerce_backend.model.cart;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * One product in a user's cart, for DatabaseCartStore. Plain id columns rather than associations: the cart only
+ * ever needs the ids, and the products themselves come from the product cache.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "cart_item")
+@IdClass(CartItem.Key.class)
+public class CartItem {
+    @Id
+    @Column(name = "local_user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.updatedAt = OffsetDateTime.now();
+    }
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long productId;
+    }
+}
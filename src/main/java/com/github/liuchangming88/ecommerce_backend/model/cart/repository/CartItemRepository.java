@@ -0,0 +1,24 @@
+package com.github.liuchangming88.ecommerce_backend.model.cart.repository;
+
+import com.github.liuchangming88.ecommerce_backend.model.cart.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CartItemRepository extends JpaRepository<CartItem, CartItem.Key> {
+
+    List<CartItem> findByUserIdOrderByProductId(Long userId);
+
+    long countByUserId(Long userId);
+
+    // Row lock on the cart's owner: writes to one cart queue behind each other until commit
+    @Query(value = "SELECT id FROM local_user WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Long lockCart(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -17,7 +17,8 @@ import java.util.List;
 @Table(name = "local_order")
 public class LocalOrder {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "local_order_seq")
+    @SequenceGenerator(name = "local_order_seq", sequenceName = "local_order_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -15,7 +15,8 @@ import java.math.BigDecimal;
 @Table(name = "local_order_items")
 public class LocalOrderItems {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "local_order_items_seq")
+    @SequenceGenerator(name = "local_order_items_seq", sequenceName = "local_order_items_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
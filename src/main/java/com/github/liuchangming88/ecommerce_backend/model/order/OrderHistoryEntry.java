@@ -0,0 +1,26 @@
+package com.github.liuchangming88.ecommerce_backend.model.order;
+
+import jakarta.persistence.Entity;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+/**
+ * An order as order history shows it: an order_view row, live or moved to order_view_archive by OrderArchiveService.
+ * Filters and the keyset condition are pushed into both branches of the union, and PostgreSQL merges the two
+ * (user, created_at, order_id) index scans, so a page costs the same whatever the account's age.
+ */
+@Entity
+@Immutable
+@Subselect("""
+        SELECT order_id, local_user_id, status, total_amount, currency, created_at, expires_at, updated_at,
+               address_id, address_line_1, address_line_2, city, country, items
+          FROM order_view
+        UNION ALL
+        SELECT order_id, local_user_id, status, total_amount, currency, created_at, expires_at, updated_at,
+               address_id, address_line_1, address_line_2, city, country, items
+          FROM order_view_archive
+        """)
+@Synchronize({"order_view", "order_view_archive"})
+public class OrderHistoryEntry extends OrderViewBase {
+}
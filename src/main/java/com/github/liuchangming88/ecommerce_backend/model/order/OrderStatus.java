@@ -3,5 +3,7 @@ package com.github.liuchangming88.ecommerce_backend.model.order;
 public enum OrderStatus {
     PENDING,
     PAID,
-    FAILED
-}
\ No newline at end of file
+    FAILED,
+    // By the user, while PENDING; stock is released right away
+    CANCELLED
+}
@@ -0,0 +1,22 @@
+package com.github.liuchangming88.ecommerce_backend.model.order;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read model of an order: everything an order read returns, in one row, so reads don't join order lines, products
+ * and addresses. Only OrderViewProjector writes it, in the transaction that changes the order.
+ * Lines (with product names) and the address are copied when the order is placed: renaming a product or editing an
+ * address doesn't rewrite past orders. OrderArchiveService moves a row to order_view_archive together with its order.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "order_view")
+public class OrderView extends OrderViewBase {
+    // Also tells Spring Data that a row with an assigned order id is new, so save() inserts without a select first
+    @Version
+    @Column(name = "version")
+    private Long version;
+}
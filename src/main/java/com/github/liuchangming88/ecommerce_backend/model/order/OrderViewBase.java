@@ -0,0 +1,65 @@
+package com.github.liuchangming88.ecommerce_backend.model.order;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columns of an order_view row, shared by OrderView (the live rows) and OrderHistoryEntry (live and archived rows).
+ */
+@Getter
+@Setter
+@MappedSuperclass
+public abstract class OrderViewBase {
+    @Id
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "local_user_id", nullable = false)
+    private Long localUserId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private OrderStatus status;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "address_id")
+    private Long addressId;
+
+    @Column(name = "address_line_1", length = 512)
+    private String addressLine1;
+
+    @Column(name = "address_line_2", length = 512)
+    private String addressLine2;
+
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "country", length = 75)
+    private String country;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "items", nullable = false)
+    private List<OrderViewItem> items = new ArrayList<>();
+}
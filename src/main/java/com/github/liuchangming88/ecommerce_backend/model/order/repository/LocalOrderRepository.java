@@ -5,7 +5,9 @@ import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
@@ -31,4 +33,20 @@ public interface LocalOrderRepository extends JpaRepository<LocalOrder, Long> {
         ORDER BY o.expiresAt ASC
         """)
     List<Long> findExpiredPendingOrderIds(OffsetDateTime now, Pageable pageable);
+
+    /**
+     * Compare-and-set out of PENDING: moves the order to status and marks it restocked, only if it is still PENDING
+     * and not restocked. Returns 1 for the single caller that wins (and must put the stock back), 0 for the others.
+     */
+    @Modifying
+    @Query("""
+        UPDATE LocalOrder o
+           SET o.status = :status,
+               o.restocked = true,
+               o.updatedAt = :now
+         WHERE o.id = :id
+           AND o.status = com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus.PENDING
+           AND o.restocked = false
+        """)
+    int releaseIfPending(@Param("id") Long id, @Param("status") OrderStatus status, @Param("now") OffsetDateTime now);
 }
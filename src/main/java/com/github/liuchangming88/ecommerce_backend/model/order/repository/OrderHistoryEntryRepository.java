@@ -0,0 +1,8 @@
+package com.github.liuchangming88.ecommerce_backend.model.order.repository;
+
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderHistoryEntry;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.Repository;
+
+public interface OrderHistoryEntryRepository extends Repository<OrderHistoryEntry, Long>, JpaSpecificationExecutor<OrderHistoryEntry> {
+}
@@ -0,0 +1,22 @@
+package com.github.liuchangming88.ecommerce_backend.model.order.repository;
+
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+
+public interface OrderViewRepository extends JpaRepository<OrderView, Long> {
+
+    Page<OrderView> findByLocalUserIdAndStatus(Long localUserId, OrderStatus status, Pageable pageable);
+
+    // Returns 0 when the order has no view row yet
+    @Modifying
+    @Query("UPDATE OrderView v SET v.status = :status, v.updatedAt = :updatedAt, v.version = v.version + 1 WHERE v.orderId = :orderId")
+    int updateStatus(@Param("orderId") Long orderId, @Param("status") OrderStatus status, @Param("updatedAt") OffsetDateTime updatedAt);
+}
@@ -0,0 +1,25 @@
+package com.github.liuchangming88.ecommerce_backend.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Version stamp of the whole catalog (the catalog_revision row), used to validate cached product pages.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogVersion {
+    private Long revision;
+    private OffsetDateTime updatedAt;
+
+    // Weak validator: a page is "semantically" unchanged as long as no product or stock changed since the revision
+    public String toWeakEtag(int page, int size) {
+        return "W/\"c" + page + "-" + size + "-" + ProductVersion.orZero(revision) + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return ProductVersion.latestMillis(updatedAt, null);
+    }
+}
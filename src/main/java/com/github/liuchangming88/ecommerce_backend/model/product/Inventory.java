@@ -3,6 +3,9 @@ package com.github.liuchangming88.ecommerce_backend.model.product;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.OffsetDateTime;
 
 @Getter
 @Setter
@@ -10,7 +13,8 @@ import lombok.Setter;
 @Table(name = "inventory")
 public class Inventory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -21,4 +25,22 @@ public class Inventory {
     @Column(name = "quantity", nullable = false)
     private Long quantity;
 
+    /*
+      Change counter for conditional GETs. Deliberately not a JPA @Version: stock is decremented by bulk
+      UPDATEs at checkout, and an optimistic lock here would make restocks fail against those concurrent writes.
+     */
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        this.version++;
+        this.updatedAt = OffsetDateTime.now();
+    }
 }
\ No newline at end of file
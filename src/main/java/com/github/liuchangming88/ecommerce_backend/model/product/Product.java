@@ -5,8 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 
 @Getter
 @Setter
@@ -16,7 +18,10 @@ import java.math.BigDecimal;
 @Table(name = "product")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequences (pooled-lo, see hibernate.id.optimizer.pooled.preferred) hand out 50 ids per round trip
+    // and, unlike IDENTITY, let Hibernate batch INSERTs. Same scheme for inventory, orders, order items and payments.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -32,7 +37,24 @@ public class Product {
     @Column(name = "price", nullable = false)
     private BigDecimal price;
 
+    // Optional grouping (e.g. "flash-sale"); decides how long unpaid orders hold its stock, see OrderHoldProperties
+    @Column(name = "product_class", length = 32)
+    private String productClass;
+
     @OneToOne(mappedBy = "product", cascade = {CascadeType.REMOVE, CascadeType.PERSIST, CascadeType.MERGE}, optional = false, orphanRemoval = true)
     private Inventory inventory;
 
+    // Optimistic lock version; also feeds the ETag of GET /products/{id}
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void touch() { this.updatedAt = OffsetDateTime.now(); }
 }
\ No newline at end of file
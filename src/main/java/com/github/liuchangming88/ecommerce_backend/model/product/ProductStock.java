@@ -0,0 +1,14 @@
+package com.github.liuchangming88.ecommerce_backend.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Current stock of one product, read without loading or locking the inventory row.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductStock {
+    private Long productId;
+    private Long quantity;
+}
@@ -0,0 +1,38 @@
+package com.github.liuchangming88.ecommerce_backend.model.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Version stamp of one product and its inventory, cheap to load and used for conditional GETs.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductVersion {
+    private Long productId;
+    private Long productVersion;
+    private Long inventoryVersion;
+    private OffsetDateTime productUpdatedAt;
+    private OffsetDateTime inventoryUpdatedAt;
+
+    // Strong validator: changes whenever any field of the rendered ProductResponse can change
+    public String toEtag() {
+        return "\"p" + productId + "-" + orZero(productVersion) + "-" + orZero(inventoryVersion) + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return latestMillis(productUpdatedAt, inventoryUpdatedAt);
+    }
+
+    static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    static long latestMillis(OffsetDateTime a, OffsetDateTime b) {
+        long ma = a == null ? -1 : a.toInstant().toEpochMilli();
+        long mb = b == null ? -1 : b.toInstant().toEpochMilli();
+        return Math.max(ma, mb);
+    }
+}
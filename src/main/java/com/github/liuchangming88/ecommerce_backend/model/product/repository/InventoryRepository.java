@@ -1,27 +1,52 @@
 package com.github.liuchangming88.ecommerce_backend.model.product.repository;
 
 import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
+import com.github.liuchangming88.ecommerce_backend.model.product.ProductStock;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     Optional<Inventory> findByProductId(Long productId);
 
+    @Query("SELECT i.quantity FROM Inventory i WHERE i.product.id = :pid")
+    Optional<Long> findQuantityByProductId(@Param("pid") Long productId);
+
+    // Plain read for quotes: no lock, no entity loading
+    @Query("SELECT new com.github.liuchangming88.ecommerce_backend.model.product.ProductStock(i.product.id, i.quantity) "
+            + "FROM Inventory i WHERE i.product.id IN :pids")
+    List<ProductStock> findStockByProductIds(@Param("pids") Collection<Long> productIds);
+
     @Modifying(clearAutomatically = false, flushAutomatically = false)
     @Query("""
         UPDATE Inventory i
-           SET i.quantity = i.quantity - :qty
+           SET i.quantity = i.quantity - :qty,
+               i.version = i.version + 1,
+               i.updatedAt = offset datetime
          WHERE i.product.id = :pid
            AND i.quantity >= :qty
         """)
     int decrementIfAvailableInternal(@Param("pid") Long productId,
                                      @Param("qty") int qty);
 
+    // Restock as one atomic increment, so it can't overwrite a checkout's decrement made meanwhile
+    @Modifying(clearAutomatically = false, flushAutomatically = false)
+    @Query("""
+        UPDATE Inventory i
+           SET i.quantity = i.quantity + :qty,
+               i.version = i.version + 1,
+               i.updatedAt = offset datetime
+         WHERE i.product.id = :pid
+        """)
+    int incrementQuantity(@Param("pid") Long productId,
+                          @Param("qty") int qty);
+
     default boolean decrementIfAvailable(Long productId, int qty) {
         if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0 (was " + qty + ")");
         return decrementIfAvailableInternal(productId, qty) == 1;
@@ -1,13 +1,45 @@
 package com.github.liuchangming88.ecommerce_backend.model.product.repository;
 
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.ProductVersion;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
 @Component
 public interface ProductRepository extends JpaRepository<Product, Long> {
     boolean existsByName(@NotBlank(message = "Product name must not be empty") @Size(min = 1, max = 255, message = "Product name must be between 1 and 255 characters") @Pattern(regexp = "^[a-zA-Z0-9 ]*$", message = "Product name can only contain letters, numbers, and spaces") String name);
+
+    // Inventory is the inverse side of a one-to-one and can't be lazy; join it instead of one SELECT per product
+    @Override
+    @EntityGraph(attributePaths = "inventory")
+    Page<Product> findAll(Pageable pageable);
+
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    // Version stamps are read-only lookups; don't force a flush of pending changes just to read them
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("""
+        SELECT new com.github.liuchangming88.ecommerce_backend.model.product.ProductVersion(
+                   p.id, p.version, i.version, p.updatedAt, i.updatedAt)
+          FROM Product p
+          LEFT JOIN p.inventory i
+         WHERE p.id = :productId
+        """)
+    Optional<ProductVersion> findVersionById(@Param("productId") Long productId);
 }
@@ -51,4 +51,15 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
            AND p.expiresAt < :now
         """)
     int expireInitiatedBefore(@Param("now") OffsetDateTime now);
+
+    // The order was cancelled: its payment links must not be completed any more
+    @Modifying
+    @Query("""
+        UPDATE Payment p
+           SET p.status = com.github.liuchangming88.ecommerce_backend.payment.PaymentStatus.EXPIRED,
+               p.updatedAt = :now
+         WHERE p.localOrder.id = :orderId
+           AND p.status = com.github.liuchangming88.ecommerce_backend.payment.PaymentStatus.INITIATED
+        """)
+    int expireInitiatedForOrder(@Param("orderId") Long orderId, @Param("now") OffsetDateTime now);
 }
\ No newline at end of file
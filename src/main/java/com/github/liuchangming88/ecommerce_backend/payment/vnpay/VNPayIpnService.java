@@ -1,11 +1,16 @@
 package com.github.liuchangming88.ecommerce_backend.payment.vnpay;
 
+import com.github.liuchangming88.ecommerce_backend.events.OrderPaid;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
 import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
 import com.github.liuchangming88.ecommerce_backend.payment.Payment;
 import com.github.liuchangming88.ecommerce_backend.payment.PaymentRepository;
 import com.github.liuchangming88.ecommerce_backend.payment.PaymentStatus;
 import com.github.liuchangming88.ecommerce_backend.payment.dto.IpnResponse;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderViewProjector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -15,6 +20,7 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -60,18 +66,41 @@ public class VNPayIpnService {
 
     private final PaymentRepository paymentRepository;
     private final VNPayProperties props;
+    private final MeterRegistry meterRegistry;
+    private final OrderViewProjector orderViewProjector;
+    private final Outbox outbox;
 
-    public VNPayIpnService(PaymentRepository paymentRepository, VNPayProperties props) {
+    public VNPayIpnService(PaymentRepository paymentRepository, VNPayProperties props, MeterRegistry meterRegistry,
+                           OrderViewProjector orderViewProjector, Outbox outbox) {
         this.paymentRepository = paymentRepository;
         this.props = props;
+        this.meterRegistry = meterRegistry;
+        this.orderViewProjector = orderViewProjector;
+        this.outbox = outbox;
     }
 
     /**
      * Entry point called by controller.
      * All exceptions are caught to always return a JSON response to VNPay.
+     * Every call is recorded in vnpay.ipn{rsp_code=...}, so its count doubles as the outcome counter.
      */
     public IpnResponse processIpnRequestAndReturnToVNPayServer(Map<String, String> rawQueryParams) {
         long start = System.nanoTime();
+        IpnResponse response = process(rawQueryParams);
+        long durNanos = System.nanoTime() - start;
+        Timer.builder("vnpay.ipn")
+                .description("VNPay IPN processing time by returned RspCode")
+                .tag("rsp_code", response.getRspCode())
+                .register(meterRegistry)
+                .record(durNanos, TimeUnit.NANOSECONDS);
+        long durMs = durNanos / 1_000_000;
+        if (durMs > 500) {
+            log.info("[VNPay][IPN] Processed in {} ms (slow path)", durMs);
+        }
+        return response;
+    }
+
+    private IpnResponse process(Map<String, String> rawQueryParams) {
         try {
             // 1. Extract canonical VNPay parameters & signature
             ExtractResult extract = extractAndValidateSignature(rawQueryParams);
@@ -108,11 +137,6 @@ public class VNPayIpnService {
         } catch (Exception e) {
             log.error("[VNPay][IPN] Unexpected error", e);
             return rsp(RC_UNKNOWN_ERROR, "Unknown error");
-        } finally {
-            long durMs = (System.nanoTime() - start) / 1_000_000;
-            if (durMs > 500) {
-                log.info("[VNPay][IPN] Processed in {} ms (slow path)", durMs);
-            }
         }
     }
 
@@ -265,23 +289,33 @@ public class VNPayIpnService {
             LocalOrder order = payment.getLocalOrder();
             if (order != null && order.getStatus() != OrderStatus.PAID) {
                 order.setStatus(OrderStatus.PAID);
+                // Only on the transition, so a replayed IPN doesn't announce the payment twice
+                outbox.append(new OrderPaid(order.getId(), order.getLocalUser().getId(), payment.getTxnRef(),
+                        payment.getAmount(), payment.getCurrency()));
             }
         } else if (outcome.mappedStatus == PaymentStatus.SUSPICIOUS) {
             payment.setStatus(PaymentStatus.SUSPICIOUS);
             LocalOrder order = payment.getLocalOrder();
-            if (order != null && order.getStatus() != OrderStatus.PAID) {
+            if (order != null && order.getStatus() == OrderStatus.PENDING) {
                 order.setStatus(OrderStatus.FAILED); // or a dedicated SUSPICIOUS order status
             }
             setFailureCodeIfPresent(payment, outcome.responseCode);
         } else {
             payment.setStatus(PaymentStatus.FAILED);
             LocalOrder order = payment.getLocalOrder();
-            if (order != null && order.getStatus() != OrderStatus.PAID) {
+            // A failed attempt doesn't overwrite a cancellation
+            if (order != null && order.getStatus() == OrderStatus.PENDING) {
                 order.setStatus(OrderStatus.FAILED);
             }
             setFailureCodeIfPresent(payment, outcome.responseCode);
         }
 
+        // Same transaction as the order change (VNPayController.ipn), so the read model can't diverge from it
+        LocalOrder order = payment.getLocalOrder();
+        if (order != null) {
+            orderViewProjector.statusChanged(order);
+        }
+
         log.info("[VNPay][IPN] txnRef={} outcome={} respCode={} providerStatus={} newStatus={}",
                 payment.getTxnRef(),
                 outcome.success ? "SUCCESS" : outcome.mappedStatus,
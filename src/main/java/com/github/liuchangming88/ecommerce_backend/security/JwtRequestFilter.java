@@ -4,6 +4,7 @@ import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.github.liuchangming88.ecommerce_backend.configuration.SecurityConstants;
+import com.github.liuchangming88.ecommerce_backend.exception.DatabaseBusyException;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import com.github.liuchangming88.ecommerce_backend.model.user.repository.LocalUserRepository;
 import com.github.liuchangming88.ecommerce_backend.service.infrastructure.JwtService;
@@ -95,6 +96,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             logger.warn("Token verification failed: " + ex.getMessage());
             sendErrorResponse(request, response, HttpServletResponse.SC_UNAUTHORIZED, "Token verification failed");
         }
+        catch (RuntimeException ex) {
+            // The user lookup runs before any controller, so GlobalExceptionHandler can't map this one
+            if (!DatabaseBusyException.isCauseOf(ex)) throw ex;
+            logger.warn("Database busy during authentication: " + ex.getMessage());
+            response.setHeader("Retry-After", "1");
+            sendErrorResponse(request, response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The database is busy, please retry shortly.");
+        }
     }
 
     // Helper method to send the error response
@@ -107,7 +115,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         // Get request path
         String path = request.getRequestURI();
         // Determine error type based on status code
-        String error = (status == HttpServletResponse.SC_UNAUTHORIZED) ? "Unauthorized" : "Bad Request";
+        String error = switch (status) {
+            case HttpServletResponse.SC_UNAUTHORIZED -> "Unauthorized";
+            case HttpServletResponse.SC_SERVICE_UNAVAILABLE -> "Service Unavailable";
+            default -> "Bad Request";
+        };
 
         // Build the JSON response
         String jsonResponse = String.format(
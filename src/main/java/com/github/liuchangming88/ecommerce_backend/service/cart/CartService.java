@@ -0,0 +1,143 @@
+package com.github.liuchangming88.ecommerce_backend.service.cart;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.*;
+import com.github.liuchangming88.ecommerce_backend.configuration.CartProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.CartLimitException;
+import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.service.order.CheckoutAdmission;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderService;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductCacheStore;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductService;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Server-side carts: contents in a CartStore, prices and names from the product cache at read time.
+ * A cart read whose products are all cached opens no transaction and takes no database connection (with the
+ * Redis store); only cache misses go through ProductService, which also back-fills the cache.
+ * Lines of products deleted since they were added are dropped from the cart when it is read or checked out.
+ * Checkout turns the cart into a CreateOrderRequest for OrderService, behind the same admission control as POST /orders.
+ */
+@Service
+public class CartService {
+
+    private final CartStore cartStore;
+    private final ProductCacheStore productCacheStore;
+    private final ProductService productService;
+    private final OrderService orderService;
+    private final CheckoutAdmission checkoutAdmission;
+    private final CartProperties props;
+
+    public CartService(CartStore cartStore, ProductCacheStore productCacheStore, ProductService productService,
+                       OrderService orderService, CheckoutAdmission checkoutAdmission, CartProperties props) {
+        this.cartStore = cartStore;
+        this.productCacheStore = productCacheStore;
+        this.productService = productService;
+        this.orderService = orderService;
+        this.checkoutAdmission = checkoutAdmission;
+        this.props = props;
+    }
+
+    public CartResponse getCart(Long userId) {
+        return price(userId, cartStore.getItems(userId));
+    }
+
+    public CartResponse addItem(Long userId, ItemRequest request) {
+        Long productId = request.getProductId();
+        if (!products(List.of(productId)).containsKey(productId)) {
+            throw new ResourceNotFoundException("Can't find product with ID " + productId);
+        }
+        // The store checks the limits and writes in one step, so concurrent adds can't both pass the check
+        cartStore.add(userId, productId, request.getQuantity(), props.getMaxQuantity(), props.getMaxItems());
+        return getCart(userId);
+    }
+
+    public CartResponse updateItem(Long userId, Long productId, CartItemUpdateRequest request) {
+        SortedMap<Long, Integer> items = cartStore.getItems(userId);
+        if (!items.containsKey(productId)) {
+            throw new ResourceNotFoundException("Product with ID " + productId + " is not in the cart");
+        }
+        checkQuantity(request.getQuantity());
+
+        cartStore.set(userId, productId, request.getQuantity());
+        items.put(productId, request.getQuantity());
+        return price(userId, items);
+    }
+
+    public CartResponse removeItem(Long userId, Long productId) {
+        if (!cartStore.remove(userId, productId)) {
+            throw new ResourceNotFoundException("Product with ID " + productId + " is not in the cart");
+        }
+        return getCart(userId);
+    }
+
+    /**
+     * Places an order for the whole cart and empties it. Prices and stock are checked by OrderService as for
+     * POST /orders; on any failure the cart is left as it was. Deleted products are dropped from the cart first and
+     * the checkout refused, so the buyer sees what is left before ordering it.
+     */
+    public OrderResponse checkout(LocalUser user, CartCheckoutRequest request, String ticket) {
+        SortedMap<Long, Integer> items = cartStore.getItems(user.getId());
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        List<Long> deleted = pruneDeleted(user.getId(), items.keySet(), products(items.keySet()));
+        if (!deleted.isEmpty()) {
+            throw new ResourceNotFoundException("Products " + deleted + " no longer exist and were removed from the cart");
+        }
+        CreateOrderRequest orderRequest = new CreateOrderRequest();
+        orderRequest.setAddressId(request.getAddressId());
+        orderRequest.setItems(items.entrySet().stream()
+                .map(item -> new ItemRequest(item.getKey(), item.getValue()))
+                .toList());
+
+        OrderResponse order = checkoutAdmission.checkout(user.getId(), orderRequest.getItems(), ticket,
+                () -> orderService.createOrder(user, orderRequest));
+        cartStore.clear(user.getId());
+        return order;
+    }
+
+    private CartResponse price(Long userId, SortedMap<Long, Integer> items) {
+        Map<Long, ProductResponse> products = products(items.keySet());
+        pruneDeleted(userId, items.keySet(), products);
+        List<CartLineResponse> lines = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> item : items.entrySet()) {
+            ProductResponse product = products.get(item.getKey());
+            if (product == null) continue; // pruned above
+            int quantity = item.getValue();
+            BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+            boolean inStock = product.getQuantity() != null && product.getQuantity() >= quantity;
+            lines.add(new CartLineResponse(product.getId(), product.getName(), product.getPrice(), quantity, lineTotal, inStock));
+            total = total.add(lineTotal);
+        }
+        return new CartResponse(lines, total);
+    }
+
+    // Lines whose product is gone would only fail checkout; returns their ids
+    private List<Long> pruneDeleted(Long userId, Collection<Long> productIds, Map<Long, ProductResponse> products) {
+        List<Long> deleted = productIds.stream().filter(id -> !products.containsKey(id)).toList();
+        deleted.forEach(id -> cartStore.remove(userId, id));
+        return deleted;
+    }
+
+    // Cache first; ProductService (a read-only transaction) only for the misses
+    private Map<Long, ProductResponse> products(Collection<Long> productIds) {
+        if (productIds.isEmpty()) return Map.of();
+        Map<Long, ProductResponse> found = productCacheStore.getAll(productIds);
+        List<Long> misses = productIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            productService.getProducts(misses).forEach(product -> found.put(product.getId(), product));
+        }
+        return found;
+    }
+
+    private void checkQuantity(int quantity) {
+        if (quantity > props.getMaxQuantity()) {
+            throw CartLimitException.tooManyOfOne(props.getMaxQuantity());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.liuchangming88.ecommerce_backend.service.cart;
+
+import java.util.SortedMap;
+
+/**
+ * Cart contents per user: product id -> quantity. Only ids and quantities are stored; names and prices are
+ * looked up when the cart is shown, so they never go stale.
+ */
+public interface CartStore {
+
+    /**
+     * The user's cart ordered by product id; empty if there is none.
+     */
+    SortedMap<Long, Integer> getItems(Long userId);
+
+    /**
+     * Adds quantity to the product's line (creating it) and returns the new quantity. The limits are checked in the
+     * same atomic step as the write: nothing is written (CartLimitException) if the line would go over maxQuantity,
+     * or if it is a new line and the cart already holds maxItems products.
+     */
+    int add(Long userId, Long productId, int quantity, int maxQuantity, int maxItems);
+
+    /**
+     * Replaces the product's quantity, creating the line if needed.
+     */
+    void set(Long userId, Long productId, int quantity);
+
+    /**
+     * Removes the product's line; false if it wasn't there.
+     */
+    boolean remove(Long userId, Long productId);
+
+    void clear(Long userId);
+}
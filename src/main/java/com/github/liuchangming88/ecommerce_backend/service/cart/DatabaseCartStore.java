@@ -0,0 +1,84 @@
+package com.github.liuchangming88.ecommerce_backend.service.cart;
+
+import com.github.liuchangming88.ecommerce_backend.exception.CartLimitException;
+import com.github.liuchangming88.ecommerce_backend.model.cart.CartItem;
+import com.github.liuchangming88.ecommerce_backend.model.cart.repository.CartItemRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Carts in the cart_item table, for deployments without Redis. Every cart read is a query here.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+
+    private final CartItemRepository cartItemRepository;
+
+    public DatabaseCartStore(CartItemRepository cartItemRepository) {
+        this.cartItemRepository = cartItemRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SortedMap<Long, Integer> getItems(Long userId) {
+        SortedMap<Long, Integer> items = new TreeMap<>();
+        cartItemRepository.findByUserIdOrderByProductId(userId)
+                .forEach(item -> items.put(item.getProductId(), item.getQuantity()));
+        return items;
+    }
+
+    @Override
+    @Transactional
+    public int add(Long userId, Long productId, int quantity, int maxQuantity, int maxItems) {
+        // Two adds of new products could otherwise both see one free line
+        cartItemRepository.lockCart(userId);
+        CartItem item = cartItemRepository.findById(new CartItem.Key(userId, productId)).orElse(null);
+        if (item == null) {
+            if (cartItemRepository.countByUserId(userId) >= maxItems) throw CartLimitException.tooManyProducts(maxItems);
+            item = line(userId, productId);
+        }
+        if (item.getQuantity() + quantity > maxQuantity) {
+            throw CartLimitException.tooManyOfOne(maxQuantity);
+        }
+        item.setQuantity(item.getQuantity() + quantity);
+        cartItemRepository.save(item);
+        return item.getQuantity();
+    }
+
+    @Override
+    @Transactional
+    public void set(Long userId, Long productId, int quantity) {
+        CartItem item = line(userId, productId);
+        item.setQuantity(quantity);
+        cartItemRepository.save(item);
+    }
+
+    @Override
+    @Transactional
+    public boolean remove(Long userId, Long productId) {
+        CartItem.Key key = new CartItem.Key(userId, productId);
+        if (!cartItemRepository.existsById(key)) return false;
+        cartItemRepository.deleteById(key);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void clear(Long userId) {
+        cartItemRepository.deleteByUserId(userId);
+    }
+
+    private CartItem line(Long userId, Long productId) {
+        return cartItemRepository.findById(new CartItem.Key(userId, productId)).orElseGet(() -> {
+            CartItem item = new CartItem();
+            item.setUserId(userId);
+            item.setProductId(productId);
+            return item;
+        });
+    }
+}
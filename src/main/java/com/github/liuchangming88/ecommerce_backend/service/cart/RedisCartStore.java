@@ -0,0 +1,95 @@
+package com.github.liuchangming88.ecommerce_backend.service.cart;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.CartProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.CartLimitException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Carts as Redis hashes, one per user (field = product id, value = quantity), shared by all instances.
+ * Every write renews the hash's TTL. Unlike the caches, Redis is the only copy here, so failures are not
+ * swallowed: they reach the client as errors rather than as an empty cart.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "redis")
+public class RedisCartStore implements CartStore {
+
+    private static final long TOO_MANY_PRODUCTS = -1;
+    private static final long TOO_MANY_OF_ONE = -2;
+
+    // HINCRBY with the cart limits checked in the same step; renews the TTL like every write
+    private static final RedisScript<Long> ADD = new DefaultRedisScript<>("""
+            local current = redis.call('HGET', KEYS[1], ARGV[1])
+            if not current then
+                if redis.call('HLEN', KEYS[1]) >= tonumber(ARGV[4]) then return -1 end
+                current = 0
+            end
+            if tonumber(current) + tonumber(ARGV[2]) > tonumber(ARGV[3]) then return -2 end
+            local total = redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[5])
+            return total
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartProperties props;
+
+    public RedisCartStore(StringRedisTemplate redisTemplate, CartProperties props) {
+        this.redisTemplate = redisTemplate;
+        this.props = props;
+    }
+
+    @Override
+    public SortedMap<Long, Integer> getItems(Long userId) {
+        Map<String, String> hash = hash().entries(key(userId));
+        SortedMap<Long, Integer> items = new TreeMap<>();
+        hash.forEach((productId, quantity) -> items.put(Long.valueOf(productId), Integer.valueOf(quantity)));
+        return items;
+    }
+
+    @Override
+    public int add(Long userId, Long productId, int quantity, int maxQuantity, int maxItems) {
+        Long total = redisTemplate.execute(ADD, List.of(key(userId)), productId.toString(), Integer.toString(quantity),
+                Integer.toString(maxQuantity), Integer.toString(maxItems), Long.toString(props.getTtl().toMillis()));
+        if (total == TOO_MANY_PRODUCTS) throw CartLimitException.tooManyProducts(maxItems);
+        if (total == TOO_MANY_OF_ONE) throw CartLimitException.tooManyOfOne(maxQuantity);
+        return total.intValue();
+    }
+
+    @Override
+    public void set(Long userId, Long productId, int quantity) {
+        hash().put(key(userId), productId.toString(), Integer.toString(quantity));
+        touch(userId);
+    }
+
+    @Override
+    public boolean remove(Long userId, Long productId) {
+        Long removed = hash().delete(key(userId), productId.toString());
+        return removed != null && removed > 0;
+    }
+
+    @Override
+    public void clear(Long userId) {
+        redisTemplate.delete(key(userId));
+    }
+
+    private void touch(Long userId) {
+        redisTemplate.expire(key(userId), props.getTtl());
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return redisTemplate.opsForHash();
+    }
+
+    private String key(Long userId) {
+        return props.getKeyPrefix() + userId;
+    }
+}
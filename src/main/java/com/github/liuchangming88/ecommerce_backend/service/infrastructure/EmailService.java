@@ -1,5 +1,7 @@
 package com.github.liuchangming88.ecommerce_backend.service.infrastructure;
 
+import com.github.liuchangming88.ecommerce_backend.events.OrderPaid;
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import com.github.liuchangming88.ecommerce_backend.model.user.PasswordResetToken;
 import com.github.liuchangming88.ecommerce_backend.model.user.VerificationToken;
 import org.springframework.beans.factory.annotation.Value;
@@ -49,4 +51,14 @@ public class EmailService {
                 url + "/auth/reset?token=" + passwordResetToken.getToken());
         javaMailSender.send(simpleMailMessage);
     }
+
+    public void sendOrderPaidEmail (LocalUser user, OrderPaid orderPaid) {
+        SimpleMailMessage simpleMailMessage = createMailMessage();
+        simpleMailMessage.setTo(user.getEmail());
+        simpleMailMessage.setSubject("Payment received for your order #" + orderPaid.orderId());
+        simpleMailMessage.setText("We received your payment of " + orderPaid.amount().toPlainString() + " " + orderPaid.currency() +
+                " for order #" + orderPaid.orderId() + " (reference " + orderPaid.txnRef() + ").\n" +
+                url + "/orders/" + orderPaid.orderId());
+        javaMailSender.send(simpleMailMessage);
+    }
 }
\ No newline at end of file
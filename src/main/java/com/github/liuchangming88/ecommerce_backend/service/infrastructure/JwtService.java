@@ -6,11 +6,14 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
@@ -28,6 +31,22 @@ public class JwtService {
 
     private static final String ROLE_KEY = "ROLE";
 
+    // Runs on every authenticated request (JwtRequestFilter), hence a timer rather than a log line
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.verifyValid = verifyTimer(meterRegistry, "valid");
+        this.verifyInvalid = verifyTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.verify")
+                .description("JWT signature and claim verification time")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     // Post construct because of how spring's IOC injects data
     @PostConstruct
     public void postConstruct() {
@@ -49,7 +68,15 @@ public class JwtService {
         JWTVerifier jwtVerifier = JWT.require(algorithm).withIssuer(issuer).build();
 
         // Verifies and decodes
-        return jwtVerifier.verify(jwtToken);
+        long start = System.nanoTime();
+        try {
+            DecodedJWT decoded = jwtVerifier.verify(jwtToken);
+            verifyValid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return decoded;
+        } catch (JWTVerificationException e) {
+            verifyInvalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
     // Decode jwt to get username
@@ -0,0 +1,113 @@
+package com.github.liuchangming88.ecommerce_backend.service.infrastructure;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Records jdk.VirtualThreadPinned JFR events while the virtual-thread mode is on.
+ *
+ * A pinned virtual thread blocks its carrier (e.g. blocking I/O inside a synchronized block), which quietly turns
+ * virtual threads back into a small platform pool. Each distinct stack is logged once and counted;
+ * the "pinning" actuator endpoint returns the counts, most frequent first.
+ */
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_DISTINCT_STACKS = 50;
+    private static final int FRAMES_PER_STACK = 8;
+
+    private final Duration threshold;
+    private final LongAdder events = new LongAdder();
+    private final AtomicLong longestNanos = new AtomicLong();
+    private final Map<String, LongAdder> countsByStack = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${diagnostics.pinning.threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+        log.info("Recording virtual thread pinning longer than {}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) recording.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    @ReadOperation
+    public Map<String, Object> pinning() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threshold", threshold.toString());
+        report.put("events", events.sum());
+        report.put("longestMillis", Duration.ofNanos(longestNanos.get()).toMillis());
+        report.put("stacks", countsByStack.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .map(e -> Map.of("count", e.getValue().sum(), "stack", e.getKey()))
+                .toList());
+        return report;
+    }
+
+    void record(RecordedEvent event) {
+        events.increment();
+        longestNanos.accumulateAndGet(event.getDuration().toNanos(), Math::max);
+
+        String stack = describe(event.getStackTrace());
+        LongAdder count = countsByStack.get(stack);
+        if (count == null) {
+            // Bounded so a pathological workload can't grow the map forever; later stacks are only counted in "events"
+            if (countsByStack.size() >= MAX_DISTINCT_STACKS) return;
+            count = countsByStack.computeIfAbsent(stack, s -> {
+                log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), s);
+                return new LongAdder();
+            });
+        }
+        count.increment();
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) return "<no stack trace>";
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(FRAMES_PER_STACK)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
@@ -0,0 +1,377 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.CheckoutTicketResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.ItemRequest;
+import com.github.liuchangming88.ecommerce_backend.configuration.CheckoutAdmissionProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.CheckoutQueuedException;
+import com.github.liuchangming88.ecommerce_backend.exception.InsufficientStockException;
+import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of OrderService.createOrder, per product, before any transaction or connection is taken.
+ *  - Sold out: each product's stock is kept in memory (read from the database at most every stock-refresh-interval,
+ *    lowered by every order placed here), and a request for more than that is rejected right away.
+ *  - At most max-concurrent-per-product checkouts of a product run at once. Further requests join the product's line
+ *    and get a ticket (CheckoutQueuedException, 202). The client polls it (GET /orders/tickets/{ticket}) and, once
+ *    ADMITTED, repeats POST /orders with the ticket in the Checkout-Ticket header; the slot is held for it meanwhile.
+ * The stock level is approximate and per instance; the conditional decrement in createOrder stays the authority.
+ * A product without an inventory row is remembered as such for the refresh interval too. Products nobody has checked
+ * out or queued for since abandon-after are forgotten by the periodic sweep, so only recently asked-for ones are kept.
+ * Outcomes are counted in orders.admission{outcome=admitted|queued|sold_out}, the line in orders.admission.waiting.
+ */
+@Component
+public class CheckoutAdmission {
+
+    public static final String TICKET_HEADER = "Checkout-Ticket";
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutAdmission.class);
+    private static final long UNKNOWN = -1;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private enum TicketStatus { WAITING, ADMITTED, USED, SOLD_OUT, EXPIRED }
+
+    private static final class Ticket {
+        final String id = UUID.randomUUID().toString();
+        final Long userId;
+        final Long productId;
+        final long seq;
+        // Guarded by the product's Slot
+        TicketStatus status = TicketStatus.WAITING;
+        long lastSeen;
+        long admittedUntil;
+
+        Ticket(Long userId, Long productId, long seq, long now) {
+            this.userId = userId;
+            this.productId = productId;
+            this.seq = seq;
+            this.lastSeen = now;
+        }
+    }
+
+    private static final class Slot {
+        final Long productId;
+        final AtomicLong stock = new AtomicLong(UNKNOWN);
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile long stockCheckedAt = NEVER;
+        // Guarded by this
+        boolean retired;
+        int inFlight;
+        long issued;
+        long served;
+        final Deque<Ticket> waiting = new ArrayDeque<>();
+        final Map<Long, Ticket> waitingByUser = new HashMap<>();
+        final List<Ticket> admitted = new ArrayList<>();
+
+        Slot(Long productId) {
+            this.productId = productId;
+        }
+    }
+
+    private final CheckoutAdmissionProperties props;
+    private final InventoryRepository inventoryRepository;
+    private final Clock clock;
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final Counter admitted;
+    private final Counter queued;
+    private final Counter soldOut;
+
+    @Autowired
+    public CheckoutAdmission(CheckoutAdmissionProperties props, InventoryRepository inventoryRepository, MeterRegistry meterRegistry) {
+        this(props, inventoryRepository, meterRegistry, Clock.systemUTC());
+    }
+
+    CheckoutAdmission(CheckoutAdmissionProperties props, InventoryRepository inventoryRepository, MeterRegistry meterRegistry, Clock clock) {
+        this.props = props;
+        this.inventoryRepository = inventoryRepository;
+        this.clock = clock;
+        this.admitted = counter(meterRegistry, "admitted");
+        this.queued = counter(meterRegistry, "queued");
+        this.soldOut = counter(meterRegistry, "sold_out");
+        Gauge.builder("orders.admission.waiting", waiting, AtomicInteger::get)
+                .description("Checkout requests waiting in line, all products")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs createOrder if every product of the order has stock and a free checkout slot (or the ticket was admitted).
+     * Otherwise throws InsufficientStockException (sold out) or CheckoutQueuedException (in line).
+     */
+    public <T> T checkout(Long userId, List<ItemRequest> items, String ticketId, Supplier<T> createOrder) {
+        if (!props.isEnabled() || items == null) return createOrder.get();
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ItemRequest item : items) {
+            if (item != null && item.getProductId() != null) quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        // Left to createOrder's validation
+        if (quantities.isEmpty()) return createOrder.get();
+        sweepIfDue();
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            long stock = currentStock(slot(line.getKey()));
+            if (stock != UNKNOWN && stock < line.getValue()) {
+                soldOut.increment();
+                throw new InsufficientStockException("Product with id " + line.getKey() + " doesn't have enough stock. " +
+                        "Current stock: " + stock + ". Quantity you wanted to buy: " + line.getValue(), line.getKey());
+            }
+        }
+
+        Slot reserved = ticketId == null ? null : useTicket(userId, ticketId);
+        List<Slot> held = new ArrayList<>();
+        if (reserved != null) held.add(reserved);
+        try {
+            // Sorted by product id, like the stock decrements
+            for (Long productId : quantities.keySet()) {
+                if (reserved != null && reserved.productId.equals(productId)) continue;
+                Slot slot = withSlot(productId, s -> tryAcquire(s) ? s : null);
+                if (slot == null) {
+                    queued.increment();
+                    throw new CheckoutQueuedException(withSlot(productId, s -> enqueue(s, userId)));
+                }
+                held.add(slot);
+            }
+        } catch (RuntimeException e) {
+            held.forEach(this::release);
+            throw e;
+        }
+
+        admitted.increment();
+        try {
+            T result = createOrder.get();
+            quantities.forEach((productId, quantity) ->
+                    slot(productId).stock.updateAndGet(stock -> stock == UNKNOWN ? stock : Math.max(0, stock - quantity)));
+            return result;
+        } catch (InsufficientStockException e) {
+            // Stock is below what was asked; the next refresh has the exact figure
+            if (e.getProductId() != null && quantities.containsKey(e.getProductId())) {
+                int asked = quantities.get(e.getProductId());
+                slot(e.getProductId()).stock.updateAndGet(stock -> stock == UNKNOWN ? asked - 1 : Math.min(stock, asked - 1));
+            }
+            throw e;
+        } finally {
+            held.forEach(this::release);
+        }
+    }
+
+    /**
+     * The ticket's place in line. Polling also keeps a waiting ticket in line.
+     */
+    public CheckoutTicketResponse ticketStatus(Long userId, String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Checkout ticket " + ticketId + " not found");
+        }
+        Slot slot = slot(ticket.productId);
+        currentStock(slot);
+        synchronized (slot) {
+            promote(slot);
+            if (ticket.status == TicketStatus.WAITING) ticket.lastSeen = clock.millis();
+            if (ticket.status == TicketStatus.SOLD_OUT || ticket.status == TicketStatus.EXPIRED) tickets.remove(ticketId);
+            return response(slot, ticket);
+        }
+    }
+
+    // Returns the slot held by an admitted ticket, now handed to this request; null if the ticket is no use
+    private Slot useTicket(Long userId, String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.userId.equals(userId)) return null;
+        Slot slot = slot(ticket.productId);
+        synchronized (slot) {
+            promote(slot);
+            switch (ticket.status) {
+                case ADMITTED -> {
+                    ticket.status = TicketStatus.USED;
+                    slot.admitted.remove(ticket);
+                    tickets.remove(ticketId);
+                    return slot;
+                }
+                case WAITING -> {
+                    ticket.lastSeen = clock.millis();
+                    queued.increment();
+                    throw new CheckoutQueuedException(response(slot, ticket));
+                }
+                default -> {
+                    tickets.remove(ticketId);
+                    return null;
+                }
+            }
+        }
+    }
+
+    private boolean tryAcquire(Slot slot) {
+        synchronized (slot) {
+            promote(slot);
+            // Nobody overtakes the line
+            if (!slot.waiting.isEmpty() || slot.inFlight >= props.getMaxConcurrentPerProduct()) return false;
+            slot.inFlight++;
+            return true;
+        }
+    }
+
+    private void release(Slot slot) {
+        synchronized (slot) {
+            slot.inFlight--;
+            promote(slot);
+        }
+    }
+
+    // One ticket per user and product: asking again keeps the place in line
+    private CheckoutTicketResponse enqueue(Slot slot, Long userId) {
+        synchronized (slot) {
+            long now = clock.millis();
+            Ticket ticket = slot.waitingByUser.get(userId);
+            if (ticket == null) {
+                ticket = new Ticket(userId, slot.productId, ++slot.issued, now);
+                slot.waiting.addLast(ticket);
+                slot.waitingByUser.put(userId, ticket);
+                tickets.put(ticket.id, ticket);
+                waiting.incrementAndGet();
+            }
+            ticket.lastSeen = now;
+            return response(slot, ticket);
+        }
+    }
+
+    // Frees slots of admissions not used in time, then moves the line forward. Caller holds the slot's lock.
+    private void promote(Slot slot) {
+        long now = clock.millis();
+        for (Iterator<Ticket> it = slot.admitted.iterator(); it.hasNext(); ) {
+            Ticket ticket = it.next();
+            if (now > ticket.admittedUntil) {
+                ticket.status = TicketStatus.EXPIRED;
+                // Kept for the client to see until the sweep after abandon-after
+                ticket.lastSeen = now;
+                it.remove();
+                slot.inFlight--;
+            }
+        }
+
+        boolean isSoldOut = slot.stock.get() == 0;
+        while (!slot.waiting.isEmpty()) {
+            Ticket head = slot.waiting.peekFirst();
+            boolean abandoned = now - head.lastSeen > props.getAbandonAfter().toMillis();
+            if (!abandoned && !isSoldOut && slot.inFlight >= props.getMaxConcurrentPerProduct()) break;
+
+            slot.waiting.removeFirst();
+            slot.waitingByUser.remove(head.userId);
+            slot.served = head.seq;
+            waiting.decrementAndGet();
+            if (abandoned) {
+                head.status = TicketStatus.EXPIRED;
+                tickets.remove(head.id);
+            } else if (isSoldOut) {
+                head.status = TicketStatus.SOLD_OUT;
+                head.lastSeen = now;
+            } else {
+                head.status = TicketStatus.ADMITTED;
+                head.admittedUntil = now + props.getAdmissionWindow().toMillis();
+                slot.admitted.add(head);
+                slot.inFlight++;
+            }
+        }
+    }
+
+    private long currentStock(Slot slot) {
+        long now = clock.millis();
+        // UNKNOWN after a read means no inventory row; that is kept as long as a level would be
+        boolean fresh = slot.stockCheckedAt != NEVER && now - slot.stockCheckedAt < props.getStockRefreshInterval().toMillis();
+        // One reader refreshes; the others go on with the level they have
+        if (fresh || !slot.refreshing.compareAndSet(false, true)) return slot.stock.get();
+        try {
+            slot.stock.set(inventoryRepository.findQuantityByProductId(slot.productId).orElse(UNKNOWN));
+            slot.stockCheckedAt = now;
+        } catch (RuntimeException e) {
+            log.warn("Could not read stock of product {}, keeping the last known level: {}", slot.productId, e.getMessage());
+        } finally {
+            slot.refreshing.set(false);
+        }
+        return slot.stock.get();
+    }
+
+    // Lines nobody touches any more are moved on, idle products and final tickets nobody polled are forgotten
+    private void sweepIfDue() {
+        long now = clock.millis();
+        long last = lastSweep.get();
+        long abandonAfter = props.getAbandonAfter().toMillis();
+        if (now - last < abandonAfter || !lastSweep.compareAndSet(last, now)) return;
+        for (Slot slot : slots.values()) {
+            synchronized (slot) {
+                promote(slot);
+                if (isIdle(slot, now)) {
+                    slot.retired = true;
+                    slots.remove(slot.productId, slot);
+                }
+            }
+        }
+        tickets.values().removeIf(ticket -> (ticket.status == TicketStatus.SOLD_OUT || ticket.status == TicketStatus.EXPIRED)
+                && now - ticket.lastSeen > abandonAfter);
+    }
+
+    // Only for reading and adjusting the stock level; checkout slots and the line go through withSlot
+    private Slot slot(Long productId) {
+        return slots.computeIfAbsent(productId, Slot::new);
+    }
+
+    // Runs the action holding the product's slot lock. A slot the sweep retired after it was looked up is replaced,
+    // so nobody takes a checkout slot or a place in line on a slot that is no longer in the map.
+    private <T> T withSlot(Long productId, Function<Slot, T> action) {
+        while (true) {
+            Slot slot = slot(productId);
+            synchronized (slot) {
+                if (!slot.retired) return action.apply(slot);
+            }
+        }
+    }
+
+    // No checkout running or admitted, nobody in line, and the stock level not asked for since abandon-after.
+    // Caller holds the slot's lock.
+    private boolean isIdle(Slot slot, long now) {
+        return slot.inFlight == 0 && slot.waiting.isEmpty() && slot.admitted.isEmpty()
+                && (slot.stockCheckedAt == NEVER || now - slot.stockCheckedAt > props.getAbandonAfter().toMillis());
+    }
+
+    // For tests
+    int trackedProducts() {
+        return slots.size();
+    }
+
+    // Caller holds the slot's lock
+    private CheckoutTicketResponse response(Slot slot, Ticket ticket) {
+        boolean isWaiting = ticket.status == TicketStatus.WAITING;
+        OffsetDateTime admittedUntil = ticket.status == TicketStatus.ADMITTED
+                ? OffsetDateTime.ofInstant(Instant.ofEpochMilli(ticket.admittedUntil), ZoneOffset.UTC)
+                : null;
+        return new CheckoutTicketResponse(ticket.id, ticket.productId, ticket.status.name(),
+                isWaiting ? ticket.seq - slot.served : 0, admittedUntil,
+                isWaiting ? props.getPollInterval().toSeconds() : 0);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("orders.admission")
+                .description("POST /orders requests by admission outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
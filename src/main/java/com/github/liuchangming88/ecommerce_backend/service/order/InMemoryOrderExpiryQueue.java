@@ -0,0 +1,60 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Expiry queue local to this instance. It starts empty after a restart; orders created before that are
+ * picked up by the database sweep.
+ */
+@Component
+@ConditionalOnProperty(name = "order.cleanup.expiry-queue", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOrderExpiryQueue implements OrderExpiryQueue {
+
+    private record Entry(long dueAtMillis, long orderId) {
+    }
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Entry::dueAtMillis).thenComparingLong(Entry::orderId));
+    // Current entry per order, so rescheduling replaces instead of duplicating (like ZADD on an existing member)
+    private final Map<Long, Entry> byOrder = new ConcurrentHashMap<>();
+
+    @Override
+    public void schedule(Long orderId, OffsetDateTime expiresAt) {
+        Entry entry = new Entry(expiresAt.toInstant().toEpochMilli(), orderId);
+        byOrder.compute(orderId, (id, previous) -> {
+            if (previous != null) entries.remove(previous);
+            entries.add(entry);
+            return entry;
+        });
+    }
+
+    @Override
+    public List<Long> pollDue(OffsetDateTime now, int max) {
+        long nowMillis = now.toInstant().toEpochMilli();
+        List<Long> due = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (due.size() >= max || entry.dueAtMillis() >= nowMillis) break;
+            // Another poller may have taken it first
+            if (entries.remove(entry)) {
+                byOrder.remove(entry.orderId(), entry);
+                due.add(entry.orderId());
+            }
+        }
+        return due;
+    }
+
+    @Override
+    public long size() {
+        return entries.size();
+    }
+}
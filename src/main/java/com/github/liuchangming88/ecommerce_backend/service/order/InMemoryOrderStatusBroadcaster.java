@@ -0,0 +1,22 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands changes straight to the streams of this instance. Enough for a single instance; with several, a user whose
+ * stream is open on another instance than the one that processed the change doesn't see it.
+ */
+@Component
+@ConditionalOnProperty(name = "order.status-stream.broadcaster", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InMemoryOrderStatusBroadcaster implements OrderStatusBroadcaster {
+
+    private final OrderStatusStreams orderStatusStreams;
+
+    @Override
+    public void publish(OrderStatusUpdate update) {
+        orderStatusStreams.deliver(update);
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.DataSourceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves terminal orders (PAID / FAILED / CANCELLED) past their retention into local_order_archive, together with their items,
+ * payments and order_view row, so the hot tables and every scan over them stay proportional to recent traffic.
+ * Order history reads the view rows of both (OrderHistoryEntry); nothing else reads archived orders.
+ *
+ * On PostgreSQL the archive tables are partitioned by month of the order's created_at (V3__order_archive.sql);
+ * the partitions a batch needs are created in the same transaction, before the rows are copied.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private static final List<String> PARTITIONED_TABLES = List.of("local_order_archive", "local_order_items_archive", "payment_archive", "order_view_archive");
+
+    private static final String PICK_BATCH = """
+            SELECT id FROM local_order
+             WHERE status IN ('PAID', 'FAILED', 'CANCELLED') AND created_at < :cutoff
+             ORDER BY created_at
+             LIMIT :limit
+            """;
+
+    private static final String CREATED_RANGE = """
+            SELECT MIN(created_at) AS first_created, MAX(created_at) AS last_created FROM local_order WHERE id IN (:ids)
+            """;
+
+    private static final String COPY_ORDERS = """
+            INSERT INTO local_order_archive (id, local_user_id, address_id, status, total_amount, currency,
+                                             created_at, expires_at, updated_at, restocked, archived_at)
+            SELECT id, local_user_id, address_id, status, total_amount, currency,
+                   created_at, expires_at, updated_at, restocked, :now
+              FROM local_order WHERE id IN (:ids)
+            """;
+
+    private static final String COPY_ITEMS = """
+            INSERT INTO local_order_items_archive (id, local_order_id, product_id, quantity, unit_price, order_created_at)
+            SELECT i.id, i.local_order_id, i.product_id, i.quantity, i.unit_price, o.created_at
+              FROM local_order_items i JOIN local_order o ON o.id = i.local_order_id
+             WHERE i.local_order_id IN (:ids)
+            """;
+
+    private static final String COPY_PAYMENTS = """
+            INSERT INTO payment_archive (id, local_order_id, status, provider, amount, currency, txn_ref, transaction_no,
+                                         response_code, bank_code, raw_params, client_ip, created_at, expires_at,
+                                         updated_at, version, order_created_at)
+            SELECT p.id, p.local_order_id, p.status, p.provider, p.amount, p.currency, p.txn_ref, p.transaction_no,
+                   p.response_code, p.bank_code, p.raw_params, p.client_ip, p.created_at, p.expires_at,
+                   p.updated_at, p.version, o.created_at
+              FROM payment p JOIN local_order o ON o.id = p.local_order_id
+             WHERE p.local_order_id IN (:ids)
+            """;
+
+    private static final String COPY_VIEWS = """
+            INSERT INTO order_view_archive (order_id, local_user_id, status, total_amount, currency, created_at, expires_at,
+                                            updated_at, address_id, address_line_1, address_line_2, city, country, items,
+                                            archived_at)
+            SELECT order_id, local_user_id, status, total_amount, currency, created_at, expires_at,
+                   updated_at, address_id, address_line_1, address_line_2, city, country, items, :now
+              FROM order_view WHERE order_id IN (:ids)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile Boolean partitioned;
+
+    public OrderArchiveService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Archives up to batchSize terminal orders created before cutoff. Returns how many orders were moved.
+     */
+    // Jobs pool: a long sweep must not take connections away from checkout
+    @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER)
+    public int archiveBatch(OffsetDateTime cutoff, int batchSize) {
+        List<Long> ids = jdbcTemplate.queryForList(PICK_BATCH,
+                new MapSqlParameterSource("cutoff", cutoff).addValue("limit", batchSize), Long.class);
+        if (ids.isEmpty()) return 0;
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("now", OffsetDateTime.now());
+        if (isPartitioned()) {
+            ensurePartitions(params);
+        }
+
+        jdbcTemplate.update(COPY_ORDERS, params);
+        jdbcTemplate.update(COPY_ITEMS, params);
+        jdbcTemplate.update(COPY_PAYMENTS, params);
+        jdbcTemplate.update(COPY_VIEWS, params);
+
+        // Children first; the hot tables have foreign keys to local_order
+        jdbcTemplate.update("DELETE FROM payment WHERE local_order_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM local_order_items WHERE local_order_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM order_view WHERE order_id IN (:ids)", params);
+        int moved = jdbcTemplate.update("DELETE FROM local_order WHERE id IN (:ids)", params);
+
+        log.info("Order archive: moved {} orders created before {}", moved, cutoff);
+        return moved;
+    }
+
+    private void ensurePartitions(MapSqlParameterSource params) {
+        Map<String, Object> range = jdbcTemplate.queryForMap(CREATED_RANGE, params);
+        YearMonth month = YearMonth.from(toUtc(range.get("first_created")));
+        YearMonth last = YearMonth.from(toUtc(range.get("last_created")));
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            String from = month.atDay(1) + " 00:00:00+00";
+            String to = month.plusMonths(1).atDay(1) + " 00:00:00+00";
+            for (String table : PARTITIONED_TABLES) {
+                // Names and bounds come from the date only, never from input
+                jdbcTemplate.getJdbcTemplate().execute("CREATE TABLE IF NOT EXISTS %s_p%d_%02d PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+                        .formatted(table, month.getYear(), month.getMonthValue(), table, from, to));
+            }
+        }
+    }
+
+    private static OffsetDateTime toUtc(Object timestamp) {
+        if (timestamp instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.withOffsetSameInstant(ZoneOffset.UTC);
+        }
+        return ((Timestamp) timestamp).toInstant().atOffset(ZoneOffset.UTC);
+    }
+
+    // Only the PostgreSQL schema (Flyway) partitions the archive; H2 in tests has plain tables
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return partitioned;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Pending orders ordered by expiresAt, so the expiry job only touches orders that are actually due
+ * instead of querying the order table on every pass.
+ */
+public interface OrderExpiryQueue {
+
+    /**
+     * Registers (or moves) an order. Failures are logged, not thrown: the database sweep is the fallback.
+     */
+    void schedule(Long orderId, OffsetDateTime expiresAt);
+
+    /**
+     * Removes and returns up to max orders whose expiresAt is before now, earliest first.
+     * Each order is handed out once, also when several instances poll the same queue.
+     */
+    List<Long> pollDue(OffsetDateTime now, int max);
+
+    long size();
+}
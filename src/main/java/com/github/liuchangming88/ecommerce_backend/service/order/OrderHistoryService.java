@@ -0,0 +1,116 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderHistoryRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderHistoryResponse;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderHistoryEntry;
+import com.github.liuchangming88.ecommerce_backend.model.order.repository.OrderHistoryEntryRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Order history of a user, newest first, read from order_view and order_view_archive (OrderHistoryEntry).
+ *
+ * Pages are keyset-paginated on (created_at, id): the cursor carries the last row of the previous page and the next
+ * page starts right after it, so a page costs the same on the first and the thousandth page, and no count query is
+ * run. One extra row is fetched to tell whether there is a next page. A page is one query, a merge of the range scans
+ * of ix_order_view_user_history and its archive twin: each row already carries its lines and address.
+ */
+@Service
+public class OrderHistoryService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("orderId"));
+
+    private final OrderHistoryEntryRepository orderHistoryEntryRepository;
+    private final OrderViewProjector orderViewProjector;
+
+    public OrderHistoryService(OrderHistoryEntryRepository orderHistoryEntryRepository, OrderViewProjector orderViewProjector) {
+        this.orderHistoryEntryRepository = orderHistoryEntryRepository;
+        this.orderViewProjector = orderViewProjector;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderHistoryResponse getOrderHistory(Long userId, OrderHistoryRequest request) {
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("minAmount must not exceed maxAmount");
+        }
+
+        int size = request.getSize();
+        Specification<OrderHistoryEntry> spec = filters(userId, request);
+        if (request.getCursor() != null) {
+            spec = spec.and(after(Cursor.decode(request.getCursor())));
+        }
+        List<OrderHistoryEntry> rows = orderHistoryEntryRepository.findBy(spec, q -> q.sortBy(NEWEST_FIRST).limit(size + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            OrderHistoryEntry last = rows.get(size - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getOrderId()).encode();
+        }
+        return new OrderHistoryResponse(rows.stream().map(orderViewProjector::toResponse).toList(), nextCursor);
+    }
+
+    private static Specification<OrderHistoryEntry> filters(Long userId, OrderHistoryRequest request) {
+        return (root, query, cb) -> {
+            var predicate = cb.equal(root.get("localUserId"), userId);
+            if (request.getStatus() != null && !request.getStatus().isEmpty()) {
+                predicate = cb.and(predicate, root.get("status").in(request.getStatus()));
+            }
+            if (request.getFrom() != null) {
+                predicate = cb.and(predicate, cb.greaterThanOrEqualTo(root.get("createdAt"), request.getFrom()));
+            }
+            if (request.getTo() != null) {
+                predicate = cb.and(predicate, cb.lessThan(root.get("createdAt"), request.getTo()));
+            }
+            if (request.getMinAmount() != null) {
+                predicate = cb.and(predicate, cb.greaterThanOrEqualTo(root.get("totalAmount"), request.getMinAmount()));
+            }
+            if (request.getMaxAmount() != null) {
+                predicate = cb.and(predicate, cb.lessThanOrEqualTo(root.get("totalAmount"), request.getMaxAmount()));
+            }
+            return predicate;
+        };
+    }
+
+    // Strictly after the cursor row in NEWEST_FIRST order: created_at < c OR (created_at = c AND id < i). The
+    // redundant created_at <= c is what the index can seek on; the OR alone would be a filter over every earlier row.
+    private static Specification<OrderHistoryEntry> after(Cursor cursor) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("createdAt"), cursor.createdAt()),
+                cb.or(cb.lessThan(root.get("createdAt"), cursor.createdAt()), cb.lessThan(root.get("orderId"), cursor.id())));
+    }
+
+    /**
+     * Position of the last row of a page, handed to clients as an opaque token.
+     */
+    record Cursor(OffsetDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                if (separator < 0) throw new IllegalArgumentException("Invalid cursor");
+                return new Cursor(OffsetDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.events.DomainEventHandler;
+import com.github.liuchangming88.ecommerce_backend.events.OrderPaid;
+import com.github.liuchangming88.ecommerce_backend.model.user.repository.LocalUserRepository;
+import com.github.liuchangming88.ecommerce_backend.service.infrastructure.EmailService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emails the buyer a payment confirmation. Runs from the outbox relay, so a slow or unavailable mail server
+ * neither delays the IPN response nor loses the email; a redelivered event can send it twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPaidEmailHandler implements DomainEventHandler<OrderPaid> {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPaidEmailHandler.class);
+
+    private final LocalUserRepository localUserRepository;
+    private final EmailService emailService;
+
+    @Override
+    public Class<OrderPaid> eventType() {
+        return OrderPaid.class;
+    }
+
+    @Override
+    public void handle(OrderPaid event) {
+        localUserRepository.findById(event.userId()).ifPresentOrElse(
+                user -> emailService.sendOrderPaidEmail(user, event),
+                () -> log.info("Order {} paid by user {} who no longer exists, no email sent", event.orderId(), event.userId()));
+    }
+}
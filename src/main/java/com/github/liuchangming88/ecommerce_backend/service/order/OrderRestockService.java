@@ -1,19 +1,23 @@
 package com.github.liuchangming88.ecommerce_backend.service.order;
 
+import com.github.liuchangming88.ecommerce_backend.events.OrderExpired;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrderItems;
 import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
-import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
-import com.github.liuchangming88.ecommerce_backend.model.product.Product;
 import com.github.liuchangming88.ecommerce_backend.model.order.repository.LocalOrderRepository;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.InventoryRepository;
+import com.github.liuchangming88.ecommerce_backend.configuration.DataSourceConfig;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -23,11 +27,15 @@ public class OrderRestockService {
     private static final Logger log = LoggerFactory.getLogger(OrderRestockService.class);
 
     private final LocalOrderRepository localOrderRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrderViewProjector orderViewProjector;
+    private final Outbox outbox;
 
     /**
      * Process one batch of stale PENDING orders. Returns how many orders were restocked.
      */
-    @Transactional
+    // Jobs pool: a long sweep must not take connections away from checkout
+    @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER)
     public int failAndRestockExpired(OffsetDateTime now, int batchSize) {
         List<Long> ids = localOrderRepository.findExpiredPendingOrderIds(now, org.springframework.data.domain.PageRequest.of(0, batchSize));
         if (ids.isEmpty()) return 0;
@@ -36,23 +44,7 @@ public class OrderRestockService {
         for (Long id : ids) {
             LocalOrder order = localOrderRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Order " + id + " vanished during expiry pass"));
-
-            // Double‑check (race safety) with current state
-            if (order.getStatus() != OrderStatus.PENDING ||
-                    order.isRestocked() ||
-                    order.getExpiresAt() == null ||
-                    !order.getExpiresAt().isBefore(now)) {
-                continue;
-            }
-
-            // OPTIONAL: guard against active payment (uncomment if you implement Strategy 3)
-            // if (paymentRepository.existsByLocalOrderIdAndStatusAndExpiresAtAfter(order.getId(), PaymentStatus.INITIATED, now)) {
-            //     continue;
-            // }
-
-            order.setStatus(OrderStatus.FAILED);
-            restock(order);
-            processed++;
+            if (failIfExpired(order, now)) processed++;
         }
 
         if (processed > 0) {
@@ -61,12 +53,68 @@ public class OrderRestockService {
         return processed;
     }
 
+    /**
+     * Fails and restocks the given orders (taken from OrderExpiryQueue) that are still PENDING and past expiresAt.
+     * Orders that were paid, already restocked or deleted in the meantime are skipped. Returns how many were restocked.
+     */
+    @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER)
+    public int failAndRestock(Collection<Long> orderIds, OffsetDateTime now) {
+        if (orderIds.isEmpty()) return 0;
+
+        int processed = 0;
+        for (LocalOrder order : localOrderRepository.findAllById(orderIds)) {
+            if (failIfExpired(order, now)) processed++;
+        }
+        return processed;
+    }
+
+    private boolean failIfExpired(LocalOrder order, OffsetDateTime now) {
+        // Double‑check (race safety) with current state
+        if (order.getStatus() != OrderStatus.PENDING ||
+                order.isRestocked() ||
+                order.getExpiresAt() == null ||
+                !order.getExpiresAt().isBefore(now)) {
+            return false;
+        }
+
+        // OPTIONAL: guard against active payment (uncomment if you implement Strategy 3)
+        // if (paymentRepository.existsByLocalOrderIdAndStatusAndExpiresAtAfter(order.getId(), PaymentStatus.INITIATED, now)) {
+        //     return false;
+        // }
+
+        // The user may have cancelled it since it was loaded
+        if (!releaseIfPending(order, OrderStatus.FAILED, now)) {
+            return false;
+        }
+        outbox.append(new OrderExpired(order.getId(), order.getLocalUser().getId(), now, productIds(order)));
+        return true;
+    }
+
+    /**
+     * Moves a PENDING order to status (FAILED on expiry, CANCELLED by the user) and puts its stock back, once: the
+     * status change is a compare-and-set, so when an expiry and a cancellation race only one of them restocks.
+     * Returns false, changing nothing, if the order was no longer PENDING.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean releaseIfPending(LocalOrder order, OrderStatus status, OffsetDateTime now) {
+        if (order.isRestocked() || localOrderRepository.releaseIfPending(order.getId(), status, now) == 0) {
+            return false;
+        }
+        order.setStatus(status);
+        restock(order);
+        orderViewProjector.statusChanged(order);
+        return true;
+    }
+
+    // Products whose stock an order holds, for the StockChange events
+    static List<Long> productIds(LocalOrder order) {
+        return order.getItems().stream().map(line -> line.getProduct().getId()).toList();
+    }
+
     private void restock(LocalOrder order) {
         if (order.isRestocked()) return; // idempotent
         for (LocalOrderItems line : order.getItems()) {
-            Product p = line.getProduct();
-            Inventory inventory = p.getInventory();
-            inventory.setQuantity(inventory.getQuantity() + line.getQuantity());
+            inventoryRepository.incrementQuantity(line.getProduct().getId(), line.getQuantity());
         }
         order.setRestocked(true);
     }
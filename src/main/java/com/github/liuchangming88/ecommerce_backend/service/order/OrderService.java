@@ -1,75 +1,132 @@
 package com.github.liuchangming88.ecommerce_backend.service.order;
 
 import com.github.liuchangming88.ecommerce_backend.api.model.*;
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderHoldProperties;
+import com.github.liuchangming88.ecommerce_backend.events.OrderCancelled;
+import com.github.liuchangming88.ecommerce_backend.events.OrderCreated;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
 import com.github.liuchangming88.ecommerce_backend.exception.AuthorizationException;
 import com.github.liuchangming88.ecommerce_backend.exception.InsufficientStockException;
+import com.github.liuchangming88.ecommerce_backend.exception.OrderNotPendingException;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrderItems;
 import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.ProductStock;
 import com.github.liuchangming88.ecommerce_backend.model.user.Address;
 import com.github.liuchangming88.ecommerce_backend.model.user.repository.AddressRepository;
 import com.github.liuchangming88.ecommerce_backend.model.product.repository.InventoryRepository;
 import com.github.liuchangming88.ecommerce_backend.model.order.repository.LocalOrderRepository;
+import com.github.liuchangming88.ecommerce_backend.model.order.repository.OrderViewRepository;
 import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.payment.PaymentRepository;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductService;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
-    private final Integer orderExpiryTimeInMinutes = 15;
+    private static final String CURRENCY = "VND";
 
     private final InventoryRepository inventoryRepository;
     LocalOrderRepository localOrderRepository;
     ProductRepository productRepository;
     AddressRepository addressRepository;
     ModelMapper modelMapper;
+    private final OrderExpiryQueue orderExpiryQueue;
+    private final OrderViewRepository orderViewRepository;
+    private final OrderViewProjector orderViewProjector;
+    private final Outbox outbox;
+    private final ProductService productService;
+    private final OrderRestockService orderRestockService;
+    private final PaymentRepository paymentRepository;
+    private final OrderHoldProperties holdProperties;
 
-    public OrderService(LocalOrderRepository localOrderRepository, ProductRepository productRepository, AddressRepository addressRepository, ModelMapper modelMapper, InventoryRepository inventoryRepository) {
+    // orders.create.phase{phase=...} breaks createOrder down; orders.create{outcome=...} is the whole call
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> phaseTimers = new HashMap<>();
+    private final Map<String, Timer> outcomeTimers = new HashMap<>();
+    private final Counter decrementConflicts;
+
+    public OrderService(LocalOrderRepository localOrderRepository, ProductRepository productRepository, AddressRepository addressRepository, ModelMapper modelMapper, InventoryRepository inventoryRepository, OrderExpiryQueue orderExpiryQueue, OrderViewRepository orderViewRepository, OrderViewProjector orderViewProjector, Outbox outbox, ProductService productService, OrderRestockService orderRestockService, PaymentRepository paymentRepository, OrderHoldProperties holdProperties, MeterRegistry meterRegistry) {
         this.localOrderRepository = localOrderRepository;
         this.productRepository = productRepository;
         this.addressRepository = addressRepository;
         this.modelMapper = modelMapper;
         this.inventoryRepository = inventoryRepository;
+        this.orderExpiryQueue = orderExpiryQueue;
+        this.orderViewRepository = orderViewRepository;
+        this.orderViewProjector = orderViewProjector;
+        this.outbox = outbox;
+        this.productService = productService;
+        this.orderRestockService = orderRestockService;
+        this.paymentRepository = paymentRepository;
+        this.holdProperties = holdProperties;
+        this.meterRegistry = meterRegistry;
+        for (String phase : List.of("validate", "load_products", "reserve_inventory", "price", "persist", "map")) {
+            phaseTimers.put(phase, Timer.builder("orders.create.phase")
+                    .description("Time spent in each phase of order creation")
+                    .tag("phase", phase)
+                    .register(meterRegistry));
+        }
+        for (String outcome : List.of("created", "insufficient_stock", "rejected", "error")) {
+            outcomeTimers.put(outcome, Timer.builder("orders.create")
+                    .description("Order creation, excluding the transaction commit")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        this.decrementConflicts = Counter.builder("inventory.decrement.conflicts")
+                .description("Conditional stock decrements that found too little stock")
+                .register(meterRegistry);
     }
 
+    // Served from order_view alone (OrderViewProjector); no lines, products or addresses to load per order
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getAllOrders(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-
-        Page<LocalOrder> localOrdersPage = localOrderRepository.findByLocalUser_IdAndStatus(userId, OrderStatus.PENDING, pageable);
-
-        return localOrdersPage.map(order -> {
-            // Map items
-            List<OrderItemsResponse> orderItemsResponseList = order.getItems().stream()
-                    .map(q -> modelMapper.map(q, OrderItemsResponse.class))
-                    .toList();
-
-            // Map address
-            AddressResponse addressResponse = modelMapper.map(order.getAddress(), AddressResponse.class);
-
-            // Map order itself
-            OrderResponse orderResponse = modelMapper.map(order, OrderResponse.class);
-            orderResponse.setItems(orderItemsResponseList);
-            orderResponse.setAddressResponse(addressResponse);
-
-            return orderResponse;
-        });
+        return orderViewRepository.findByLocalUserIdAndStatus(userId, OrderStatus.PENDING, pageable)
+                .map(orderViewProjector::toResponse);
     }
 
     @Transactional
     public OrderResponse createOrder(LocalUser user, CreateOrderRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            OrderResponse response = doCreateOrder(user, request);
+            outcome = "created";
+            return response;
+        } catch (InsufficientStockException e) {
+            outcome = "insufficient_stock";
+            throw e;
+        } catch (IllegalArgumentException | ResourceNotFoundException | EntityNotFoundException | AuthorizationException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(outcomeTimers.get(outcome));
+        }
+    }
+
+    private OrderResponse doCreateOrder(LocalUser user, CreateOrderRequest request) {
+        long phaseStart = System.nanoTime();
         if (request == null) {
             throw new IllegalArgumentException("Request cannot be null");
         }
@@ -86,6 +143,7 @@ public class OrderService {
 
         // 2. Validate and collect product IDs (enforce uniqueness)
         validateItems(request.getItems());
+        phaseStart = lap("validate", phaseStart);
         Set<Long> productIds = request.getItems().stream()
                 .map(ItemRequest::getProductId)
                 .collect(Collectors.toSet());
@@ -101,6 +159,7 @@ public class OrderService {
                 throw new ResourceNotFoundException("Product " + ir.getProductId());
             }
         }
+        phaseStart = lap("load_products", phaseStart);
 
         // 4. Inventory reservation (decrement) section
         for (ItemRequest ir : request.getItems()) {
@@ -115,44 +174,65 @@ public class OrderService {
         for (ItemRequest ir : ordered) {
             boolean ok = inventoryRepository.decrementIfAvailable(ir.getProductId(), ir.getQuantity());
             if (!ok) {
+                decrementConflicts.increment();
                 throw new InsufficientStockException("Product with id " + ir.getProductId() + " doesn't have enough stock. " +
                         "Current stock: " + productMap.get(ir.getProductId()).getInventory().getQuantity() +
-                        ". Quantity you wanted to buy: " + ir.getQuantity());
+                        ". Quantity you wanted to buy: " + ir.getQuantity(), ir.getProductId());
             }
         }
+        phaseStart = lap("reserve_inventory", phaseStart);
 
         // 5. Build LocalOrder
         LocalOrder order = new LocalOrder();
         order.setLocalUser(user);
         order.setAddress(address);
         order.setStatus(OrderStatus.PENDING);
-        order.setCurrency("VND");
+        order.setCurrency(CURRENCY);
         order.setRestocked(false);
         order.setCreatedAt(OffsetDateTime.now());
-        order.setExpiresAt(OffsetDateTime.now().plusMinutes(orderExpiryTimeInMinutes));
+        order.setExpiresAt(order.getCreatedAt().plus(holdProperties.holdFor(
+                productMap.values().stream().map(Product::getProductClass).toList())));
 
-        BigDecimal total = BigDecimal.ZERO;
+        addLines(order, request.getItems(), productMap);
+        phaseStart = lap("price", phaseStart);
 
-        for (ItemRequest ir : request.getItems()) {
-            Product product = productMap.get(ir.getProductId());
+        // 6. Persist
+        LocalOrder saved = localOrderRepository.save(order);
+        orderViewProjector.orderCreated(saved);
+        outbox.append(new OrderCreated(saved.getId(), user.getId(), saved.getTotalAmount(), saved.getCurrency(), saved.getCreatedAt(),
+                List.copyOf(productMap.keySet())));
+        scheduleExpiry(saved);
+        phaseStart = lap("persist", phaseStart);
 
-            BigDecimal unitPrice = extractPrice(product);
-            // Snapshot the price
-            LocalOrderItems line = new LocalOrderItems();
-            line.setProduct(product);
-            line.setQuantity(ir.getQuantity());
-            line.setUnitPrice(unitPrice);
+        OrderResponse response = toResponse(saved);
+        lap("map", phaseStart);
 
-            // maintain bi-directional integrity if needed
-            order.addItem(line);
+        return response;
+    }
 
-            total = total.add(unitPrice.multiply(BigDecimal.valueOf(ir.getQuantity())));
+    /**
+     * Cancels the user's PENDING order now rather than letting it expire: its stock goes back right away and its
+     * unfinished (INITIATED) payments are expired, so they can't be completed afterwards. The status change is a
+     * compare-and-set shared with the expiry job (OrderRestockService.releaseIfPending), so the stock is released once.
+     */
+    @Transactional
+    public OrderResponse cancelOrder(LocalUser user, Long orderId) {
+        LocalOrder order = localOrderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order " + orderId));
+        if (!order.getLocalUser().getId().equals(user.getId())) {
+            throw new AuthorizationException("That order doesn't belong to you!");
         }
 
-        // 6. Persist
-        order.setTotalAmount(total.setScale(2));
-        LocalOrder saved = localOrderRepository.save(order);
+        OffsetDateTime now = OffsetDateTime.now();
+        if (!orderRestockService.releaseIfPending(order, OrderStatus.CANCELLED, now)) {
+            throw new OrderNotPendingException("Only PENDING orders can be cancelled; order " + orderId + " is no longer PENDING");
+        }
+        paymentRepository.expireInitiatedForOrder(orderId, now);
+        outbox.append(new OrderCancelled(orderId, user.getId(), now, OrderRestockService.productIds(order)));
+        return toResponse(order);
+    }
 
+    private OrderResponse toResponse(LocalOrder saved) {
         // 7. Map to OrderResponse using ModelMapper for base fields
         OrderResponse response = modelMapper.map(saved, OrderResponse.class);
 
@@ -175,10 +255,70 @@ public class OrderService {
             lineDtos.add(l);
         }
         response.setItems(lineDtos);
-
         return response;
     }
 
+    /**
+     * Prices the items as createOrder would and reports per line whether there is stock for them, without reserving
+     * or locking anything. Products (names, prices) come from the product cache, misses in one query; stock from one
+     * batched inventory read, since cached stock can be far behind.
+     */
+    @Transactional(readOnly = true)
+    public OrderQuoteResponse quote(OrderQuoteRequest request) {
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("No items provided");
+        }
+        validateItems(request.getItems());
+        List<Long> productIds = request.getItems().stream().map(ItemRequest::getProductId).toList();
+
+        Map<Long, ProductResponse> products = productService.getProducts(productIds).stream()
+                .collect(Collectors.toMap(ProductResponse::getId, p -> p));
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product " + productId);
+            }
+        }
+        Map<Long, Long> stock = inventoryRepository.findStockByProductIds(productIds).stream()
+                .collect(Collectors.toMap(ProductStock::getProductId, ProductStock::getQuantity));
+
+        List<OrderQuoteLineResponse> lines = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        boolean allAvailable = true;
+        for (ItemRequest ir : request.getItems()) {
+            ProductResponse product = products.get(ir.getProductId());
+            BigDecimal unitPrice = unitPrice(product.getId(), product.getPrice());
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(ir.getQuantity()));
+            long inStock = stock.getOrDefault(ir.getProductId(), 0L);
+            boolean available = inStock >= ir.getQuantity();
+            lines.add(new OrderQuoteLineResponse(product.getId(), product.getName(), ir.getQuantity(), unitPrice, lineTotal, inStock, available));
+            total = total.add(lineTotal);
+            allAvailable &= available;
+        }
+        return new OrderQuoteResponse(lines, total.setScale(2), CURRENCY, allAvailable);
+    }
+
+    // Only once committed: a rolled-back order must not reach the expiry job
+    private void scheduleExpiry(LocalOrder order) {
+        Long orderId = order.getId();
+        OffsetDateTime expiresAt = order.getExpiresAt();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderExpiryQueue.schedule(orderId, expiresAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderExpiryQueue.schedule(orderId, expiresAt);
+            }
+        });
+    }
+
+    private long lap(String phase, long start) {
+        long now = System.nanoTime();
+        phaseTimers.get(phase).record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
     private void validateItems(List<ItemRequest> items) {
         Set<Long> seen = new HashSet<>();
         for (ItemRequest ir : items) {
@@ -194,10 +334,33 @@ public class OrderService {
         }
     }
 
-    private BigDecimal extractPrice(Product product) {
-        BigDecimal price = product.getPrice();
+    // Snapshots unit prices into order lines and sets the order total (package-private for the pricing benchmark)
+    static void addLines(LocalOrder order, List<ItemRequest> items, Map<Long, Product> productMap) {
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (ItemRequest ir : items) {
+            Product product = productMap.get(ir.getProductId());
+
+            BigDecimal unitPrice = unitPrice(product.getId(), product.getPrice());
+            // Snapshot the price
+            LocalOrderItems line = new LocalOrderItems();
+            line.setProduct(product);
+            line.setQuantity(ir.getQuantity());
+            line.setUnitPrice(unitPrice);
+
+            // maintain bi-directional integrity if needed
+            order.addItem(line);
+
+            total = total.add(unitPrice.multiply(BigDecimal.valueOf(ir.getQuantity())));
+        }
+
+        order.setTotalAmount(total.setScale(2));
+    }
+
+    // Shared by createOrder and quote, so a quote shows exactly what the order will charge
+    private static BigDecimal unitPrice(Long productId, BigDecimal price) {
         if (price == null) {
-            throw new IllegalStateException("Price not set for product " + product.getId());
+            throw new IllegalStateException("Price not set for product " + productId);
         }
         // Normalize to 2 decimals (assuming VND – normally 0 decimals, but you snapshot as scale 2)
         return price.setScale(2);
@@ -0,0 +1,11 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+/**
+ * Carries committed order status changes to OrderStatusStreams: on this instance only (InMemoryOrderStatusBroadcaster)
+ * or on all instances (RedisOrderStatusBroadcaster), selected by order.status-stream.broadcaster.
+ * Best effort: a change that doesn't get through is still in GET /orders.
+ */
+public interface OrderStatusBroadcaster {
+
+    void publish(OrderStatusUpdate update);
+}
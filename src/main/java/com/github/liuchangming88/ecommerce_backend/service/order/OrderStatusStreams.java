@@ -0,0 +1,277 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderStatusStreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The open order status streams (GET /orders/events) of this instance, per user, and the events recently sent to
+ * each user so a client reconnecting with Last-Event-ID gets what it missed.
+ *
+ * Streams are async requests: no request thread waits on them. Bookkeeping (which streams are open, the kept events,
+ * heartbeats) runs on one thread, which only queues events; the transaction that publishes a change only hands it
+ * over. Writes, which block while a client isn't reading, run on a small pool of sender threads: each stream writes
+ * its queue in order, one event at a time, so an event is never sent to a stream twice or before an older one, and
+ * a stalled client holds one sender, not the others' streams. A stream whose write exceeds send-timeout, or that
+ * falls more than max-pending-events behind, is closed; its client reconnects with Last-Event-ID.
+ * Open streams are reported in orders.status.streams, closed laggards in orders.status.streams.dropped{reason}.
+ */
+@Component
+public class OrderStatusStreams implements DisposableBean {
+
+    static final String EVENT_NAME = "order-status";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusStreams.class);
+
+    private final OrderStatusStreamProperties props;
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("order-status-stream-"));
+    // At most one task per stream is queued or running, so the queue is bounded by the number of open streams
+    private final ExecutorService senders;
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final Counter droppedStalled;
+    private final Counter droppedBehind;
+
+    // Only touched on the executor thread
+    private final Map<Long, Deque<Stream>> streams = new HashMap<>();
+    private final Map<Long, Deque<OrderStatusUpdate>> recent = new HashMap<>();
+
+    public OrderStatusStreams(OrderStatusStreamProperties props, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.senders = new ThreadPoolExecutor(props.getSendThreads(), props.getSendThreads(), 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("order-status-send-"));
+        Gauge.builder("orders.status.streams", openStreams, AtomicInteger::get)
+                .description("Open order status event streams on this instance")
+                .register(meterRegistry);
+        this.droppedStalled = dropped(meterRegistry, "stalled");
+        this.droppedBehind = dropped(meterRegistry, "behind");
+        long heartbeatMillis = props.getHeartbeatInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        // Stalled writes are looked for more often than heartbeats go out
+        long watchMillis = Math.max(100, Math.min(heartbeatMillis, props.getSendTimeout().toMillis()) / 2);
+        executor.scheduleWithFixedDelay(this::closeStalled, watchMillis, watchMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the user's order status changes. With lastEventId, the kept events after it are sent first.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        Stream stream = new Stream(userId, newEmitter(props.getTimeout().toMillis()));
+        // Completed by the container (client gone, timeout): forget it without touching the emitter again
+        Runnable discard = () -> stream.close(null, false);
+        stream.emitter.onCompletion(discard);
+        stream.emitter.onTimeout(discard);
+        stream.emitter.onError(e -> discard.run());
+        executor.execute(() -> open(stream, lastEventId));
+        return stream.emitter;
+    }
+
+    /**
+     * Sends the change to the user's streams on this instance and keeps it for resuming clients.
+     */
+    public void deliver(OrderStatusUpdate update) {
+        executor.execute(() -> {
+            Deque<OrderStatusUpdate> kept = recent.computeIfAbsent(update.userId(), k -> new ArrayDeque<>());
+            kept.addLast(update);
+            while (kept.size() > props.getReplaySize()) kept.removeFirst();
+
+            for (Stream stream : streams.getOrDefault(update.userId(), new ArrayDeque<>())) {
+                stream.enqueue(event(update));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.execute(() -> streams.values().forEach(userStreams ->
+                List.copyOf(userStreams).forEach(stream -> stream.close(null, true))));
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+        senders.shutdownNow();
+    }
+
+    // Seam for tests, which need an emitter whose writes can be made to block
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void open(Stream stream, Long lastEventId) {
+        if (stream.isClosed()) return;
+        Deque<Stream> userStreams = streams.computeIfAbsent(stream.userId, k -> new ArrayDeque<>());
+        if (userStreams.size() >= props.getMaxStreamsPerUser()) {
+            userStreams.peekFirst().close(null, true);
+        }
+        userStreams.addLast(stream);
+        openStreams.incrementAndGet();
+
+        // Sent right away so the response headers go out and proxies see a live stream
+        stream.enqueue(SseEmitter.event().comment("connected"));
+        if (lastEventId == null) return;
+        for (OrderStatusUpdate update : recent.getOrDefault(stream.userId, new ArrayDeque<>())) {
+            if (update.id() > lastEventId) stream.enqueue(event(update));
+        }
+    }
+
+    private void remove(Stream stream) {
+        Deque<Stream> userStreams = streams.get(stream.userId);
+        if (userStreams == null || !userStreams.remove(stream)) return;
+        openStreams.decrementAndGet();
+        if (userStreams.isEmpty()) streams.remove(stream.userId);
+    }
+
+    private void heartbeat() {
+        try {
+            OffsetDateTime keepFrom = OffsetDateTime.now().minus(props.getReplayWindow());
+            recent.values().forEach(kept -> kept.removeIf(update -> update.changedAt().isBefore(keepFrom)));
+            recent.values().removeIf(Deque::isEmpty);
+
+            streams.values().forEach(userStreams ->
+                    userStreams.forEach(stream -> stream.enqueue(SseEmitter.event().comment("heartbeat"))));
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule
+            log.warn("Order status stream heartbeat failed", e);
+        }
+    }
+
+    private void closeStalled() {
+        try {
+            long now = System.nanoTime();
+            long timeout = props.getSendTimeout().toNanos();
+            for (Deque<Stream> userStreams : List.copyOf(streams.values())) {
+                for (Stream stream : List.copyOf(userStreams)) {
+                    if (stream.writingLongerThan(timeout, now)) {
+                        droppedStalled.increment();
+                        stream.close(new TimeoutException("Client stopped reading the order status stream"), true);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order status stream watchdog failed", e);
+        }
+    }
+
+    private static Counter dropped(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("orders.status.streams.dropped")
+                .description("Order status streams closed because their client stopped keeping up")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static SseEmitter.SseEventBuilder event(OrderStatusUpdate update) {
+        return SseEmitter.event()
+                .id(Long.toString(update.id()))
+                .name(EVENT_NAME)
+                .data(update.toEvent(), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * One open stream and the events waiting to be written to it.
+     */
+    private final class Stream {
+        final Long userId;
+        final SseEmitter emitter;
+
+        // Guarded by this
+        private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean writing;
+        private boolean closed;
+
+        // System.nanoTime() when the write in progress started, 0 between writes
+        private volatile long writeStartedAt;
+
+        Stream(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            boolean behind;
+            boolean startWriter = false;
+            synchronized (this) {
+                if (closed) return;
+                behind = pending.size() >= props.getMaxPendingEvents();
+                if (!behind) {
+                    pending.addLast(event);
+                    startWriter = !writing;
+                    writing = true;
+                }
+            }
+            if (behind) {
+                droppedBehind.increment();
+                close(new IOException("Client fell behind on the order status stream"), true);
+            } else if (startWriter) {
+                try {
+                    senders.execute(this::writePending);
+                } catch (RejectedExecutionException e) {
+                    close(e, true);
+                }
+            }
+        }
+
+        boolean writingLongerThan(long timeoutNanos, long now) {
+            long started = writeStartedAt;
+            return started != 0 && now - started > timeoutNanos;
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Idempotent. completeEmitter is false when the container already completed it.
+         */
+        void close(Throwable error, boolean completeEmitter) {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                pending.clear();
+            }
+            try {
+                executor.execute(() -> remove(this));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+            if (!completeEmitter) return;
+            // Doesn't wait for a write in progress: completion doesn't take the emitter's write lock
+            if (error == null) emitter.complete();
+            else emitter.completeWithError(error);
+        }
+
+        // Runs on a sender thread until the queue is empty
+        private void writePending() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : pending.pollFirst();
+                    if (event == null) {
+                        writing = false;
+                        return;
+                    }
+                }
+                writeStartedAt = System.nanoTime();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // A failed write means the client is gone: the stream is dropped
+                    close(e, true);
+                } finally {
+                    writeStartedAt = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderStatusEvent;
+import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A committed order status change on its way to the user's streams. The id becomes the SSE event id: increasing on
+ * each instance and close to epoch microseconds, so ids from different instances still sort roughly by time.
+ */
+public record OrderStatusUpdate(long id, Long userId, Long orderId, OrderStatus status, OffsetDateTime changedAt) {
+
+    private static final AtomicLong LAST_ID = new AtomicLong();
+
+    public static OrderStatusUpdate of(LocalOrder order) {
+        long id = LAST_ID.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis() * 1000));
+        return new OrderStatusUpdate(id, order.getLocalUser().getId(), order.getId(), order.getStatus(), OffsetDateTime.now());
+    }
+
+    public OrderStatusEvent toEvent() {
+        return new OrderStatusEvent(orderId, status.name(), changedAt);
+    }
+}
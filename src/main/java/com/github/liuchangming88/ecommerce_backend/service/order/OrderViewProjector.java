@@ -0,0 +1,111 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.AddressResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderItemsResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderResponse;
+import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
+import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrderItems;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderView;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderViewBase;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderViewItem;
+import com.github.liuchangming88.ecommerce_backend.model.order.repository.OrderViewRepository;
+import com.github.liuchangming88.ecommerce_backend.model.user.Address;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Keeps order_view (OrderView) in step with local_order. Every change to an order goes through here, in the
+ * transaction that makes the change (MANDATORY), so the read model commits or rolls back with the order itself.
+ * Order reads (OrderService.getAllOrders, OrderHistoryService) then only read order_view, via toResponse.
+ * Status changes are also pushed to the user's open status streams (OrderStatusBroadcaster), once committed.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderViewProjector {
+
+    private final OrderViewRepository orderViewRepository;
+    private final OrderStatusBroadcaster orderStatusBroadcaster;
+
+    /**
+     * Writes the view row of a new order. The order's lines, products and address must be loaded.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(LocalOrder order) {
+        orderViewRepository.save(project(order));
+    }
+
+    /**
+     * Copies the order's current status into its view row: one UPDATE, without loading the row. An order that has no
+     * row (placed before order_view was backfilled) gets a full one.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(LocalOrder order) {
+        int updated = orderViewRepository.updateStatus(order.getId(), order.getStatus(), OffsetDateTime.now());
+        if (updated == 0) {
+            orderViewRepository.save(project(order));
+        }
+        broadcastAfterCommit(OrderStatusUpdate.of(order));
+    }
+
+    public OrderResponse toResponse(OrderViewBase view) {
+        AddressResponse address = null;
+        if (view.getAddressId() != null) {
+            address = new AddressResponse();
+            address.setId(view.getAddressId());
+            address.setAddressLine1(view.getAddressLine1());
+            address.setAddressLine2(view.getAddressLine2());
+            address.setCity(view.getCity());
+            address.setCountry(view.getCountry());
+        }
+        return new OrderResponse(view.getOrderId(), view.getStatus().name(), view.getTotalAmount(), view.getCurrency(),
+                view.getCreatedAt(), address,
+                view.getItems().stream()
+                        .map(item -> new OrderItemsResponse(item.getId(), item.getProductId(), item.getProductName(),
+                                item.getQuantity(), item.getUnitPrice(), item.getLineTotal()))
+                        .toList());
+    }
+
+    // A rolled-back change must not reach the client
+    private void broadcastAfterCommit(OrderStatusUpdate update) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderStatusBroadcaster.publish(update);
+            }
+        });
+    }
+
+    private OrderView project(LocalOrder order) {
+        OrderView view = new OrderView();
+        view.setOrderId(order.getId());
+        view.setLocalUserId(order.getLocalUser().getId());
+        view.setStatus(order.getStatus());
+        view.setTotalAmount(order.getTotalAmount());
+        view.setCurrency(order.getCurrency());
+        view.setCreatedAt(order.getCreatedAt());
+        view.setExpiresAt(order.getExpiresAt());
+        view.setUpdatedAt(OffsetDateTime.now());
+
+        Address address = order.getAddress();
+        if (address != null) {
+            view.setAddressId(address.getId());
+            view.setAddressLine1(address.getAddressLine1());
+            view.setAddressLine2(address.getAddressLine2());
+            view.setCity(address.getCity());
+            view.setCountry(address.getCountry());
+        }
+        for (LocalOrderItems line : order.getItems()) {
+            view.getItems().add(new OrderViewItem(line.getId(), line.getProduct().getId(), line.getProduct().getName(),
+                    line.getQuantity(), line.getUnitPrice(),
+                    line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity()))));
+        }
+        return view;
+    }
+}
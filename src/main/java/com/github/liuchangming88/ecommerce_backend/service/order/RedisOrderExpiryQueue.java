@@ -0,0 +1,75 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderCleanupProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expiry queue in a Redis sorted set (member = order id, score = expiresAt in epoch millis), shared by all instances
+ * and kept across restarts. Due orders are read and removed by one script, so two instances never both claim one.
+ */
+@Component
+@ConditionalOnProperty(name = "order.cleanup.expiry-queue", havingValue = "redis")
+public class RedisOrderExpiryQueue implements OrderExpiryQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisOrderExpiryQueue.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_DUE = new DefaultRedisScript<>("""
+            local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #ids > 0 then
+                redis.call('ZREM', KEYS[1], unpack(ids))
+            end
+            return ids
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+
+    public RedisOrderExpiryQueue(StringRedisTemplate redisTemplate, OrderCleanupProperties props) {
+        this.redisTemplate = redisTemplate;
+        this.key = props.getExpiryQueueKey();
+    }
+
+    @Override
+    public void schedule(Long orderId, OffsetDateTime expiresAt) {
+        try {
+            redisTemplate.opsForZSet().add(key, orderId.toString(), expiresAt.toInstant().toEpochMilli());
+        } catch (RuntimeException e) {
+            log.warn("Could not queue expiry of order {}, leaving it to the database sweep: {}", orderId, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Long> pollDue(OffsetDateTime now, int max) {
+        // Scores are whole milliseconds; "before now" is at most now - 1
+        String maxScore = Long.toString(now.toInstant().toEpochMilli() - 1);
+        List<?> claimed;
+        try {
+            claimed = redisTemplate.execute(CLAIM_DUE, List.of(key), maxScore, Integer.toString(max));
+        } catch (RuntimeException e) {
+            log.warn("Could not read the order expiry queue: {}", e.getMessage());
+            return List.of();
+        }
+        List<Long> due = new ArrayList<>();
+        if (claimed != null) {
+            claimed.forEach(id -> due.add(Long.valueOf(id.toString())));
+        }
+        return due;
+    }
+
+    @Override
+    public long size() {
+        Long size = redisTemplate.opsForZSet().zCard(key);
+        return size == null ? 0 : size;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderStatusStreamProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Publishes changes on a Redis pub/sub channel that every instance subscribes to, the publishing one included, so a
+ * change reaches the user's streams wherever they are open. Pub/sub doesn't keep messages: an instance that is
+ * disconnected from Redis misses what is published meanwhile.
+ */
+@Component
+@ConditionalOnProperty(name = "order.status-stream.broadcaster", havingValue = "redis")
+public class RedisOrderStatusBroadcaster implements OrderStatusBroadcaster, MessageListener, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisOrderStatusBroadcaster.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final OrderStatusStreams orderStatusStreams;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+
+    public RedisOrderStatusBroadcaster(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory,
+                                       OrderStatusStreams orderStatusStreams, ObjectMapper objectMapper,
+                                       OrderStatusStreamProperties props) {
+        this.redisTemplate = redisTemplate;
+        this.orderStatusStreams = orderStatusStreams;
+        this.objectMapper = objectMapper;
+        this.channel = props.getChannel();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+    }
+
+    @Override
+    public void publish(OrderStatusUpdate update) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(update));
+        } catch (Exception e) {
+            log.warn("Could not publish status {} of order {}: {}", update.status(), update.orderId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            orderStatusStreams.deliver(objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), OrderStatusUpdate.class));
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable order status message on {}: {}", channel, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.liuchangming88.ecommerce_backend.service.payment;
 
 import com.github.liuchangming88.ecommerce_backend.payment.PaymentRepository;
+import com.github.liuchangming88.ecommerce_backend.configuration.DataSourceConfig;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +24,8 @@ public class PaymentMaintenanceService {
      *
      * @return number of rows transitioned to EXPIRED
      */
-    @Transactional
+    // Jobs pool: a long sweep must not take connections away from checkout
+    @Transactional(transactionManager = DataSourceConfig.JOBS_TRANSACTION_MANAGER)
     public int expireInitiatedPayments() {
         OffsetDateTime now = OffsetDateTime.now();
         int changed = paymentRepository.expireInitiatedBefore(now);
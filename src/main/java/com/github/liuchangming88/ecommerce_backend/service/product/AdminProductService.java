@@ -2,24 +2,40 @@ package com.github.liuchangming88.ecommerce_backend.service.product;
 
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductRequest;
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
+import com.github.liuchangming88.ecommerce_backend.events.ProductChanged;
 import com.github.liuchangming88.ecommerce_backend.exception.DuplicateResourceException;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
 import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AdminProductService {
     private final ProductRepository productRepository;
     private final ModelMapper modelMapper;
+    private final Outbox outbox;
+    private final CatalogRevision catalogRevision;
 
-    public AdminProductService(ProductRepository productRepository, ModelMapper modelMapper) {
+    public AdminProductService(ProductRepository productRepository, ModelMapper modelMapper, Outbox outbox,
+                               CatalogRevision catalogRevision) {
         this.productRepository = productRepository;
         this.modelMapper = modelMapper;
+        this.outbox = outbox;
+        this.catalogRevision = catalogRevision;
     }
 
+    // Any catalog change invalidates the cached pages and rendered responses; single products are evicted by ID.
+    // ProductCacheEvictionHandler evicts again once the ProductChanged event is relayed, after commit, in case a
+    // concurrent read cached the old row between this eviction and the commit. The catalog revision is bumped in the
+    // same transaction, so the pages' ETag changes with the commit.
+    @CacheEvict(cacheNames = {"products", "productResponses", "productPageResponses"}, allEntries = true)
+    @Transactional
     public ProductResponse createProduct(ProductRequest productRequest) {
         // Check if a product with the same name already exists
         if (productRepository.existsByName(productRequest.getName())) {
@@ -37,12 +53,19 @@ public class AdminProductService {
 
         // Save the product (cascades to inventory)
         Product savedProduct = productRepository.save(product);
+        outbox.append(new ProductChanged(savedProduct.getId(), ProductChanged.Change.CREATED));
+        catalogRevision.bump();
 
         // Map the saved product to ProductResponse DTO
         return modelMapper.map(savedProduct, ProductResponse.class);
     }
 
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "product", key = "#productId"),
+            @CacheEvict(cacheNames = {"products", "productResponses", "productPageResponses"}, allEntries = true)
+    })
+    @Transactional
     public ProductResponse updateProduct(Long productId, ProductRequest productRequest) {
         // Retrieve the existing product
         Product existingProduct = productRepository.findById(productId)
@@ -59,6 +82,7 @@ public class AdminProductService {
         existingProduct.setShortDescription(productRequest.getShortDescription());
         existingProduct.setLongDescription(productRequest.getLongDescription());
         existingProduct.setPrice(productRequest.getPrice());
+        existingProduct.setProductClass(productRequest.getProductClass());
 
         // Update inventory quantity
         Inventory inventory = existingProduct.getInventory();
@@ -71,12 +95,19 @@ public class AdminProductService {
 
         // Save the updated product
         Product updatedProduct = productRepository.save(existingProduct);
+        outbox.append(new ProductChanged(productId, ProductChanged.Change.UPDATED));
+        catalogRevision.bump();
 
         // Map the updated product to ProductResponse DTO
         return modelMapper.map(updatedProduct, ProductResponse.class);
     }
 
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "product", key = "#productId"),
+            @CacheEvict(cacheNames = {"products", "productResponses", "productPageResponses"}, allEntries = true)
+    })
+    @Transactional
     public void deleteProduct(Long productId) {
         // Retrieve the existing product
         Product product = productRepository.findById(productId)
@@ -84,9 +115,16 @@ public class AdminProductService {
 
         // Delete the product
         productRepository.delete(product);
+        outbox.append(new ProductChanged(productId, ProductChanged.Change.DELETED));
+        catalogRevision.bump();
     }
 
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "product", key = "#productId"),
+            @CacheEvict(cacheNames = {"products", "productResponses", "productPageResponses"}, allEntries = true)
+    })
+    @Transactional
     public ProductResponse updateProductQuantity(Long productId, Long quantity) {
         // Retrieve the existing product
         Product product = productRepository.findById(productId)
@@ -105,6 +143,8 @@ public class AdminProductService {
 
         // Save the updated product
         productRepository.save(product);
+        outbox.append(new ProductChanged(productId, ProductChanged.Change.UPDATED));
+        catalogRevision.bump();
 
         return modelMapper.map(product, ProductResponse.class);
     }
@@ -0,0 +1,39 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.github.liuchangming88.ecommerce_backend.model.product.CatalogVersion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The catalog_revision counter behind the catalog pages' ETag. Every path that changes products or stock bumps it:
+ * admin and bulk writes in their own transaction, so the new revision commits with the change; order stock moves
+ * through ProductStockEvictionHandler, off the checkout transaction, so checkouts don't queue on the row.
+ */
+@Component
+public class CatalogRevision {
+
+    private static final String CURRENT = "SELECT revision, updated_at FROM catalog_revision WHERE id = 1";
+
+    private static final String BUMP =
+            "UPDATE catalog_revision SET revision = revision + 1, updated_at = ? WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogRevision(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CatalogVersion current() {
+        return jdbcTemplate.queryForObject(CURRENT, (rs, rowNum) ->
+                new CatalogVersion(rs.getLong("revision"), rs.getObject("updated_at", OffsetDateTime.class)));
+    }
+
+    /**
+     * Joins the caller's transaction when there is one; the row lock is held until it ends.
+     */
+    public void bump() {
+        jdbcTemplate.update(BUMP, OffsetDateTime.now());
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.BulkInventoryAdjustmentResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.InventoryAdjustmentFailure;
+import com.github.liuchangming88.ecommerce_backend.api.model.InventoryAdjustmentRequest;
+import com.github.liuchangming88.ecommerce_backend.configuration.BulkStatementTimeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Applies many stock adjustments with set-based UPDATEs instead of loading and saving each product.
+ *
+ * Deltas are applied in SQL (quantity = quantity + ?) with a non-negative guard in the WHERE clause,
+ * so they compose with concurrent order reservations (InventoryRepository.decrementIfAvailable) instead of overwriting them.
+ * Each chunk runs in its own transaction with rows sorted by product ID, so concurrent bulk runs lock rows in the same order.
+ */
+@Service
+public class InventoryAdjustmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAdjustmentService.class);
+
+    private static final String SET_QUANTITY = """
+            UPDATE inventory
+               SET quantity = ?, version = version + 1, updated_at = ?
+             WHERE product_id = ?
+            """;
+
+    private static final String ADD_QUANTITY = """
+            UPDATE inventory
+               SET quantity = quantity + ?, version = version + 1, updated_at = ?
+             WHERE product_id = ?
+               AND quantity + ? >= 0
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkStatementTimeout bulkStatementTimeout;
+    private final CatalogRevision catalogRevision;
+
+    @Value("${product.inventory.bulk.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${product.inventory.bulk.max-items:10000}")
+    private int maxItems = 10000;
+
+    public InventoryAdjustmentService(JdbcTemplate jdbcTemplate,
+                                      NamedParameterJdbcTemplate namedJdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      BulkStatementTimeout bulkStatementTimeout,
+                                      CatalogRevision catalogRevision) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bulkStatementTimeout = bulkStatementTimeout;
+        this.catalogRevision = catalogRevision;
+    }
+
+    // Touches arbitrary products, so every product cache is cleared rather than evicting thousands of keys one by one
+    @CacheEvict(cacheNames = {"product", "products", "productResponses", "productPageResponses"}, allEntries = true)
+    public BulkInventoryAdjustmentResponse adjust(List<InventoryAdjustmentRequest> adjustments) {
+        if (adjustments.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " adjustments are allowed per request");
+        }
+
+        BulkInventoryAdjustmentResponse response = new BulkInventoryAdjustmentResponse();
+        response.setRequested(adjustments.size());
+
+        // Two lines for one product would make the outcome depend on statement order
+        Set<Long> seen = new HashSet<>();
+        List<InventoryAdjustmentRequest> valid = new ArrayList<>(adjustments.size());
+        for (InventoryAdjustmentRequest adjustment : adjustments) {
+            if (!seen.add(adjustment.getProductId())) {
+                throw new IllegalArgumentException("Product ID " + adjustment.getProductId() + " appears more than once");
+            }
+            if (adjustment.getMode() == InventoryAdjustmentRequest.Mode.SET && adjustment.getQuantity() < 0) {
+                response.getFailures().add(new InventoryAdjustmentFailure(adjustment.getProductId(), "Quantity cannot be negative."));
+            } else {
+                valid.add(adjustment);
+            }
+        }
+        valid.sort(Comparator.comparing(InventoryAdjustmentRequest::getProductId));
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<InventoryAdjustmentRequest> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            List<InventoryAdjustmentFailure> failures = transactionTemplate.execute(status -> applyChunk(chunk));
+            response.setApplied(response.getApplied() + chunk.size() - failures.size());
+            response.getFailures().addAll(failures);
+        }
+
+        response.getFailures().sort(Comparator.comparing(InventoryAdjustmentFailure::getProductId));
+        log.info("Bulk inventory adjustment: {} requested, {} applied", response.getRequested(), response.getApplied());
+        return response;
+    }
+
+    private List<InventoryAdjustmentFailure> applyChunk(List<InventoryAdjustmentRequest> chunk) {
+        bulkStatementTimeout.applyToCurrentTransaction();
+        OffsetDateTime now = OffsetDateTime.now();
+        List<InventoryAdjustmentRequest> sets = new ArrayList<>();
+        List<InventoryAdjustmentRequest> deltas = new ArrayList<>();
+        for (InventoryAdjustmentRequest adjustment : chunk) {
+            (adjustment.getMode() == InventoryAdjustmentRequest.Mode.SET ? sets : deltas).add(adjustment);
+        }
+
+        List<Long> unmatched = new ArrayList<>();
+        int[] setCounts = jdbcTemplate.batchUpdate(SET_QUANTITY, sets.stream()
+                .map(a -> new Object[]{a.getQuantity(), now, a.getProductId()})
+                .toList());
+        collectUnmatched(sets, setCounts, unmatched);
+        int[] deltaCounts = jdbcTemplate.batchUpdate(ADD_QUANTITY, deltas.stream()
+                .map(a -> new Object[]{a.getQuantity(), now, a.getProductId(), a.getQuantity()})
+                .toList());
+        collectUnmatched(deltas, deltaCounts, unmatched);
+        catalogRevision.bump();
+
+        if (unmatched.isEmpty()) return List.of();
+
+        // A zero update count means either no inventory row or a delta that would take stock below zero
+        Set<Long> existing = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT product_id FROM inventory WHERE product_id IN (:ids)",
+                new MapSqlParameterSource("ids", unmatched), Long.class));
+        return unmatched.stream()
+                .map(id -> new InventoryAdjustmentFailure(id, existing.contains(id)
+                        ? "Adjustment would make the quantity negative."
+                        : "No inventory found for product with ID: " + id))
+                .toList();
+    }
+
+    private static void collectUnmatched(List<InventoryAdjustmentRequest> batch, int[] counts, List<Long> unmatched) {
+        for (int i = 0; i < counts.length; i++) {
+            // Drivers that can't report per-row counts return SUCCESS_NO_INFO (-2); only an explicit 0 is a miss
+            if (counts[i] == 0) unmatched.add(batch.get(i).getProductId());
+        }
+    }
+}
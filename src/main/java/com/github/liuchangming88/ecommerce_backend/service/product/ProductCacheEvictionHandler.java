@@ -0,0 +1,35 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.github.liuchangming88.ecommerce_backend.events.DomainEventHandler;
+import com.github.liuchangming88.ecommerce_backend.events.ProductChanged;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a changed product from the caches again once its change has committed. AdminProductService already evicts
+ * inline, but a read between that eviction and the commit can put the old row back; this second eviction, after
+ * commit, removes it. Evicting twice is harmless, so redelivery is too.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheEvictionHandler implements DomainEventHandler<ProductChanged> {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public Class<ProductChanged> eventType() {
+        return ProductChanged.class;
+    }
+
+    @Override
+    public void handle(ProductChanged event) {
+        Cache product = cacheManager.getCache(ProductCacheStore.CACHE_NAME);
+        if (product != null) product.evict(event.productId());
+        for (String name : new String[]{"products", "productResponses", "productPageResponses"}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) cache.clear();
+        }
+    }
+}
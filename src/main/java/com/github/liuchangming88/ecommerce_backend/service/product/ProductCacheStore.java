@@ -0,0 +1,141 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Batch access to the "product" cache that ProductService.getProduct fills one entry at a time.
+ *
+ * With Redis, a batch read is a single MGET and a batch write a single pipelined round trip of SETs,
+ * using the same keys, serializer and TTL as the @Cacheable entries. Other cache managers fall back to per-key access.
+ * Cache failures are logged and treated as misses, so the database remains the source of truth.
+ * MGET bypasses RedisCache statistics, so batch hits and misses are counted separately in cache.batch.gets.
+ */
+@Component
+public class ProductCacheStore {
+
+    static final String CACHE_NAME = "product";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCacheStore.class);
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<RedisConnectionFactory> connectionFactory;
+    private final Counter batchHits;
+    private final Counter batchMisses;
+
+    public ProductCacheStore(CacheManager cacheManager, ObjectProvider<RedisConnectionFactory> connectionFactory, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.connectionFactory = connectionFactory;
+        this.batchHits = batchCounter(meterRegistry, "hit");
+        this.batchMisses = batchCounter(meterRegistry, "miss");
+    }
+
+    private static Counter batchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.batch.gets")
+                .description("Keys looked up through batch cache reads")
+                .tag("cache", CACHE_NAME)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public Map<Long, ProductResponse> getAll(Collection<Long> productIds) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null || productIds.isEmpty()) return new HashMap<>();
+        try {
+            Map<Long, ProductResponse> found;
+            if (cache instanceof RedisCache redisCache && connectionFactory.getIfAvailable() != null) {
+                found = multiGet(redisCache, productIds);
+            } else {
+                found = new HashMap<>();
+                for (Long id : productIds) {
+                    ProductResponse product = cache.get(id, ProductResponse.class);
+                    if (product != null) found.put(id, product);
+                }
+            }
+            batchHits.increment(found.size());
+            batchMisses.increment(productIds.size() - found.size());
+            return found;
+        } catch (RuntimeException e) {
+            log.warn("Product cache batch read failed, loading {} products from the database: {}", productIds.size(), e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    public void putAll(Map<Long, ProductResponse> products) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null || products.isEmpty()) return;
+        try {
+            if (cache instanceof RedisCache redisCache && connectionFactory.getIfAvailable() != null) {
+                pipelinedSet(redisCache, products);
+                return;
+            }
+            products.forEach(cache::put);
+        } catch (RuntimeException e) {
+            log.warn("Product cache back-fill of {} entries failed: {}", products.size(), e.getMessage());
+        }
+    }
+
+    private Map<Long, ProductResponse> multiGet(RedisCache cache, Collection<Long> productIds) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        List<Long> ids = new ArrayList<>(productIds);
+        byte[][] keys = ids.stream().map(id -> key(config, id)).toArray(byte[][]::new);
+
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getObject().getConnection()) {
+            values = connection.stringCommands().mGet(keys);
+        }
+
+        Map<Long, ProductResponse> found = new HashMap<>();
+        if (values == null) return found;
+        for (int i = 0; i < ids.size(); i++) {
+            byte[] raw = values.get(i);
+            if (raw == null) continue;
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+            if (value instanceof ProductResponse product) {
+                found.put(ids.get(i), product);
+            }
+        }
+        return found;
+    }
+
+    private void pipelinedSet(RedisCache cache, Map<Long, ProductResponse> products) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        try (RedisConnection connection = connectionFactory.getObject().getConnection()) {
+            connection.openPipeline();
+            products.forEach((id, product) -> {
+                ByteBuffer buffer = config.getValueSerializationPair().write(product);
+                byte[] value = new byte[buffer.remaining()];
+                buffer.get(value);
+                Duration ttl = config.getTtlFunction().getTimeToLive(id, product);
+                Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                        ? Expiration.persistent()
+                        : Expiration.from(ttl);
+                connection.stringCommands().set(key(config, id), value, expiration, RedisStringCommands.SetOption.upsert());
+            });
+            connection.closePipeline();
+        }
+    }
+
+    // Matches the keys RedisCache derives for @Cacheable(value = "product", key = "#productId"), e.g. "product::42"
+    private static byte[] key(RedisCacheConfiguration config, Long id) {
+        return (config.getKeyPrefixFor(CACHE_NAME) + id).getBytes(StandardCharsets.UTF_8);
+    }
+}
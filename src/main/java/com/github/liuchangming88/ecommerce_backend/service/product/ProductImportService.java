@@ -0,0 +1,320 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductImportError;
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductImportResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductRequest;
+import com.github.liuchangming88.ecommerce_backend.configuration.BulkStatementTimeout;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import of products for admins.
+ *
+ * The body is read line by line and written in chunks, so memory use is bounded by the chunk size rather than the file size:
+ *  1. Parse + bean-validate each row (same rules as ProductRequest on the single-create endpoint)
+ *  2. Reject names repeated within the chunk
+ *  3. Per chunk: one IN query to reject names that already exist, including those written by earlier chunks
+ *  4. Per chunk: ids from the pooled sequences, then batched INSERTs for product and inventory in one transaction
+ * Rejected rows are reported with their line number; they never abort the import.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO product (id, name, short_description, long_description, price, version, updated_at)
+            VALUES (?, ?, ?, ?, ?, 0, ?)
+            """;
+
+    private static final String INSERT_INVENTORY = """
+            INSERT INTO inventory (id, product_id, quantity, version, updated_at)
+            VALUES (?, ?, ?, 0, ?)
+            """;
+
+    // Must match allocationSize of the product_seq / inventory_seq generators (pooled-lo: nextval is the block's low end)
+    private static final int ID_BLOCK_SIZE = 50;
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Dialect dialect;
+    private final BulkStatementTimeout bulkStatementTimeout;
+    private final CatalogRevision catalogRevision;
+
+    @Value("${product.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    public ProductImportService(ProductRepository productRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                EntityManagerFactory entityManagerFactory,
+                                BulkStatementTimeout bulkStatementTimeout,
+                                CatalogRevision catalogRevision) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.bulkStatementTimeout = bulkStatementTimeout;
+        this.catalogRevision = catalogRevision;
+    }
+
+    @CacheEvict(cacheNames = {"products", "productResponses", "productPageResponses"}, allEntries = true)
+    public ProductImportResponse importProducts(InputStream body, Format format) throws IOException {
+        ProductImportResponse report = new ProductImportResponse();
+        Set<String> namesInChunk = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        Map<String, Integer> csvColumns = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+
+                if (format == Format.CSV && csvColumns == null) {
+                    csvColumns = parseCsvHeader(line);
+                    continue;
+                }
+
+                report.setTotalRows(report.getTotalRows() + 1);
+                ProductRequest request;
+                try {
+                    request = format == Format.CSV ? parseCsvRow(line, csvColumns) : parseJsonRow(line);
+                } catch (IllegalArgumentException e) {
+                    reject(report, lineNo, null, e.getMessage());
+                    continue;
+                }
+
+                String violations = validate(request);
+                if (violations != null) {
+                    reject(report, lineNo, request.getName(), violations);
+                    continue;
+                }
+                if (!namesInChunk.add(request.getName())) {
+                    reject(report, lineNo, request.getName(), "Duplicate product name within the import");
+                    continue;
+                }
+
+                chunk.add(new ImportRow(lineNo, request));
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                    namesInChunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+        // Duplicates against the database are only detected when a chunk is written, after later parse errors
+        report.getErrors().sort(Comparator.comparingLong(ProductImportError::getLine));
+
+        log.info("Product import finished: {} rows, {} imported, {} failed", report.getTotalRows(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void writeChunk(List<ImportRow> chunk, ProductImportResponse report) {
+        // One set-based query per chunk instead of existsByName per row
+        Set<String> existing = productRepository.findExistingNames(
+                chunk.stream().map(row -> row.request.getName()).toList());
+
+        List<ImportRow> toInsert = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existing.contains(row.request.getName())) {
+                reject(report, row.line, row.request.getName(), "Product with name '" + row.request.getName() + "' already exists.");
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) return;
+
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bulkStatementTimeout.applyToCurrentTransaction();
+                List<Object[]> productArgs = new ArrayList<>(toInsert.size());
+                List<Object[]> inventoryArgs = new ArrayList<>(toInsert.size());
+                // Ids come from the same pooled sequences Hibernate uses, so JPA inserts and imports never collide
+                Iterator<Long> productIds = allocateIds("product_seq", toInsert.size());
+                Iterator<Long> inventoryIds = allocateIds("inventory_seq", toInsert.size());
+                for (ImportRow row : toInsert) {
+                    Long productId = productIds.next();
+                    productArgs.add(new Object[]{productId, row.request.getName(), row.request.getShortDescription(),
+                            row.request.getLongDescription(), row.request.getPrice(), now});
+                    inventoryArgs.add(new Object[]{inventoryIds.next(), productId, row.request.getQuantity(), now});
+                }
+                jdbcTemplate.batchUpdate(INSERT_PRODUCT, productArgs);
+                jdbcTemplate.batchUpdate(INSERT_INVENTORY, inventoryArgs);
+                catalogRevision.bump();
+            });
+            report.setImported(report.getImported() + toInsert.size());
+        } catch (DataAccessException e) {
+            // e.g. a concurrent insert of the same name; the whole chunk was rolled back
+            log.warn("Product import chunk of {} rows failed: {}", toInsert.size(), e.getMostSpecificCause().getMessage());
+            for (ImportRow row : toInsert) {
+                reject(report, row.line, row.request.getName(), "Chunk rolled back: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private Iterator<Long> allocateIds(String sequence, int count) {
+        String nextValue = dialect.getSequenceSupport().getSequenceNextValString(sequence);
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            long low = jdbcTemplate.queryForObject(nextValue, Long.class);
+            for (long id = low; id < low + ID_BLOCK_SIZE && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids.iterator();
+    }
+
+    private void reject(ProductImportResponse report, long line, String name, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ProductImportError(line, name, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private String validate(ProductRequest request) {
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /* =========================================================
+       Row parsing
+       ========================================================= */
+
+    private ProductRequest parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, ProductRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = splitCsvLine(line);
+        for (int i = 0; i < header.size(); i++) {
+            // Accept both "shortDescription" and "short_description"
+            columns.put(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "shortdescription", "price", "quantity")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column '" + required + "'");
+            }
+        }
+        return columns;
+    }
+
+    private static ProductRequest parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsvLine(line);
+        ProductRequest request = new ProductRequest();
+        request.setName(field(fields, columns, "name"));
+        request.setShortDescription(field(fields, columns, "shortdescription"));
+        request.setLongDescription(field(fields, columns, "longdescription"));
+        String price = field(fields, columns, "price");
+        String quantity = field(fields, columns, "quantity");
+        try {
+            request.setPrice(price == null ? null : new BigDecimal(price.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price '" + price + "'");
+        }
+        try {
+            request.setQuantity(quantity == null ? null : Long.parseLong(quantity.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid quantity '" + quantity + "'");
+        }
+        return request;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) return null;
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV record (RFC 4180 quoting: "a, b" and "" escapes). Records may not span lines.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record ImportRow(long line, ProductRequest request) {}
+}
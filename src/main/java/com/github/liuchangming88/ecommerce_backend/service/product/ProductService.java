@@ -3,26 +3,41 @@ package com.github.liuchangming88.ecommerce_backend.service.product;
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
 import com.github.liuchangming88.ecommerce_backend.configuration.JpaDataPage.RestPage;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
+import com.github.liuchangming88.ecommerce_backend.model.product.CatalogVersion;
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.ProductVersion;
 import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true)
 public class ProductService {
     private final ProductRepository productRepository;
     private final ModelMapper modelMapper;
+    private final ProductCacheStore productCacheStore;
+    private final CatalogRevision catalogRevision;
 
-    public ProductService(ProductRepository productRepository, ModelMapper modelMapper) {
+    @Value("${product.multi-get.max-ids:100}")
+    private int maxMultiGetIds = 100;
+
+    public ProductService(ProductRepository productRepository, ModelMapper modelMapper, ProductCacheStore productCacheStore,
+                          CatalogRevision catalogRevision) {
         this.productRepository = productRepository;
         this.modelMapper = modelMapper;
+        this.productCacheStore = productCacheStore;
+        this.catalogRevision = catalogRevision;
     }
 
     @Cacheable(value = "products", key = "#page + '_' + #size")
@@ -41,4 +56,50 @@ public class ProductService {
                 .map(product -> modelMapper.map(product, ProductResponse.class))
                 .orElseThrow(() -> new ResourceNotFoundException("Can't find product with ID " + productId));
     }
+
+    /**
+     * Resolves many products at once: one cache round trip, one query for the misses, one cache back-fill.
+     * Results follow the order of the requested IDs; duplicates are collapsed and unknown IDs are skipped. The limit
+     * (product.multi-get.max-ids) counts duplicates too.
+     */
+    public List<ProductResponse> getProducts(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            throw new IllegalArgumentException("No product ids provided");
+        }
+        // Checked on the raw list, duplicates included, before any work proportional to it
+        if (productIds.size() > maxMultiGetIds) {
+            throw new IllegalArgumentException("At most " + maxMultiGetIds + " product ids can be requested at once (was " + productIds.size() + ")");
+        }
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Product id cannot be null");
+        }
+
+        Map<Long, ProductResponse> found = productCacheStore.getAll(ids);
+
+        List<Long> misses = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            Map<Long, ProductResponse> loaded = productRepository.findAllById(misses).stream()
+                    .map(product -> modelMapper.map(product, ProductResponse.class))
+                    .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+            productCacheStore.putAll(loaded);
+            found.putAll(loaded);
+        }
+
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Version lookups are single-row projections, far cheaper than loading and mapping the entities
+
+    public ProductVersion getProductVersion(Long productId) {
+        return productRepository.findVersionById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Can't find product with ID " + productId));
+    }
+
+    public CatalogVersion getCatalogVersion() {
+        return catalogRevision.current();
+    }
 }
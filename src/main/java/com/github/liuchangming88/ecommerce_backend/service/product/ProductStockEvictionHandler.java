@@ -0,0 +1,52 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.github.liuchangming88.ecommerce_backend.api.controller.product.ProductResponseCacheFilter;
+import com.github.liuchangming88.ecommerce_backend.events.DomainEvent;
+import com.github.liuchangming88.ecommerce_backend.events.DomainEventHandler;
+import com.github.liuchangming88.ecommerce_backend.events.StockChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the stock shown by the catalog caches current when orders move it (OrderCreated, OrderExpired,
+ * OrderCancelled: every StockChange). The changed products are evicted one by one; pages and id lists can show any
+ * product, so those caches are cleared. Without product ids (events recorded by an older version) every product
+ * entry goes too. The catalog revision is bumped so the pages' ETag changes with the stock. Evicting twice and
+ * bumping twice are harmless, so redelivery is too.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductStockEvictionHandler implements DomainEventHandler<DomainEvent> {
+
+    private final CacheManager cacheManager;
+    private final CatalogRevision catalogRevision;
+
+    @Override
+    public Class<DomainEvent> eventType() {
+        return DomainEvent.class;
+    }
+
+    @Override
+    public void handle(DomainEvent event) {
+        if (!(event instanceof StockChange change)) return;
+
+        Cache product = cacheManager.getCache(ProductCacheStore.CACHE_NAME);
+        Cache response = cacheManager.getCache(ProductResponseCacheFilter.CACHE_NAME);
+        if (change.productIds() == null) {
+            if (product != null) product.clear();
+            if (response != null) response.clear();
+        } else {
+            for (Long productId : change.productIds()) {
+                if (product != null) product.evict(productId);
+                if (response != null) response.evict(ProductResponseCacheFilter.productKey(productId));
+            }
+        }
+        for (String name : new String[]{"products", ProductResponseCacheFilter.PAGE_CACHE_NAME}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) cache.clear();
+        }
+        catalogRevision.bump();
+    }
+}
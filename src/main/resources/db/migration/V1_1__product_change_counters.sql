@@ -0,0 +1,10 @@
+-- Change counters of product and inventory (version, updated_at), behind the product ETags and the product's
+-- optimistic lock. V1 creates them on a fresh database. A database created by ddl-auto=update before Flyway is
+-- baselined at version 1 and skips V1, and ddl-auto=validate no longer adds them, so they are added here.
+-- Constant and CURRENT_TIMESTAMP defaults don't rewrite the tables; existing rows start at version 0.
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE product ADD COLUMN IF NOT EXISTS updated_at timestamp(6) with time zone DEFAULT CURRENT_TIMESTAMP;
+
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE inventory ADD COLUMN IF NOT EXISTS updated_at timestamp(6) with time zone DEFAULT CURRENT_TIMESTAMP;
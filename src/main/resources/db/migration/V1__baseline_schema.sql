@@ -0,0 +1,160 @@
+-- Schema as Hibernate created it with ddl-auto=update (PostgreSQL dialect) at the time Flyway was introduced.
+-- Databases that already have these tables are baselined at version 1 (spring.flyway.baseline-on-migrate) and skip
+-- this script; they need db/scripts/identity-to-sequence.sql applied first if they predate the pooled sequences.
+
+create sequence inventory_seq start with 1 increment by 50;
+
+create sequence local_order_items_seq start with 1 increment by 50;
+
+create sequence local_order_seq start with 1 increment by 50;
+
+create sequence payment_seq start with 1 increment by 50;
+
+create sequence product_seq start with 1 increment by 50;
+
+create table address (
+    id bigint generated by default as identity,
+    local_user_id bigint not null,
+    country varchar(75) not null,
+    address_line_1 varchar(512) not null,
+    address_line_2 varchar(512),
+    city varchar(255) not null,
+    primary key (id)
+);
+
+create table inventory (
+    id bigint not null,
+    product_id bigint not null unique,
+    quantity bigint not null,
+    updated_at timestamp(6) with time zone default CURRENT_TIMESTAMP,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table local_order (
+    currency varchar(3) not null,
+    restocked boolean,
+    total_amount numeric(19,2) not null,
+    address_id bigint not null,
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    id bigint not null,
+    local_user_id bigint not null,
+    updated_at timestamp(6) with time zone,
+    status varchar(16) not null check (status in ('PENDING','PAID','FAILED')),
+    primary key (id)
+);
+
+create table local_order_items (
+    quantity integer not null check (quantity>=1),
+    unit_price numeric(19,2) not null,
+    id bigint not null,
+    local_order_id bigint not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+create table local_user (
+    is_email_verified BOOLEAN DEFAULT FALSE not null,
+    id bigint generated by default as identity,
+    username varchar(16) not null unique,
+    email varchar(320) not null unique,
+    password varchar(1000) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    role varchar(255) not null check (role in ('USER','ADMIN')),
+    primary key (id)
+);
+
+create table password_reset_token (
+    expire_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    local_user_id bigint not null unique,
+    token varchar(255) not null unique,
+    primary key (id)
+);
+
+create table payment (
+    amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    id bigint not null,
+    local_order_id bigint not null,
+    response_code varchar(8),
+    updated_at timestamp(6) with time zone,
+    version bigint,
+    provider varchar(16) not null,
+    status varchar(16) not null check (status in ('INITIATED','PENDING','SUCCEEDED','FAILED','EXPIRED','SUSPICIOUS')),
+    bank_code varchar(32),
+    transaction_no varchar(32),
+    client_ip varchar(64),
+    txn_ref varchar(64) not null,
+    raw_params oid,
+    primary key (id),
+    constraint uk_payment_txn_ref unique (txn_ref)
+);
+
+create table product (
+    price numeric(38,2) not null,
+    id bigint not null,
+    updated_at timestamp(6) with time zone default CURRENT_TIMESTAMP,
+    version bigint default 0 not null,
+    long_description varchar(1024),
+    name varchar(255) not null unique,
+    short_description varchar(255) not null,
+    primary key (id)
+);
+
+create table verification_token (
+    expire_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    local_user_id bigint not null unique,
+    token varchar(255) not null unique,
+    primary key (id)
+);
+
+alter table if exists address 
+   add constraint FKbe7ntytkrgdy6pi3y837tpgwd 
+   foreign key (local_user_id) 
+   references local_user;
+
+alter table if exists inventory 
+   add constraint FKp7gj4l80fx8v0uap3b2crjwp5 
+   foreign key (product_id) 
+   references product;
+
+alter table if exists local_order 
+   add constraint FK5rklqhx2u9hsvdhs9nfet8sgy 
+   foreign key (address_id) 
+   references address;
+
+alter table if exists local_order 
+   add constraint FKlbux05mtvj69atk5r5vspidyf 
+   foreign key (local_user_id) 
+   references local_user;
+
+alter table if exists local_order_items 
+   add constraint FKt64hsn7m5upr5j5wjosx9jq7h 
+   foreign key (local_order_id) 
+   references local_order;
+
+alter table if exists local_order_items 
+   add constraint FK8iykai7expgk0bftwycm5gh1r 
+   foreign key (product_id) 
+   references product;
+
+alter table if exists password_reset_token 
+   add constraint FKnwrtvlkihwqir11s6jwtq9105 
+   foreign key (local_user_id) 
+   references local_user;
+
+alter table if exists payment 
+   add constraint FKr1xu9qx17hw67002p29f1wc7f 
+   foreign key (local_order_id) 
+   references local_order;
+
+alter table if exists verification_token 
+   add constraint FK9tdg8u34viojn82h5k40eebgh 
+   foreign key (local_user_id) 
+   references local_user;
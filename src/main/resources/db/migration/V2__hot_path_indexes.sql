@@ -0,0 +1,36 @@
+-- Indexes behind the repository queries on the request and job paths. Built CONCURRENTLY so existing tables stay
+-- writable while they build; Flyway runs this script outside a transaction (see the .conf file next to it).
+-- MigrationIndexPlanTest checks that PostgreSQL plans each query with the index listed here.
+
+-- LocalOrderRepository.findExpiredPendingOrderIds: only unpaid, not yet restocked orders are ever due
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_local_order_pending_expires_at
+    ON local_order (expires_at)
+    WHERE status = 'PENDING' AND restocked = false;
+
+-- LocalOrderRepository.findByLocalUser_IdAndStatus (order history) and findByLocalUser_Id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_local_order_user_status
+    ON local_order (local_user_id, status);
+
+-- Loading the lines of an order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_local_order_items_order
+    ON local_order_items (local_order_id);
+
+-- PaymentRepository.findByOrderProviderAndStatuses
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_payment_order_provider_status
+    ON payment (local_order_id, provider, status);
+
+-- PaymentRepository.expireInitiatedBefore
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_payment_initiated_expires_at
+    ON payment (expires_at)
+    WHERE status = 'INITIATED';
+
+-- LocalUserRepository.find*IgnoreCase: Spring Data compares upper(column) = upper(?)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_local_user_username_upper
+    ON local_user (upper(username));
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_local_user_email_upper
+    ON local_user (upper(email));
+
+-- AddressRepository.findByLocalUser_Id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_address_local_user
+    ON address (local_user_id);
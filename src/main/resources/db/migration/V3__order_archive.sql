@@ -0,0 +1,68 @@
+-- Cold storage for terminal orders (PAID / FAILED) older than order.archive.older-than, filled by OrderArchiveService.
+-- The archive tables are range-partitioned by month of the order's created_at; the archiver creates the partition
+-- for a month the first time it moves rows into it. The hot tables keep only recent and in-flight orders.
+-- Runs outside a transaction (see the .conf file) for the CONCURRENTLY index on local_order.
+
+CREATE TABLE IF NOT EXISTS local_order_archive (
+    id bigint not null,
+    local_user_id bigint not null,
+    address_id bigint not null,
+    status varchar(16) not null,
+    total_amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    restocked boolean,
+    archived_at timestamp(6) with time zone not null,
+    primary key (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS local_order_items_archive (
+    id bigint not null,
+    local_order_id bigint not null,
+    product_id bigint not null,
+    quantity integer not null,
+    unit_price numeric(19,2) not null,
+    order_created_at timestamp(6) with time zone not null,
+    primary key (id, order_created_at)
+) PARTITION BY RANGE (order_created_at);
+
+CREATE TABLE IF NOT EXISTS payment_archive (
+    id bigint not null,
+    local_order_id bigint not null,
+    status varchar(16) not null,
+    provider varchar(16) not null,
+    amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    txn_ref varchar(64) not null,
+    transaction_no varchar(32),
+    response_code varchar(8),
+    bank_code varchar(32),
+    raw_params oid,
+    client_ip varchar(64),
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    version bigint,
+    order_created_at timestamp(6) with time zone not null,
+    primary key (id, order_created_at)
+) PARTITION BY RANGE (order_created_at);
+
+-- Order history reads an account's orders from both the hot and the archive table
+CREATE INDEX IF NOT EXISTS ix_local_order_archive_user_created
+    ON local_order_archive (local_user_id, created_at, id);
+
+CREATE INDEX IF NOT EXISTS ix_local_order_items_archive_order
+    ON local_order_items_archive (local_order_id);
+
+CREATE INDEX IF NOT EXISTS ix_payment_archive_order
+    ON payment_archive (local_order_id);
+
+CREATE INDEX IF NOT EXISTS ix_payment_archive_txn_ref
+    ON payment_archive (txn_ref);
+
+-- OrderArchiveService picks the oldest terminal orders first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_local_order_terminal_created_at
+    ON local_order (created_at)
+    WHERE status IN ('PAID', 'FAILED');
@@ -0,0 +1,57 @@
+-- order_view: read model of orders (OrderView), written by OrderViewProjector in the transaction that changes the
+-- order. Order reads (GET /orders, GET /orders/history) only read this table, so local_order and local_order_archive
+-- get no history indexes of their own.
+
+CREATE TABLE IF NOT EXISTS order_view (
+    order_id bigint not null,
+    local_user_id bigint not null,
+    status varchar(16) not null check (status in ('PENDING','PAID','FAILED')),
+    total_amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    address_id bigint,
+    address_line_1 varchar(512),
+    address_line_2 varchar(512),
+    city varchar(255),
+    country varchar(75),
+    items jsonb not null,
+    version bigint,
+    primary key (order_id)
+);
+
+-- Backfill from the hot and archive tables; lines are in the shape of OrderViewItem
+INSERT INTO order_view (order_id, local_user_id, status, total_amount, currency, created_at, expires_at, updated_at,
+                        address_id, address_line_1, address_line_2, city, country, items, version)
+SELECT o.id, o.local_user_id, o.status, o.total_amount, o.currency, o.created_at, o.expires_at, o.updated_at,
+       a.id, a.address_line_1, a.address_line_2, a.city, a.country,
+       COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                                'id', i.id,
+                                'productId', i.product_id,
+                                'productName', p.name,
+                                'quantity', i.quantity,
+                                'unitPrice', i.unit_price,
+                                'lineTotal', i.unit_price * i.quantity) ORDER BY i.id)
+                   FROM (SELECT id, local_order_id, product_id, quantity, unit_price FROM local_order_items
+                         UNION ALL
+                         SELECT id, local_order_id, product_id, quantity, unit_price FROM local_order_items_archive) i
+                   LEFT JOIN product p ON p.id = i.product_id
+                  WHERE i.local_order_id = o.id), '[]'::jsonb),
+       0
+  FROM (SELECT id, local_user_id, address_id, status, total_amount, currency, created_at, expires_at, updated_at
+          FROM local_order
+        UNION ALL
+        SELECT id, local_user_id, address_id, status, total_amount, currency, created_at, expires_at, updated_at
+          FROM local_order_archive) o
+  LEFT JOIN address a ON a.id = o.address_id
+ON CONFLICT (order_id) DO NOTHING;
+
+-- OrderHistoryService (keyset on created_at, order_id) and OrderService.getAllOrders. Not covering: both return whole
+-- rows, items jsonb and address included, which no INCLUDE list could hold (btree entries are capped near 2.7 kB).
+-- The index supplies the order and the bound instead, so a page costs size + 1 heap fetches.
+CREATE INDEX IF NOT EXISTS ix_order_view_user_history
+    ON order_view (local_user_id, created_at DESC, order_id DESC);
+
+-- History no longer reads local_order_archive (V3)
+DROP INDEX IF EXISTS ix_local_order_archive_user_created;
@@ -0,0 +1,23 @@
+-- outbox_event: domain events written by Outbox in the transaction that makes the change, and delivered afterwards
+-- by OutboxRelay (job outbox-relay). Relayed rows keep published_at until outbox.retention has passed.
+
+create sequence outbox_event_seq start with 1 increment by 50;
+
+create table outbox_event (
+    id bigint not null,
+    event_type varchar(64) not null,
+    aggregate_id bigint not null,
+    payload jsonb not null,
+    created_at timestamp(6) with time zone not null,
+    available_at timestamp(6) with time zone not null,
+    attempts integer not null,
+    last_error varchar(1000),
+    published_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+-- OutboxEventRepository.findDue: only the pending rows, in relay order
+create index ix_outbox_event_due on outbox_event (available_at, id) where published_at is null;
+
+-- OutboxEventRepository.deletePublishedBefore
+create index ix_outbox_event_published on outbox_event (published_at) where published_at is not null;
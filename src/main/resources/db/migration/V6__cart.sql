@@ -0,0 +1,12 @@
+-- cart_item: shopping carts when cart.store=database (DatabaseCartStore); with cart.store=redis carts live in Redis
+-- hashes instead and this table stays empty. One row per user and product.
+
+create table cart_item (
+    local_user_id bigint not null,
+    product_id bigint not null,
+    quantity integer not null,
+    updated_at timestamp(6) with time zone not null,
+    constraint pk_cart_item primary key (local_user_id, product_id),
+    constraint fk_cart_item_user foreign key (local_user_id) references local_user on delete cascade,
+    constraint fk_cart_item_product foreign key (product_id) references product on delete cascade
+);
@@ -0,0 +1,25 @@
+-- Orders can be CANCELLED by their owner while PENDING (OrderService.cancelOrder), and how long a PENDING order
+-- holds its stock depends on the class of its products (order.hold.by-class).
+-- Runs outside a transaction (see the .conf file) for the CONCURRENTLY indexes; each statement is atomic on its own
+-- and safe to re-run.
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS product_class varchar(32);
+
+-- The checks are swapped in one statement each, added NOT VALID and validated separately, so the tables are only
+-- briefly locked while existing rows are checked
+ALTER TABLE local_order
+    DROP CONSTRAINT IF EXISTS local_order_status_check,
+    ADD CONSTRAINT local_order_status_check CHECK (status IN ('PENDING','PAID','FAILED','CANCELLED')) NOT VALID;
+ALTER TABLE local_order VALIDATE CONSTRAINT local_order_status_check;
+
+ALTER TABLE order_view
+    DROP CONSTRAINT IF EXISTS order_view_status_check,
+    ADD CONSTRAINT order_view_status_check CHECK (status IN ('PENDING','PAID','FAILED','CANCELLED')) NOT VALID;
+ALTER TABLE order_view VALIDATE CONSTRAINT order_view_status_check;
+
+-- Cancelled orders are terminal too, so OrderArchiveService moves them as well; its index follows the new predicate
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_local_order_closed_created_at
+    ON local_order (created_at)
+    WHERE status IN ('PAID', 'FAILED', 'CANCELLED');
+
+DROP INDEX CONCURRENTLY IF EXISTS ix_local_order_terminal_created_at;
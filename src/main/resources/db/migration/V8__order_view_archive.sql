@@ -0,0 +1,47 @@
+-- Cold storage for order_view rows whose order OrderArchiveService moved to local_order_archive, so order_view only
+-- holds recent and in-flight orders. Partitioned by month of created_at like the other archive tables; the archiver
+-- creates a month's partition the first time it moves rows into it. Order history reads both tables (OrderHistoryEntry).
+
+CREATE TABLE IF NOT EXISTS order_view_archive (
+    order_id bigint not null,
+    local_user_id bigint not null,
+    status varchar(16) not null,
+    total_amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    address_id bigint,
+    address_line_1 varchar(512),
+    address_line_2 varchar(512),
+    city varchar(255),
+    country varchar(75),
+    items jsonb not null,
+    archived_at timestamp(6) with time zone not null,
+    primary key (order_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Same keyset as ix_order_view_user_history, so history merges two ordered scans
+CREATE INDEX IF NOT EXISTS ix_order_view_archive_user_history
+    ON order_view_archive (local_user_id, created_at DESC, order_id DESC);
+
+-- Rows of orders archived before this version move now; later batches move them with their order
+DO $$
+DECLARE
+    month date;
+BEGIN
+    FOR month IN SELECT DISTINCT date_trunc('month', v.created_at AT TIME ZONE 'UTC')::date
+                   FROM order_view v JOIN local_order_archive a ON a.id = v.order_id
+    LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS order_view_archive_p%s PARTITION OF order_view_archive FOR VALUES FROM (%L) TO (%L)',
+                       to_char(month, 'YYYY_MM'), month || ' 00:00:00+00', (month + interval '1 month')::date || ' 00:00:00+00');
+    END LOOP;
+END $$;
+
+INSERT INTO order_view_archive (order_id, local_user_id, status, total_amount, currency, created_at, expires_at,
+                                updated_at, address_id, address_line_1, address_line_2, city, country, items, archived_at)
+SELECT v.order_id, v.local_user_id, v.status, v.total_amount, v.currency, v.created_at, v.expires_at,
+       v.updated_at, v.address_id, v.address_line_1, v.address_line_2, v.city, v.country, v.items, a.archived_at
+  FROM order_view v JOIN local_order_archive a ON a.id = v.order_id;
+
+DELETE FROM order_view v USING local_order_archive a WHERE a.id = v.order_id;
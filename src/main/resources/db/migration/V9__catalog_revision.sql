@@ -0,0 +1,13 @@
+-- catalog_revision: one row whose revision goes up with every change to the products or their stock, so the weak ETag
+-- of the catalog pages (GET /products) is a primary key lookup instead of an aggregate over product and inventory.
+-- Bumped in the transaction of admin and bulk writes, and by the outbox relay for orders moving stock.
+
+create table catalog_revision (
+    id smallint not null,
+    revision bigint not null,
+    updated_at timestamp(6) with time zone not null,
+    constraint pk_catalog_revision primary key (id),
+    constraint ck_catalog_revision_single_row check (id = 1)
+);
+
+insert into catalog_revision (id, revision, updated_at) values (1, 0, now());
@@ -0,0 +1,27 @@
+-- Moves the write-heavy tables from IDENTITY ids to the pooled sequences the entities now use
+-- (product_seq, inventory_seq, local_order_seq, local_order_items_seq, payment_seq; allocationSize = 50).
+--
+-- Run once against an existing PostgreSQL database, with the application stopped, before deploying the new version:
+--   psql "$DB_URL" -f src/main/resources/db/scripts/identity-to-sequence.sql
+-- Safe to re-run. Fresh databases don't need it; Flyway's V1__baseline_schema.sql creates the sequences.
+
+BEGIN;
+
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['product', 'inventory', 'local_order', 'local_order_items', 'payment'] LOOP
+        -- Ids are now assigned by the application, so the column default has to go
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+
+        -- ddl-auto=update may already have created the sequence with the default settings
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t || '_seq');
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', t || '_seq');
+
+        -- pooled-lo treats nextval as the low end of a 50 id block, so the next call must return max(id) + 1
+        EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) + 1 FROM %I), false)', t || '_seq', t);
+    END LOOP;
+END $$;
+
+COMMIT;
@@ -0,0 +1,55 @@
+package com.github.liuchangming88.ecommerce_backend.api.controller.admin;
+
+import com.github.liuchangming88.ecommerce_backend.service.user.UserService;
+import com.github.liuchangming88.ecommerce_backend.util.TestDataUtil;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class AdminJobControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void getJobs_adminUser_returns200AndEveryJob() throws Exception {
+        String jwtToken = userService.loginUser(TestDataUtil.createUserELoginRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/admins/jobs")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name").value(containsInAnyOrder("order-expiry", "stale-order-failure", "payment-expiry", "order-archive", "outbox-relay")))
+                .andExpect(jsonPath("$[0].timeBudgetMs").isNumber());
+    }
+
+    @Test
+    void getJobs_normalUser_returns403() throws Exception {
+        String jwtToken = userService.loginUser(TestDataUtil.createUserALoginRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/admins/jobs")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getRuns_unknownJob_returns404() throws Exception {
+        String jwtToken = userService.loginUser(TestDataUtil.createUserELoginRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/admins/jobs/{name}/runs", "unknown")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isNotFound());
+    }
+}
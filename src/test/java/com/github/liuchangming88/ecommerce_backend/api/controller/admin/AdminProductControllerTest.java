@@ -7,6 +7,9 @@ import com.github.liuchangming88.ecommerce_backend.api.model.ProductRequest;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.InventoryRepository;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductImportService;
 import com.github.liuchangming88.ecommerce_backend.service.user.UserService;
 import com.github.liuchangming88.ecommerce_backend.util.TestDataUtil;
 import jakarta.transaction.Transactional;
@@ -16,11 +19,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.math.BigDecimal;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +44,15 @@ public class AdminProductControllerTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductImportService productImportService;
+
     // Helper method to obtain JWT token for a given login request
     private String obtainJwtToken(LoginRequest loginRequest) {
         return userService.loginUser(loginRequest);
@@ -165,6 +181,149 @@ public class AdminProductControllerTest {
         return product;
     }
 
+    @Test
+    void importProducts_csv_insertsValidRowsAndReportsRejectedOnes() throws Exception {
+        String jwtToken = obtainJwtToken(TestDataUtil.createUserELoginRequest());
+        String csv = """
+                name,shortDescription,longDescription,price,quantity
+                Imported One,First imported product,"Long text, with a comma",9.99,10
+                Imported Two,Second imported product,,19.50,0
+                Imported One,Same name again,,1.00,1
+                Bad Price,Short,,abc,1
+                Bad #Name,Short,,1.00,1
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/admins/products/import")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[1].line").value(5))
+                .andExpect(jsonPath("$.errors[2].line").value(6));
+
+        assertTrue(productRepository.existsByName("Imported One"));
+        Product imported = productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("Imported One"))
+                .findFirst().orElseThrow();
+        assertEquals(10L, imported.getInventory().getQuantity());
+        assertEquals("Long text, with a comma", imported.getLongDescription());
+    }
+
+    @Test
+    void importProducts_ndjson_rejectsNamesAlreadyInDatabase() throws Exception {
+        String jwtToken = obtainJwtToken(TestDataUtil.createUserELoginRequest());
+        String ndjson = """
+                {"name":"Streamed Product","shortDescription":"Streamed","price":5.00,"quantity":3}
+                {"name":"Streamed Product Two","shortDescription":"Streamed","price":6.00,"quantity":4}
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/admins/products/import")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/admins/products/import")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType("application/x-ndjson")
+                        .content(ndjson + "{not json}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(3))
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Product with name 'Streamed Product' already exists."));
+    }
+
+    @Test
+    void importProducts_nameRepeatedInLaterChunk_rejectedAsExisting() throws Exception {
+        String jwtToken = obtainJwtToken(TestDataUtil.createUserELoginRequest());
+        String ndjson = """
+                {"name":"Chunked Product","shortDescription":"First","price":5.00,"quantity":3}
+                {"name":"Chunked Product Two","shortDescription":"Second","price":6.00,"quantity":4}
+                {"name":"Chunked Product","shortDescription":"Again","price":7.00,"quantity":5}
+                """;
+
+        ProductImportService target = AopTestUtils.getTargetObject(productImportService);
+        int chunkSize = (int) ReflectionTestUtils.getField(target, "chunkSize");
+        ReflectionTestUtils.setField(target, "chunkSize", 2);
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.post("/admins/products/import")
+                            .header("Authorization", "Bearer " + jwtToken)
+                            .contentType("application/x-ndjson")
+                            .content(ndjson))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(2))
+                    .andExpect(jsonPath("$.failed").value(1))
+                    .andExpect(jsonPath("$.errors[0].line").value(3))
+                    .andExpect(jsonPath("$.errors[0].message").value("Product with name 'Chunked Product' already exists."));
+        } finally {
+            ReflectionTestUtils.setField(target, "chunkSize", chunkSize);
+        }
+    }
+
+    @Test
+    void importProducts_nonAdminUser_returns403() throws Exception {
+        String jwtToken = obtainJwtToken(TestDataUtil.createUserALoginRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/admins/products/import")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType("text/csv")
+                        .content("name,shortDescription,price,quantity\n"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adjustQuantities_mixedModes_appliesValidLinesAndReportsTheRest() throws Exception {
+        String jwtToken = obtainJwtToken(TestDataUtil.createUserELoginRequest());
+        String body = """
+                {"adjustments":[
+                  {"productId":1,"mode":"SET","quantity":20},
+                  {"productId":2,"mode":"DELTA","quantity":4},
+                  {"productId":5,"mode":"DELTA","quantity":-3},
+                  {"productId":999,"mode":"DELTA","quantity":1},
+                  {"productId":3,"mode":"SET","quantity":-1}
+                ]}
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/admins/products/quantities")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(5))
+                .andExpect(jsonPath("$.applied").value(2))
+                .andExpect(jsonPath("$.failures[0].productId").value(3))
+                .andExpect(jsonPath("$.failures[1].productId").value(5))
+                .andExpect(jsonPath("$.failures[1].message").value("Adjustment would make the quantity negative."))
+                .andExpect(jsonPath("$.failures[2].productId").value(999));
+
+        assertEquals(20L, inventoryRepository.findByProductId(1L).orElseThrow().getQuantity());
+        assertEquals(12L, inventoryRepository.findByProductId(2L).orElseThrow().getQuantity());
+        assertEquals(2L, inventoryRepository.findByProductId(5L).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void adjustQuantities_duplicateProduct_returns400() throws Exception {
+        String jwtToken = obtainJwtToken(TestDataUtil.createUserELoginRequest());
+        String body = """
+                {"adjustments":[
+                  {"productId":1,"mode":"DELTA","quantity":1},
+                  {"productId":1,"mode":"DELTA","quantity":2}
+                ]}
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/admins/products/quantities")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
     // This is a test product that is not present in the database
     static private Product createTestProduct() {
         Product product = new Product();
@@ -0,0 +1,145 @@
+package com.github.liuchangming88.ecommerce_backend.api.controller.cart;
+
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.model.user.repository.LocalUserRepository;
+import com.github.liuchangming88.ecommerce_backend.service.infrastructure.JwtService;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Runs against the database cart store (no cart.store in the test properties)
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class CartControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LocalUserRepository localUserRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    public void getCart_unauthenticated_returns401() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/cart")
+        ).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void addUpdateAndRemove_returnPricedCart() throws Exception {
+        String token = tokenFor("usernameA");
+        addItem(token, 1, 2).andExpect(status().isOk());
+        addItem(token, 2, 1).andExpect(status().isOk());
+        addItem(token, 1, 1)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].productId").value(1))
+                .andExpect(jsonPath("$.items[0].quantity").value(3))
+                .andExpect(jsonPath("$.items[0].lineTotal").value(16.5))
+                .andExpect(jsonPath("$.total").value(27.06));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put("/cart/items/1")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"quantity\": 6}")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(6))
+                .andExpect(jsonPath("$.items[0].inStock").value(false));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.delete("/cart/items/1")
+                                .header("Authorization", "Bearer " + token)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.total").value(10.56));
+
+        // Carts are per user
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/cart")
+                                .header("Authorization", "Bearer " + tokenFor("usernameC"))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    public void addItem_unknownProduct_returns404() throws Exception {
+        addItem(tokenFor("usernameA"), 999, 1).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void addItem_overMaxQuantity_returns400AndKeepsTheLine() throws Exception {
+        String token = tokenFor("usernameA");
+        addItem(token, 1, 998).andExpect(status().isOk());
+        addItem(token, 1, 2).andExpect(status().isBadRequest());
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/cart")
+                                .header("Authorization", "Bearer " + token)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(998));
+    }
+
+    @Test
+    public void removeItem_notInCart_returns404() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.delete("/cart/items/1")
+                        .header("Authorization", "Bearer " + tokenFor("usernameA"))
+        ).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void checkout_createsOrderAndEmptiesCart() throws Exception {
+        String token = tokenFor("usernameA");
+        addItem(token, 3, 2).andExpect(status().isOk());
+        Long addressId = localUserRepository.findByUsernameIgnoreCase("usernameA").get().getAddresses().get(0).getId();
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/cart/checkout")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"addressId\": " + addressId + "}")
+                ).andExpect(status().isCreated())
+                .andExpect(header().exists("Location"));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/cart")
+                                .header("Authorization", "Bearer " + token)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    public void checkout_emptyCart_returns400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/cart/checkout")
+                        .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"addressId\": 1}")
+        ).andExpect(status().isBadRequest());
+    }
+
+    private ResultActions addItem(String token, long productId, int quantity) throws Exception {
+        return mockMvc.perform(
+                MockMvcRequestBuilders.post("/cart/items")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\": " + productId + ", \"quantity\": " + quantity + "}"));
+    }
+
+    private String tokenFor(String username) {
+        LocalUser user = localUserRepository.findByUsernameIgnoreCase(username).get();
+        return jwtService.generateJwt(user);
+    }
+}
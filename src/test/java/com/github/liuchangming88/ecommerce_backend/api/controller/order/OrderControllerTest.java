@@ -1,17 +1,29 @@
 package com.github.liuchangming88.ecommerce_backend.api.controller.order;
 
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import com.github.liuchangming88.ecommerce_backend.model.user.repository.LocalUserRepository;
 import com.github.liuchangming88.ecommerce_backend.service.infrastructure.JwtService;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderStatusBroadcaster;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderStatusUpdate;
+import com.github.liuchangming88.ecommerce_backend.util.QueryBudget;
+import com.jayway.jsonpath.JsonPath;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -27,6 +39,12 @@ public class OrderControllerTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderStatusBroadcaster orderStatusBroadcaster;
+
     @Test
     public void getAllOrders_unauthenticated_returns401() throws Exception {
         mockMvc.perform(
@@ -55,4 +73,240 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.content.length()").value(expectedNumberOfOrders));
     }
 
+    @Test
+    public void getOrderHistory_returnsAllStatusesNewestFirst_includingArchived() throws Exception {
+        setUpHistory();
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/history")
+                                .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].id", contains(3, 2, 1, 900)))
+                .andExpect(jsonPath("$.orders[*].status", contains("PENDING", "FAILED", "PAID", "PAID")))
+                .andExpect(jsonPath("$.orders[1].items.length()").value(3))
+                .andExpect(jsonPath("$.orders[1].items[0].productName").exists())
+                .andExpect(jsonPath("$.orders[1].addressResponse.city").value("Testerton"))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    public void getOrderHistory_appliesFilters() throws Exception {
+        setUpHistory();
+        String token = tokenFor("usernameA");
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/history")
+                                .header("Authorization", "Bearer " + token)
+                                .param("status", "PAID", "FAILED")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].id", contains(2, 1, 900)));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/history")
+                                .header("Authorization", "Bearer " + token)
+                                .param("minAmount", "50")
+                                .param("maxAmount", "100")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].id", contains(2, 900)));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/history")
+                                .header("Authorization", "Bearer " + token)
+                                .param("from", OffsetDateTime.now().minusDays(4).toString())
+                                .param("to", OffsetDateTime.now().minusDays(2).minusHours(1).toString())
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].id", contains(1)));
+    }
+
+    @Test
+    public void getOrderHistory_pagesWithCursor() throws Exception {
+        setUpHistory();
+        String token = tokenFor("usernameA");
+        String firstPage = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/history")
+                                .header("Authorization", "Bearer " + token)
+                                .param("size", "3")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].id", contains(3, 2, 1)))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/history")
+                                .header("Authorization", "Bearer " + token)
+                                .param("size", "3")
+                                .param("cursor", JsonPath.<String>read(firstPage, "$.nextCursor"))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[*].id", contains(900)))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    public void getOrderHistory_staysWithinQueryBudget() throws Exception {
+        setUpHistory();
+        String token = tokenFor("usernameA");
+        // User lookup for the token, then the page from order_view; no count query, nothing loaded per order
+        QueryBudget.assertAtMost(2, () -> mockMvc.perform(
+                MockMvcRequestBuilders.get("/orders/history")
+                        .header("Authorization", "Bearer " + token)
+        ).andExpect(status().isOk()));
+    }
+
+    @Test
+    public void getOrderHistory_invalidCursor_returns400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/orders/history")
+                        .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                        .param("cursor", "not-a-cursor")
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getOrderHistory_sizeOutOfRange_returns400() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/orders/history")
+                        .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                        .param("size", "500")
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void quoteOrder_returnsPricesAndStock_withoutReserving() throws Exception {
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/orders/quote")
+                                .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"items\": [{\"productId\": 5, \"quantity\": 3}, {\"productId\": 1, \"quantity\": 2}]}")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(138.77))
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.items[0].productId").value(5))
+                .andExpect(jsonPath("$.items[0].stock").value(2))
+                .andExpect(jsonPath("$.items[0].available").value(false))
+                .andExpect(jsonPath("$.items[1].available").value(true));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE product_id = 5", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    public void cancelOrder_pendingOrder_isCancelledAndItsStockReleased() throws Exception {
+        // Order 1: 5 x product 1 (stock 5) and 5 x product 2 (stock 8)
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post("/orders/1/cancel")
+                                .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+
+        assertThat(jdbcTemplate.queryForList("SELECT quantity FROM inventory WHERE product_id IN (1, 2) ORDER BY product_id", Long.class))
+                .containsExactly(10L, 13L);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM order_view WHERE order_id = 1", String.class)).isEqualTo("CANCELLED");
+
+        // Only once: the order is no longer PENDING
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/orders/1/cancel")
+                        .header("Authorization", "Bearer " + tokenFor("usernameA"))
+        ).andExpect(status().isConflict());
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE product_id = 1", Long.class)).isEqualTo(10);
+    }
+
+    @Test
+    public void cancelOrder_ofAnotherUser_returns403() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/orders/4/cancel")
+                        .header("Authorization", "Bearer " + tokenFor("usernameA"))
+        ).andExpect(status().isForbidden());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM local_order WHERE id = 4", String.class)).isEqualTo("PENDING");
+    }
+
+    @Test
+    public void getCheckoutTicket_unknownTicket_returns404() throws Exception {
+        LocalUser user = localUserRepository.findByUsernameIgnoreCase("usernameA").get();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/orders/tickets/no-such-ticket")
+                        .header("Authorization", "Bearer " + jwtService.generateJwt(user))
+        ).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void streamOrderStatus_unauthenticated_returns401() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/orders/events")
+        ).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void streamOrderStatus_pushesTheUsersStatusChanges() throws Exception {
+        Long userA = userId("usernameA");
+        MvcResult stream = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/events")
+                                .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                ).andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream, ":connected");
+
+        orderStatusBroadcaster.publish(new OrderStatusUpdate(500, userId("usernameC"), 4L, OrderStatus.PAID, OffsetDateTime.now()));
+        orderStatusBroadcaster.publish(new OrderStatusUpdate(501, userA, 3L, OrderStatus.PAID, OffsetDateTime.now()));
+
+        String content = awaitContent(stream, "id:501");
+        assertThat(content).contains("event:order-status", "\"orderId\":3", "\"status\":\"PAID\"")
+                .doesNotContain("id:500");
+        assertThat(stream.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        stream.getRequest().getAsyncContext().complete();
+    }
+
+    @Test
+    public void streamOrderStatus_resumesAfterLastEventId() throws Exception {
+        Long userA = userId("usernameA");
+        orderStatusBroadcaster.publish(new OrderStatusUpdate(600, userA, 1L, OrderStatus.FAILED, OffsetDateTime.now()));
+        orderStatusBroadcaster.publish(new OrderStatusUpdate(601, userA, 2L, OrderStatus.PAID, OffsetDateTime.now()));
+
+        MvcResult stream = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/orders/events")
+                                .header("Authorization", "Bearer " + tokenFor("usernameA"))
+                                .header("Last-Event-ID", "600")
+                ).andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(awaitContent(stream, "id:601")).doesNotContain("id:600");
+        stream.getRequest().getAsyncContext().complete();
+    }
+
+    // Events are written by OrderStatusStreams' sender threads after perform() returned, each in several pieces
+    // (id, event, data, blank line), so a poll can see half an event: wait for the blank line that ends the event
+    // containing expected, or assertions on its other fields race the writer
+    private static String awaitContent(MvcResult stream, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = stream.getResponse().getContentAsString();
+        while (!isComplete(content, expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertThat(isComplete(content, expected)).as("complete event containing %s in %s", expected, content).isTrue();
+        return content;
+    }
+
+    private static boolean isComplete(String content, String expected) {
+        int at = content.indexOf(expected);
+        return at >= 0 && content.indexOf("\n\n", at) >= 0;
+    }
+
+    private Long userId(String username) {
+        return localUserRepository.findByUsernameIgnoreCase(username).get().getId();
+    }
+
+    // User A: order 1 paid three days ago, 2 failed two days ago, 3 pending since yesterday, and an order that
+    // has since moved to the archive tables (its order_view row stays)
+    private void setUpHistory() {
+        OffsetDateTime now = OffsetDateTime.now();
+        jdbcTemplate.update("UPDATE order_view SET status = 'PAID', created_at = ? WHERE order_id = 1", now.minusDays(3));
+        jdbcTemplate.update("UPDATE order_view SET status = 'FAILED', created_at = ? WHERE order_id = 2", now.minusDays(2));
+        jdbcTemplate.update("UPDATE order_view SET created_at = ? WHERE order_id = 3", now.minusDays(1));
+        jdbcTemplate.update("""
+                INSERT INTO order_view (order_id, local_user_id, status, total_amount, currency, created_at, address_id,
+                                        address_line_1, city, country, items, version)
+                VALUES (900, 1, 'PAID', 75.00, 'VND', ?, 1, '123 Tester Hill', 'Testerton', 'England',
+                        JSON '[{"id":900,"productId":1,"productName":"Product #1","quantity":3,"unitPrice":25,"lineTotal":75}]', 0)
+                """, now.minusDays(200));
+    }
+
+    private String tokenFor(String username) {
+        return jwtService.generateJwt(localUserRepository.findByUsernameIgnoreCase(username).get());
+    }
 }
@@ -1,6 +1,8 @@
 package com.github.liuchangming88.ecommerce_backend.api.controller.product;
 
 import com.github.liuchangming88.ecommerce_backend.api.model.LoginRequest;
+import com.github.liuchangming88.ecommerce_backend.service.product.CatalogRevision;
+import com.github.liuchangming88.ecommerce_backend.util.QueryBudget;
 import com.github.liuchangming88.ecommerce_backend.util.TestDataUtil;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
@@ -8,9 +10,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -21,6 +27,9 @@ public class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CatalogRevision catalogRevision;
+
     @Test
     public void getAllProducts_returns200() throws Exception {
         mockMvc.perform(
@@ -30,6 +39,17 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("Product #1"));
     }
 
+    @Test
+    void getAllProducts_staysWithinQueryBudget() throws Exception {
+        // Page query (inventory joined), count query and the catalog revision for the ETag, however many products are on the page
+        QueryBudget.assertAtMost(3, () -> mockMvc.perform(
+                MockMvcRequestBuilders.get("/products")
+        ).andExpect(status().isOk()));
+        QueryBudget.assertNoRepeats(1, () -> mockMvc.perform(
+                MockMvcRequestBuilders.get("/products")
+        ).andExpect(status().isOk()));
+    }
+
     @Test
     void getProduct_returns200AndProduct() throws Exception {
         // Product that needs to be looked up
@@ -39,4 +59,82 @@ public class ProductControllerTest {
         ).andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Product #1"));
     }
+
+    @Test
+    void getProduct_matchingIfNoneMatch_returns304() throws Exception {
+        MvcResult first = mockMvc.perform(
+                MockMvcRequestBuilders.get("/products/{productId}", 1L)
+        ).andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/products/{productId}", 1L)
+                        .header("If-None-Match", etag)
+        ).andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getProduct_etagDiffersPerProduct() throws Exception {
+        String etag1 = mockMvc.perform(MockMvcRequestBuilders.get("/products/{productId}", 1L))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/products/{productId}", 2L)
+                        .header("If-None-Match", etag1)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Product #2"));
+    }
+
+    @Test
+    void getProduct_productDoesNotExist_returns404() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/products/{productId}", 999L)
+        ).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllProducts_weakEtag_returns304() throws Exception {
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/products"))
+                .andExpect(header().string("ETag", startsWith("W/")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/products")
+                        .header("If-None-Match", etag)
+        ).andExpect(status().isNotModified());
+
+        // A different page has a different validator
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/products")
+                        .param("page", "1")
+                        .header("If-None-Match", etag)
+        ).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAllProducts_catalogRevisionBumped_returns200() throws Exception {
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/products"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        catalogRevision.bump();
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/products")
+                        .header("If-None-Match", etag)
+        ).andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void getProductsByIds_returnsRequestOrder_andSkipsUnknownIds() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/products").param("ids", "3,999,1")
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Product #3"))
+                .andExpect(jsonPath("$[1].name").value("Product #1"))
+                .andExpect(jsonPath("$[1].quantity").value(5));
+    }
 }
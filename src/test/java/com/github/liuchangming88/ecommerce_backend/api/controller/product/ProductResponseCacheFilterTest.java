@@ -0,0 +1,148 @@
+package com.github.liuchangming88.ecommerce_backend.api.controller.product;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.ResponseCacheProperties;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductResponseCacheFilterTest {
+
+    private static final String BODY = "{\"id\":1,\"name\":\"Product #1\"}";
+
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    ResponseCacheProperties props = new ResponseCacheProperties();
+    ProductResponseCacheFilter filter = new ProductResponseCacheFilter(cacheManager, props);
+    AtomicInteger controllerCalls = new AtomicInteger();
+
+    private MockFilterChain chain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                controllerCalls.incrementAndGet();
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    private MockHttpServletRequest get(String uri) {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", uri);
+        req.setServletPath(uri);
+        return req;
+    }
+
+    @Test
+    void secondRequest_servedFromCache_withoutHittingController() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(get("/products/1"), first, chain());
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(get("/products/1"), second, chain());
+
+        assertThat(controllerCalls.get()).isEqualTo(1);
+        assertThat(first.getHeader("X-Cache")).isEqualTo("MISS");
+        assertThat(second.getHeader("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getContentAsString()).isEqualTo(BODY);
+        assertThat(second.getHeader("ETag")).isEqualTo(first.getHeader("ETag"));
+        assertThat(second.getHeader("Cache-Control")).isEqualTo(props.getCacheControl());
+    }
+
+    @Test
+    void cachedHit_clientAcceptsGzip_getsPreCompressedBytes() throws Exception {
+        filter.doFilter(get("/products/1"), new MockHttpServletResponse(), chain());
+
+        MockHttpServletRequest req = get("/products/1");
+        req.addHeader("Accept-Encoding", "deflate, gzip;q=1.0");
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        filter.doFilter(req, resp, chain());
+
+        assertThat(resp.getHeader("Content-Encoding")).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(resp.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void cachedHit_matchingIfNoneMatch_returns304() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(get("/products/1"), first, chain());
+
+        MockHttpServletRequest req = get("/products/1");
+        req.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        filter.doFilter(req, resp, chain());
+
+        assertThat(resp.getStatus()).isEqualTo(304);
+        assertThat(resp.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void cachedHit_ifNoneMatchListOrWeakTag_returns304() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(get("/products/1"), first, chain());
+        String etag = first.getHeader("ETag");
+
+        for (String ifNoneMatch : new String[]{"\"other\", " + etag, "W/" + etag, "*"}) {
+            MockHttpServletRequest req = get("/products/1");
+            req.addHeader("If-None-Match", ifNoneMatch);
+            MockHttpServletResponse resp = new MockHttpServletResponse();
+            filter.doFilter(req, resp, chain());
+            assertThat(resp.getStatus()).as(ifNoneMatch).isEqualTo(304);
+        }
+
+        MockHttpServletRequest stale = get("/products/1");
+        stale.addHeader("If-None-Match", "\"other\", W/\"older\"");
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        filter.doFilter(stale, resp, chain());
+        assertThat(resp.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void pagesAndSingleProducts_areCachedApart() throws Exception {
+        filter.doFilter(get("/products"), new MockHttpServletResponse(), chain());
+        filter.doFilter(get("/products/1"), new MockHttpServletResponse(), chain());
+
+        assertThat(cacheManager.getCache(ProductResponseCacheFilter.PAGE_CACHE_NAME).get("/products")).isNotNull();
+        assertThat(cacheManager.getCache(ProductResponseCacheFilter.CACHE_NAME).get(ProductResponseCacheFilter.productKey(1L))).isNotNull();
+        assertThat(cacheManager.getCache(ProductResponseCacheFilter.CACHE_NAME).get("/products")).isNull();
+    }
+
+    @Test
+    void queryParameterOrder_sharesOneEntry() throws Exception {
+        MockHttpServletRequest a = get("/products");
+        a.setParameter("page", "1");
+        a.setParameter("size", "5");
+        MockHttpServletRequest b = get("/products");
+        b.setParameter("size", "5");
+        b.setParameter("page", "1");
+
+        filter.doFilter(a, new MockHttpServletResponse(), chain());
+        filter.doFilter(b, new MockHttpServletResponse(), chain());
+
+        assertThat(controllerCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledOrOtherPaths_passThrough() throws Exception {
+        filter.doFilter(get("/products/1/reviews"), new MockHttpServletResponse(), chain());
+        props.setEnabled(false);
+        filter.doFilter(get("/products/1"), new MockHttpServletResponse(), chain());
+        filter.doFilter(get("/products/1"), new MockHttpServletResponse(), chain());
+
+        assertThat(controllerCalls.get()).isEqualTo(3);
+        assertThat(cacheManager.getCacheNames()).isEmpty();
+    }
+}
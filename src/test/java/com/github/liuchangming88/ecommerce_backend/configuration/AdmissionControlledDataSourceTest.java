@@ -0,0 +1,71 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.exception.DatabaseBusyException;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlledDataSourceTest {
+
+    DataSource target = mock(DataSource.class);
+
+    private AdmissionControlledDataSource dataSource(int maxConcurrent) {
+        DatabaseAdmissionProperties props = new DatabaseAdmissionProperties();
+        props.setMaxConcurrent(maxConcurrent);
+        props.setAcquireTimeout(Duration.ofMillis(50));
+        return new AdmissionControlledDataSource(target, props);
+    }
+
+    @Test
+    void closingConnection_releasesPermitExactlyOnce() throws Exception {
+        Connection raw = mock(Connection.class);
+        when(target.getConnection()).thenReturn(raw);
+        AdmissionControlledDataSource ds = dataSource(2);
+
+        Connection connection = ds.getConnection();
+        assertThat(ds.getAvailablePermits()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+        assertThat(ds.getAvailablePermits()).isEqualTo(2);
+        verify(raw, times(1)).close();
+    }
+
+    @Test
+    void exhausted_failsFastWithDatabaseBusy() throws Exception {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        AdmissionControlledDataSource ds = dataSource(1);
+
+        Connection held = ds.getConnection();
+
+        assertThatThrownBy(ds::getConnection).isInstanceOf(DatabaseBusyException.class);
+        held.close();
+        assertThat(ds.getConnection()).isNotNull();
+    }
+
+    @Test
+    void targetFailure_returnsPermit() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+        AdmissionControlledDataSource ds = dataSource(1);
+
+        assertThatThrownBy(ds::getConnection).isInstanceOf(SQLException.class);
+        assertThat(ds.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void unwrap_reachesUnderlyingConnection() throws Exception {
+        Connection raw = mock(Connection.class);
+        when(target.getConnection()).thenReturn(raw);
+
+        Connection connection = dataSource(1).getConnection();
+
+        assertThat(connection.unwrap(Connection.class)).isSameAs(raw);
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
+import com.github.liuchangming88.ecommerce_backend.configuration.JpaDataPage.RestPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRedisSerializerTest {
+
+    @Test
+    void serialize_productResponse_roundTrips() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(RedisCacheProperties.Format.SMILE, -1);
+        ProductResponse product = product(7L);
+
+        Object result = serializer.deserialize(serializer.serialize(product));
+
+        assertThat(result).isInstanceOf(ProductResponse.class);
+        assertThat(((ProductResponse) result).getName()).isEqualTo("Product #7");
+        assertThat(((ProductResponse) result).getPrice()).isEqualByComparingTo("7.50");
+    }
+
+    @Test
+    void serialize_restPage_roundTripsWithCompression() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(RedisCacheProperties.Format.SMILE, 0);
+        RestPage<ProductResponse> page = page(20);
+
+        byte[] bytes = serializer.serialize(page);
+        Object result = serializer.deserialize(bytes);
+
+        // gzip magic header
+        assertThat(bytes[0]).isEqualTo((byte) 0x1f);
+        assertThat(bytes[1]).isEqualTo((byte) 0x8b);
+        assertThat(result).isInstanceOf(RestPage.class);
+        RestPage<?> restored = (RestPage<?>) result;
+        assertThat(restored.getContent()).hasSize(20);
+        assertThat(restored.getTotalElements()).isEqualTo(100);
+        assertThat(restored.getContent().get(3)).isInstanceOf(ProductResponse.class);
+    }
+
+    @Test
+    void serialize_smileIsSmallerThanGenericJson() {
+        // Only the ordering is asserted; the measured sizes are in the README (Cache wire format)
+        RestPage<ProductResponse> page = page(50);
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(page);
+        byte[] smile = new CompactRedisSerializer(RedisCacheProperties.Format.SMILE, -1).serialize(page);
+        byte[] compressed = new CompactRedisSerializer(RedisCacheProperties.Format.SMILE, 0).serialize(page);
+
+        assertThat(smile.length).isLessThan(json.length);
+        assertThat(compressed.length).isLessThan(smile.length);
+    }
+
+    @Test
+    void deserialize_readsEntriesWrittenByGenericJsonSerializer() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(RedisCacheProperties.Format.SMILE, 2048);
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(product(3L));
+
+        Object result = serializer.deserialize(legacy);
+
+        assertThat(result).isInstanceOf(ProductResponse.class);
+        assertThat(((ProductResponse) result).getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void serialize_nullAndEmpty() {
+        CompactRedisSerializer serializer = new CompactRedisSerializer(RedisCacheProperties.Format.JSON, 2048);
+
+        assertThat(serializer.serialize(null)).isEmpty();
+        assertThat(serializer.deserialize(new byte[0])).isNull();
+        assertThat(serializer.deserialize(null)).isNull();
+    }
+
+    private static ProductResponse product(long id) {
+        return new ProductResponse(id, "Product #" + id, "Short description of product " + id,
+                "This is a very long description of product #" + id + ".", BigDecimal.valueOf(id).add(new BigDecimal("0.50")), id * 3);
+    }
+
+    private static RestPage<ProductResponse> page(int size) {
+        List<ProductResponse> content = new ArrayList<>();
+        for (long i = 1; i <= size; i++) {
+            content.add(product(i));
+        }
+        return new RestPage<>(PageRequest.of(0, size), content.stream().toList(), 100);
+    }
+}
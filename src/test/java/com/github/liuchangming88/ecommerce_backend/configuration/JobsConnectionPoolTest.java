@@ -0,0 +1,68 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class JobsConnectionPoolTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier(DataSourceConfig.JOBS_TRANSACTION_MANAGER)
+    private PlatformTransactionManager jobsTransactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("jobsDataSource")
+    private DataSource jobsDataSource;
+
+    @Test
+    void jobsTransaction_takesConnectionFromJobsPool() throws SQLException {
+        HikariDataSource primary = primaryDataSource.unwrap(HikariDataSource.class);
+        HikariDataSource jobs = jobsDataSource.unwrap(HikariDataSource.class);
+
+        int[] active = new TransactionTemplate(jobsTransactionManager).execute(status -> {
+            productRepository.count();
+            return new int[]{activeConnections(primary), activeConnections(jobs)};
+        });
+
+        assertThat(active).containsExactly(0, 1);
+    }
+
+    @Test
+    void defaultTransaction_takesConnectionFromPrimaryPool() throws SQLException {
+        HikariDataSource primary = primaryDataSource.unwrap(HikariDataSource.class);
+        HikariDataSource jobs = jobsDataSource.unwrap(HikariDataSource.class);
+
+        int[] active = new TransactionTemplate(transactionManager).execute(status -> {
+            productRepository.count();
+            return new int[]{activeConnections(primary), activeConnections(jobs)};
+        });
+
+        assertThat(active).containsExactly(1, 0);
+    }
+
+    // The jobs pool only starts on first use
+    private static int activeConnections(HikariDataSource pool) {
+        return pool.getHikariPoolMXBean() == null ? 0 : pool.getHikariPoolMXBean().getActiveConnections();
+    }
+}
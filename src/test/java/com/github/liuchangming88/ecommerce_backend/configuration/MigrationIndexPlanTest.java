@@ -0,0 +1,126 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations against PostgreSQL and checks that each repository query on a hot path is planned
+ * with its index. The statements mirror the SQL Hibernate generates for the repository methods named below.
+ * Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MigrationIndexPlanTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                Arguments.of("LocalOrderRepository.findExpiredPendingOrderIds",
+                        "SELECT lo.id FROM local_order lo WHERE lo.status = 'PENDING' AND lo.restocked = false"
+                                + " AND lo.expires_at < now() ORDER BY lo.expires_at LIMIT 200",
+                        "ix_local_order_pending_expires_at"),
+                Arguments.of("LocalOrderRepository.findByLocalUser_IdAndStatus",
+                        "SELECT lo.* FROM local_order lo WHERE lo.local_user_id = 1 AND lo.status = 'PENDING'"
+                                + " OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY",
+                        "ix_local_order_user_status"),
+                Arguments.of("LocalOrderRepository.findByLocalUser_Id",
+                        "SELECT lo.* FROM local_order lo WHERE lo.local_user_id = 1",
+                        "ix_local_order_user_status"),
+                Arguments.of("OrderHistoryService.getOrderHistory",
+                        "SELECT v.* FROM (SELECT order_id, local_user_id, status, created_at FROM order_view"
+                                + " UNION ALL SELECT order_id, local_user_id, status, created_at FROM order_view_archive) v"
+                                + " WHERE v.local_user_id = 1 AND v.status IN ('PAID', 'FAILED')"
+                                + " AND v.created_at <= now() AND (v.created_at < now() OR v.order_id < 100)"
+                                + " ORDER BY v.created_at DESC, v.order_id DESC FETCH FIRST 21 ROWS ONLY",
+                        "ix_order_view_user_history"),
+                Arguments.of("OrderViewRepository.findByLocalUserIdAndStatus",
+                        "SELECT v.* FROM order_view v WHERE v.local_user_id = 1 AND v.status = 'PENDING'"
+                                + " OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY",
+                        "ix_order_view_user_history"),
+                Arguments.of("OutboxEventRepository.findDue",
+                        "SELECT e.* FROM outbox_event e WHERE e.published_at IS NULL AND e.available_at <= now()"
+                                + " AND e.attempts < 10 ORDER BY e.id FETCH FIRST 100 ROWS ONLY FOR UPDATE SKIP LOCKED",
+                        "ix_outbox_event_due"),
+                Arguments.of("OutboxEventRepository.deletePublishedBefore",
+                        "DELETE FROM outbox_event WHERE published_at < now() - interval '7 days'",
+                        "ix_outbox_event_published"),
+                Arguments.of("CartItemRepository.findByUserIdOrderByProductId",
+                        "SELECT c.* FROM cart_item c WHERE c.local_user_id = 1 ORDER BY c.product_id",
+                        "pk_cart_item"),
+                Arguments.of("LocalOrder.items",
+                        "SELECT li.* FROM local_order_items li WHERE li.local_order_id = 1",
+                        "ix_local_order_items_order"),
+                Arguments.of("PaymentRepository.findByOrderProviderAndStatuses",
+                        "SELECT p.* FROM payment p WHERE p.local_order_id = 1 AND p.provider = 'VNPAY'"
+                                + " AND p.status IN ('INITIATED', 'PENDING')",
+                        "ix_payment_order_provider_status"),
+                Arguments.of("PaymentRepository.expireInitiatedBefore",
+                        "UPDATE payment SET status = 'EXPIRED', updated_at = now()"
+                                + " WHERE status = 'INITIATED' AND expires_at < now()",
+                        "ix_payment_initiated_expires_at"),
+                Arguments.of("OrderArchiveService.archiveBatch",
+                        "SELECT id FROM local_order WHERE status IN ('PAID', 'FAILED', 'CANCELLED')"
+                                + " AND created_at < now() - interval '90 days' ORDER BY created_at LIMIT 500",
+                        "ix_local_order_closed_created_at"),
+                Arguments.of("PaymentRepository.findByTxnRef",
+                        "SELECT p.* FROM payment p WHERE p.txn_ref = 'abc'",
+                        "uk_payment_txn_ref"),
+                Arguments.of("LocalUserRepository.findByUsernameIgnoreCase",
+                        "SELECT lu.* FROM local_user lu WHERE upper(lu.username) = upper('UserA')",
+                        "ix_local_user_username_upper"),
+                Arguments.of("LocalUserRepository.findByEmailIgnoreCase",
+                        "SELECT lu.* FROM local_user lu WHERE upper(lu.email) = upper('a@example.com')",
+                        "ix_local_user_email_upper"),
+                Arguments.of("AddressRepository.findByLocalUser_Id",
+                        "SELECT a.* FROM address a WHERE a.local_user_id = 1",
+                        "ix_address_local_user")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void query_usesIndex(String repositoryMethod, String sql, String index) throws SQLException {
+        assertThat(explain(sql)).as(repositoryMethod).contains(index);
+    }
+
+    // The tables are empty, so sequential scans are disabled to see whether the planner can use an index at all
+    private static String explain(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("SET LOCAL enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) plan.append(rs.getString(1)).append('\n');
+            }
+            connection.rollback();
+            return plan.toString();
+        }
+    }
+}
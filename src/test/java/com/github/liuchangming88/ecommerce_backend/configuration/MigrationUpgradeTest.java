@@ -0,0 +1,88 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upgrades a database created by ddl-auto=update before Flyway (db/pre-flyway-schema.sql) the way the README says:
+ * identity-to-sequence.sql, then the application starts, Flyway baselines it at V1 and applies the rest, and
+ * Hibernate validates the result. Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.defer-datasource-initialization=false",
+        "spring.sql.init.mode=never",
+        "spring.flyway.enabled=true",
+        // As in the main application.properties, which the test one shadows
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1",
+        "spring.flyway.postgresql.transactional-lock=false"
+})
+class MigrationUpgradeTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    // Runs before the application context, and so before Flyway, starts
+    @BeforeAll
+    static void createPreFlywayDatabase() throws Exception {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(script("db/pre-flyway-schema.sql"));
+            statement.execute("INSERT INTO product (name, short_description, price) VALUES ('Old product', 'Short', 10.00)");
+            statement.execute("INSERT INTO inventory (product_id, quantity) SELECT id, 5 FROM product");
+            statement.execute(script("db/scripts/identity-to-sequence.sql"));
+        }
+    }
+
+    @Test
+    void preFlywayDatabase_isMigratedAndValidated() {
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class))
+                .startsWith("1", "1.1");
+
+        // Rows from before the upgrade get the change counters' defaults
+        Product product = productRepository.findAll().get(0);
+        assertThat(product.getVersion()).isZero();
+        assertThat(product.getInventory().getVersion()).isZero();
+        assertThat(product.getUpdatedAt()).isNotNull();
+    }
+
+    private static String script(String path) throws Exception {
+        return new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=health,prometheus",
+        "management.metrics.distribution.percentiles-histogram.orders=true"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class PrometheusEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheus_withoutToken_exposesBusinessMeters() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/actuator/prometheus")
+        ).andExpect(status().isOk())
+                .andExpect(content().string(containsString("orders_create_phase_seconds_bucket")))
+                .andExpect(content().string(containsString("inventory_decrement_conflicts_total")))
+                .andExpect(content().string(containsString("jwt_verify_seconds_count")))
+                .andExpect(content().string(containsString("db_pool_utilization{pool=\"jobs\"}")))
+                .andExpect(content().string(containsString("hikaricp_connections_max{pool=\"primary\"}")));
+    }
+}
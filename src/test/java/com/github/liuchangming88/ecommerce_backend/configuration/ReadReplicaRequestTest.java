@@ -0,0 +1,79 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.model.user.repository.LocalUserRepository;
+import com.github.liuchangming88.ecommerce_backend.service.infrastructure.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The replica is the same in-memory database reached as a user who may only SELECT, so a write that is routed to
+ * the replica fails. Not @Transactional: each service call has to open its own transaction, as in production.
+ */
+// H2 separates INIT statements with \;, escaped once more for the inline property and once for Java
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-request;INIT=CREATE USER IF NOT EXISTS reader PASSWORD 'reader'\\\\;GRANT SELECT ON SCHEMA PUBLIC TO reader",
+        "db.replica.enabled=true",
+        "db.replica.url=jdbc:h2:mem:replica-request",
+        "db.replica.username=reader",
+        "db.replica.password=reader",
+        "db.replica.read-your-writes-window=0s"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LocalUserRepository localUserRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM cart_item");
+    }
+
+    // CartService.updateItem reads the cart in a read-only transaction (replica), then writes the line (primary)
+    @Test
+    void readOnlyCallThenWrite_inOneRequest_writesThroughPrimary() throws Exception {
+        LocalUser user = localUserRepository.findByUsernameIgnoreCase("usernameA").get();
+        String token = jwtService.generateJwt(user);
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.post("/cart/items")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\": 1, \"quantity\": 1}")
+        ).andExpect(status().isOk());
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put("/cart/items/1")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"quantity\": 4}")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(4));
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get("/cart")
+                                .header("Authorization", "Bearer " + token)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(4));
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory databases stand in for primary and replica; each answers "which database am I" differently.
+ */
+class ReadReplicaRoutingTest {
+
+    DataSource primary = database("primary");
+    DataSource replica = database("replica");
+    MutableClock clock = new MutableClock();
+    ReadYourWritesGuard guard = new ReadYourWritesGuard(Duration.ofSeconds(5), clock);
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readWrite;
+    TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(guard.trackingWrites(primary));
+        routing.setReadOnlyDataSource(guard.replicaUnlessRecentWriter(replica, primary));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_usesReplica_readWriteUsesPrimary() {
+        assertThat(readOnlyRead()).isEqualTo("replica");
+        assertThat(readWriteRead()).isEqualTo("primary");
+    }
+
+    @Test
+    void userWhoJustWrote_readsFromPrimaryUntilWindowPasses() {
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE whoami SET name = name"));
+
+        assertThat(readOnlyRead()).isEqualTo("primary");
+
+        authenticate("bob");
+        assertThat(readOnlyRead()).isEqualTo("replica");
+
+        authenticate("alice");
+        clock.advance(Duration.ofSeconds(6));
+        assertThat(readOnlyRead()).isEqualTo("replica");
+    }
+
+    private String readOnlyRead() {
+        return readOnly.execute(status -> whichDatabase());
+    }
+
+    private String readWriteRead() {
+        return readWrite.execute(status -> whichDatabase());
+    }
+
+    private String whichDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(16))");
+        jdbc.update("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.liuchangming88.ecommerce_backend.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementStatsTest {
+
+    @Test
+    void shapeOf_collapsesInListsAndWhitespace() {
+        assertThat(SqlStatementStats.shapeOf("select p1_0.id from product p1_0\n where p1_0.id in (?, ?,?)"))
+                .isEqualTo(SqlStatementStats.shapeOf("select p1_0.id from product p1_0 where p1_0.id in (?)"));
+    }
+
+    @Test
+    void nestedScopes_countInEveryOpenScope() {
+        try (SqlStatementStats outer = SqlStatementStats.open()) {
+            SqlStatementStats.recordStatement("select 1");
+            try (SqlStatementStats inner = SqlStatementStats.open()) {
+                SqlStatementStats.recordStatement("select * from inventory where product_id = ?");
+                SqlStatementStats.recordStatement("select * from inventory where product_id = ?");
+                SqlStatementStats.recordTime(1_000_000);
+                assertThat(inner.getStatements()).isEqualTo(2);
+                assertThat(inner.getMostRepeated().getValue()).isEqualTo(2);
+            }
+            assertThat(SqlStatementStats.current()).isSameAs(outer);
+            assertThat(outer.getStatements()).isEqualTo(3);
+            assertThat(outer.getTime().toMillis()).isEqualTo(1);
+        }
+        assertThat(SqlStatementStats.current()).isNull();
+    }
+
+    @Test
+    void noOpenScope_recordingIsIgnored() {
+        SqlStatementStats.recordStatement("select 1");
+        SqlStatementStats.recordTime(5);
+        assertThat(SqlStatementStats.current()).isNull();
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingHandler<OrderPaid> paidHandler = new RecordingHandler<>(OrderPaid.class);
+    private final RecordingHandler<ProductChanged> productHandler = new RecordingHandler<>(ProductChanged.class);
+    private OutboxStore outboxStore;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxStore = Mockito.mock(OutboxStore.class);
+        relay = new OutboxRelay(outboxStore, List.of(paidHandler, productHandler), objectMapper, meterRegistry);
+    }
+
+    @Test
+    void emptyOutbox_returns0() {
+        when(outboxStore.claim(any())).thenReturn(List.of());
+
+        assertThat(relay.relayBatch()).isZero();
+        verify(outboxStore, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void dispatchesEachEventToTheHandlersOfItsType() throws Exception {
+        OrderPaid paid = new OrderPaid(1L, 2L, "ref-1", new BigDecimal("30.00"), "VND");
+        ProductChanged changed = new ProductChanged(3L, ProductChanged.Change.DELETED);
+        when(outboxStore.claim(any())).thenReturn(List.of(row(10L, paid), row(11L, changed)));
+        when(outboxStore.complete(any(), any(), any())).thenReturn(List.of());
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+
+        assertThat(paidHandler.received).containsExactly(paid);
+        assertThat(productHandler.received).containsExactly(changed);
+        verify(outboxStore).complete(eq(List.of(10L, 11L)), eq(Map.of()), any());
+        assertThat(meterRegistry.get("outbox.events").tag("type", "OrderPaid").tag("outcome", "published").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failingHandler_recordsErrorAndDoesNotStopTheBatch() throws Exception {
+        productHandler.failWith = new IllegalStateException("cache down");
+        ProductChanged changed = new ProductChanged(3L, ProductChanged.Change.UPDATED);
+        OrderPaid paid = new OrderPaid(1L, 2L, "ref-1", new BigDecimal("30.00"), "VND");
+        when(outboxStore.claim(any())).thenReturn(List.of(row(10L, changed), row(11L, paid)));
+        when(outboxStore.complete(any(), any(), any())).thenReturn(List.of());
+
+        relay.relayBatch();
+
+        assertThat(paidHandler.received).containsExactly(paid);
+        verify(outboxStore).complete(eq(List.of(11L)),
+                argThat(errors -> errors.keySet().equals(Set.of(10L)) && errors.get(10L).contains("cache down")), any());
+        assertThat(meterRegistry.get("outbox.events").tag("type", "ProductChanged").tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownTypeOrBadPayload_failsTheEvent() throws Exception {
+        OutboxEvent unknown = row(10L, new ProductChanged(3L, ProductChanged.Change.UPDATED));
+        unknown.setEventType("OrderShipped");
+        OutboxEvent unreadable = row(11L, new ProductChanged(3L, ProductChanged.Change.UPDATED));
+        unreadable.setPayload("{\"productId\":");
+        when(outboxStore.claim(any())).thenReturn(List.of(unknown, unreadable));
+        when(outboxStore.complete(any(), any(), any())).thenReturn(List.of());
+
+        relay.relayBatch();
+
+        assertThat(productHandler.received).isEmpty();
+        verify(outboxStore).complete(eq(List.of()), argThat(errors -> errors.keySet().equals(Set.of(10L, 11L))), any());
+    }
+
+    @Test
+    void eventsOutOfAttempts_areCountedAsAbandoned() throws Exception {
+        productHandler.failWith = new IllegalStateException("cache down");
+        OutboxEvent row = row(10L, new ProductChanged(3L, ProductChanged.Change.UPDATED));
+        when(outboxStore.claim(any())).thenReturn(List.of(row));
+        when(outboxStore.complete(any(), any(), any())).thenReturn(List.of(row));
+
+        relay.relayBatch();
+
+        assertThat(meterRegistry.get("outbox.events").tag("outcome", "abandoned").counter().count()).isEqualTo(1);
+    }
+
+    private OutboxEvent row(Long id, DomainEvent event) throws Exception {
+        OutboxEvent row = new OutboxEvent();
+        row.setId(id);
+        row.setEventType(event.getClass().getSimpleName());
+        row.setAggregateId(event.aggregateId());
+        row.setPayload(objectMapper.writeValueAsString(event));
+        row.setCreatedAt(OffsetDateTime.now());
+        row.setAvailableAt(OffsetDateTime.now());
+        return row;
+    }
+
+    private static class RecordingHandler<E extends DomainEvent> implements DomainEventHandler<E> {
+        private final Class<E> type;
+        private final List<E> received = new ArrayList<>();
+        private RuntimeException failWith;
+
+        RecordingHandler(Class<E> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Class<E> eventType() {
+            return type;
+        }
+
+        @Override
+        public void handle(E event) {
+            if (failWith != null) throw failWith;
+            received.add(event);
+        }
+    }
+}
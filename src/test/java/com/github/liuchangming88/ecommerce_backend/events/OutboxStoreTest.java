@@ -0,0 +1,113 @@
+package com.github.liuchangming88.ecommerce_backend.events;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.OutboxProperties;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OutboxStoreTest {
+
+    @Autowired
+    private Outbox outbox;
+
+    @Autowired
+    private OutboxStore outboxStore;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxProperties props;
+
+    // Events committed by other tests (orders placed outside a test transaction) are not this test's business
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void append_requiresTransaction() {
+        assertThatThrownBy(() -> outbox.append(new ProductChanged(1L, ProductChanged.Change.UPDATED)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    // Times are truncated to the column's precision, so stored values compare equal to them
+    @Test
+    @Transactional
+    void claim_returnsDueEventsOnceUntilLeaseEnds() {
+        outbox.append(new OrderPaid(1L, 2L, "ref-1", new BigDecimal("30.00"), "VND"));
+        outbox.append(new ProductChanged(3L, ProductChanged.Change.DELETED));
+        OffsetDateTime now = OffsetDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.MICROS);
+
+        List<OutboxEvent> claimed = outboxStore.claim(now);
+
+        assertThat(claimed).extracting(OutboxEvent::getEventType).containsExactly("OrderPaid", "ProductChanged");
+        assertThat(claimed.get(0).getAggregateId()).isEqualTo(1L);
+        assertThat(claimed.get(0).getPayload()).contains("\"txnRef\":\"ref-1\"");
+        assertThat(outboxStore.claim(now)).isEmpty();
+        assertThat(outboxStore.claim(now.plus(props.getLease()))).hasSize(2);
+    }
+
+    @Test
+    @Transactional
+    void complete_publishesAndBacksOffFailures() {
+        outbox.append(new ProductChanged(1L, ProductChanged.Change.CREATED));
+        outbox.append(new ProductChanged(2L, ProductChanged.Change.CREATED));
+        OffsetDateTime now = OffsetDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.MICROS);
+        List<OutboxEvent> claimed = outboxStore.claim(now);
+        Long published = claimed.get(0).getId();
+        Long failed = claimed.get(1).getId();
+
+        List<OutboxEvent> abandoned = outboxStore.complete(List.of(published), Map.of(failed, "boom"), now);
+
+        assertThat(abandoned).isEmpty();
+        assertThat(outboxEventRepository.findById(published).orElseThrow().getPublishedAt()).isEqualTo(now);
+        OutboxEvent retry = outboxEventRepository.findById(failed).orElseThrow();
+        assertThat(retry.getAttempts()).isEqualTo(1);
+        assertThat(retry.getLastError()).isEqualTo("boom");
+        assertThat(retry.getAvailableAt()).isEqualTo(now.plus(props.getRetryDelay()));
+        // Published events are never handed out again; the failed one is once its backoff has passed
+        assertThat(outboxStore.claim(now.plus(props.getRetryDelay()))).extracting(OutboxEvent::getId).containsExactly(failed);
+    }
+
+    @Test
+    @Transactional
+    void complete_returnsEventsOutOfAttempts_andStopsClaimingThem() {
+        outbox.append(new ProductChanged(1L, ProductChanged.Change.UPDATED));
+        OffsetDateTime now = OffsetDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.MICROS);
+        OutboxEvent event = outboxStore.claim(now).get(0);
+        event.setAttempts(props.getMaxAttempts() - 1);
+
+        List<OutboxEvent> abandoned = outboxStore.complete(List.of(), Map.of(event.getId(), "boom"), now);
+
+        assertThat(abandoned).extracting(OutboxEvent::getId).containsExactly(event.getId());
+        assertThat(outboxStore.claim(now.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void purgePublished_deletesOnlyPublishedEventsPastRetention() {
+        outbox.append(new ProductChanged(1L, ProductChanged.Change.UPDATED));
+        outbox.append(new ProductChanged(2L, ProductChanged.Change.UPDATED));
+        OffsetDateTime now = OffsetDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.MICROS);
+        List<OutboxEvent> claimed = outboxStore.claim(now);
+        outboxStore.complete(List.of(claimed.get(0).getId()), Map.of(), now);
+
+        assertThat(outboxStore.purgePublished(now)).isZero();
+        assertThat(outboxStore.purgePublished(now.plus(props.getRetention()).plusSeconds(1))).isEqualTo(1);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getId).containsExactly(claimed.get(1).getId());
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.liuchangming88.ecommerce_backend.jobs;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.JobRunResponse;
+import com.github.liuchangming88.ecommerce_backend.configuration.JobSchedulerProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JobScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null && scheduler.isRunning()) scheduler.stop();
+    }
+
+    @Test
+    void trigger_whileRunning_isSkipped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        start(Duration.ofSeconds(10), context -> {
+            started.countDown();
+            await(release);
+            context.batch(3);
+        });
+
+        assertThat(scheduler.trigger("test")).isTrue();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.trigger("test")).isFalse();
+        release.countDown();
+
+        List<JobRunResponse> runs = awaitRuns(2);
+        assertThat(runs).extracting(JobRunResponse::getOutcome).containsExactly(JobOutcome.COMPLETED, JobOutcome.SKIPPED);
+        assertThat(runs.get(0).getRowsProcessed()).isEqualTo(3);
+        assertThat(meterRegistry.get("jobs.skipped").tag("job", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void run_stopsBetweenBatchesOnceBudgetIsSpent() {
+        start(Duration.ofMillis(50), context -> {
+            do {
+                sleep(10);
+                context.batch(1);
+            } while (context.hasTimeLeft());
+        });
+
+        scheduler.trigger("test");
+
+        JobRunResponse run = awaitRuns(1).get(0);
+        assertThat(run.getOutcome()).isEqualTo(JobOutcome.PARTIAL);
+        assertThat(run.getRowsProcessed()).isPositive();
+        assertThat(run.getDurationMs()).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void run_failure_isRecordedWithMessage() {
+        start(Duration.ofSeconds(10), context -> {
+            throw new IllegalStateException("boom");
+        });
+
+        scheduler.trigger("test");
+
+        JobRunResponse run = awaitRuns(1).get(0);
+        assertThat(run.getOutcome()).isEqualTo(JobOutcome.FAILED);
+        assertThat(run.getError()).isEqualTo("boom");
+        assertThat(meterRegistry.get("jobs.run").tag("outcome", "failed").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void stop_letsRunningJobFinishItsBatch() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        start(Duration.ofMinutes(1), context -> {
+            started.countDown();
+            do {
+                sleep(5);
+                context.batch(1);
+            } while (context.hasTimeLeft());
+        });
+
+        scheduler.trigger("test");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        scheduler.stop();
+
+        assertThat(scheduler.isRunning()).isFalse();
+        assertThat(scheduler.getRuns("test")).singleElement()
+                .extracting(JobRunResponse::getOutcome).isEqualTo(JobOutcome.PARTIAL);
+    }
+
+    @Test
+    void history_keepsOnlyMostRecentRuns() {
+        start(Duration.ofSeconds(10), context -> context.batch(1));
+
+        for (int i = 0; i < 5; i++) {
+            scheduler.trigger("test");
+            awaitRuns(Math.min(i + 1, 3));
+            awaitIdle();
+        }
+
+        assertThat(scheduler.getRuns("test")).hasSize(3);
+    }
+
+    @Test
+    void getRuns_unknownJob_throwsResourceNotFoundException() {
+        start(Duration.ofSeconds(10), context -> { });
+
+        assertThatThrownBy(() -> scheduler.getRuns("nope")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void start(Duration timeBudget, Consumer<JobContext> body) {
+        JobSchedulerProperties properties = new JobSchedulerProperties();
+        properties.setHistorySize(3);
+        properties.setShutdownTimeout(Duration.ofSeconds(5));
+        JobSchedulerProperties.Job settings = new JobSchedulerProperties.Job();
+        // Only manual triggers, so the tests control when runs happen
+        settings.setEnabled(false);
+        settings.setTimeBudget(timeBudget);
+        properties.getDefinitions().put("test", settings);
+
+        MaintenanceJob job = new MaintenanceJob() {
+            @Override
+            public String name() {
+                return "test";
+            }
+
+            @Override
+            public void run(JobContext context) {
+                body.accept(context);
+            }
+        };
+        scheduler = new JobScheduler(List.of(job), properties, new JobMetrics(meterRegistry));
+        scheduler.start();
+    }
+
+    private List<JobRunResponse> awaitRuns(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            List<JobRunResponse> runs = scheduler.getRuns("test");
+            if (runs.size() >= count) return runs;
+            sleep(5);
+        }
+        throw new AssertionError("Expected " + count + " runs, got " + scheduler.getRuns("test"));
+    }
+
+    private void awaitIdle() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getJobs().get(0).isRunning()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Job still running");
+            sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
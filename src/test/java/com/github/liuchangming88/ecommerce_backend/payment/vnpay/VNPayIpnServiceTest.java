@@ -1,11 +1,16 @@
 package com.github.liuchangming88.ecommerce_backend.payment.vnpay;
 
+import com.github.liuchangming88.ecommerce_backend.events.OrderPaid;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
 import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import com.github.liuchangming88.ecommerce_backend.payment.Payment;
 import com.github.liuchangming88.ecommerce_backend.payment.PaymentRepository;
 import com.github.liuchangming88.ecommerce_backend.payment.PaymentStatus;
 import com.github.liuchangming88.ecommerce_backend.payment.dto.IpnResponse;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderViewProjector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -23,6 +28,9 @@ public class VNPayIpnServiceTest {
     private PaymentRepository paymentRepository;
     private VNPayProperties props;
     private VNPayIpnService ipnService;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderViewProjector orderViewProjector;
+    private Outbox outbox;
 
     private static final String SECRET = "demoSecret";
     private static final String TMN_CODE = "DEMOTMN1";
@@ -33,7 +41,10 @@ public class VNPayIpnServiceTest {
         props = Mockito.mock(VNPayProperties.class);
         when(props.getHashSecret()).thenReturn(SECRET);
         when(props.getTmnCode()).thenReturn(TMN_CODE);
-        ipnService = new VNPayIpnService(paymentRepository, props);
+        meterRegistry = new SimpleMeterRegistry();
+        orderViewProjector = Mockito.mock(OrderViewProjector.class);
+        outbox = Mockito.mock(Outbox.class);
+        ipnService = new VNPayIpnService(paymentRepository, props, meterRegistry, orderViewProjector, outbox);
     }
 
     // ---- Existing tests (unchanged) ----
@@ -43,6 +54,7 @@ public class VNPayIpnServiceTest {
         params.put("vnp_SecureHash", "deadbeef");
         IpnResponse resp = ipnService.processIpnRequestAndReturnToVNPayServer(params);
         assertThat(resp.getRspCode()).isEqualTo("97");
+        assertThat(meterRegistry.get("vnpay.ipn").tag("rsp_code", "97").timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -75,6 +87,8 @@ public class VNPayIpnServiceTest {
         assertThat(p.getResponseCode()).isEqualTo("00");
         assertThat(p.getTransactionNo()).isNotBlank();
         assertThat(p.getRawParams()).doesNotContain("vnp_SecureHash=");
+        Mockito.verify(orderViewProjector).statusChanged(p.getLocalOrder());
+        Mockito.verify(outbox).append(new OrderPaid(30L, 7L, "REF3", BigDecimal.valueOf(150_000), "VND"));
     }
 
     @Test
@@ -86,6 +100,7 @@ public class VNPayIpnServiceTest {
         IpnResponse resp = ipnService.processIpnRequestAndReturnToVNPayServer(params);
         assertThat(resp.getRspCode()).isEqualTo("02");
         assertThat(p.getStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+        Mockito.verifyNoInteractions(orderViewProjector, outbox);
     }
 
     @Test
@@ -98,6 +113,7 @@ public class VNPayIpnServiceTest {
         assertThat(p.getStatus()).isEqualTo(PaymentStatus.FAILED);
         assertThat(p.getLocalOrder().getStatus()).isEqualTo(OrderStatus.FAILED);
         assertThat(p.getResponseCode()).isEqualTo("24");
+        Mockito.verifyNoInteractions(outbox);
     }
 
     @Test
@@ -214,6 +230,7 @@ public class VNPayIpnServiceTest {
         IpnResponse resp = ipnService.processIpnRequestAndReturnToVNPayServer(params);
         assertThat(resp.getRspCode()).isEqualTo("00");
         assertThat(p.getLocalOrder().getStatus()).isEqualTo(OrderStatus.PAID); // unchanged
+        Mockito.verifyNoInteractions(outbox);
     }
 
     @Test
@@ -374,8 +391,13 @@ public class VNPayIpnServiceTest {
         Payment p = new Payment();
         p.setTxnRef(ref);
         p.setAmount(BigDecimal.valueOf(amountVnd));
+        p.setCurrency("VND");
         p.setStatus(PaymentStatus.INITIATED);
+        LocalUser user = new LocalUser();
+        user.setId(7L);
         LocalOrder o = new LocalOrder();
+        o.setId(30L);
+        o.setLocalUser(user);
         o.setStatus(OrderStatus.PENDING);
         p.setLocalOrder(o);
         return p;
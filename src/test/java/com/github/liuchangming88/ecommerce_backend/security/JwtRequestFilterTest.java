@@ -3,6 +3,7 @@ package com.github.liuchangming88.ecommerce_backend.security;
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.github.liuchangming88.ecommerce_backend.exception.DatabaseBusyException;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import com.github.liuchangming88.ecommerce_backend.model.user.repository.LocalUserRepository;
 import com.github.liuchangming88.ecommerce_backend.service.infrastructure.JwtService;
@@ -13,6 +14,7 @@ import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -175,4 +177,37 @@ class JwtRequestFilterTest {
         assertThat(resp.getContentType()).isEqualTo("application/json"); // kills removed setContentType mutant
         assertThat(resp.getContentAsString()).isNotBlank(); // kills removed println mutant
     }
-}
\ No newline at end of file
+
+    @Test
+    void databaseBusyDuringUserLookup_returns503_withRetryAfter() throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.setRequestURI("/api/protected");
+        req.addHeader("Authorization", "Bearer goodToken");
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        when(jwtService.getSubject("goodToken")).thenReturn("john");
+        when(userRepo.findByUsernameIgnoreCase("john")).thenThrow(new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction", new DatabaseBusyException("busy")));
+
+        filter.doFilter(req, resp, chain);
+
+        assertThat(resp.getStatus()).isEqualTo(503);
+        assertThat(resp.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(resp.getContentAsString()).contains("\"error\": \"Service Unavailable\"");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void otherRuntimeExceptions_propagate() {
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.setRequestURI("/api/protected");
+        req.addHeader("Authorization", "Bearer goodToken");
+
+        when(jwtService.getSubject("goodToken")).thenReturn("john");
+        when(userRepo.findByUsernameIgnoreCase("john")).thenThrow(new IllegalStateException("boom"));
+
+        assertThatThrownBy(() -> filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
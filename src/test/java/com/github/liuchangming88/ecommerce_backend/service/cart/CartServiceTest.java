@@ -0,0 +1,179 @@
+package com.github.liuchangming88.ecommerce_backend.service.cart;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.*;
+import com.github.liuchangming88.ecommerce_backend.configuration.CartProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.CartLimitException;
+import com.github.liuchangming88.ecommerce_backend.exception.InsufficientStockException;
+import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.service.order.CheckoutAdmission;
+import com.github.liuchangming88.ecommerce_backend.service.order.OrderService;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductCacheStore;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class CartServiceTest {
+
+    @Mock CartStore cartStore;
+    @Mock ProductCacheStore productCacheStore;
+    @Mock ProductService productService;
+    @Mock OrderService orderService;
+    @Mock CheckoutAdmission checkoutAdmission;
+    @Spy CartProperties props = new CartProperties();
+    @InjectMocks CartService cartService;
+
+    private static ProductResponse product(long id, String price, long stock) {
+        return new ProductResponse(id, "Product #" + id, "short", "long", new BigDecimal(price), stock);
+    }
+
+    private static SortedMap<Long, Integer> cart(long productId, int quantity, Object... more) {
+        SortedMap<Long, Integer> items = new TreeMap<>();
+        items.put(productId, quantity);
+        for (int i = 0; i < more.length; i += 2) items.put(((Number) more[i]).longValue(), (Integer) more[i + 1]);
+        return items;
+    }
+
+    @Test
+    void getCart_allProductsCached_pricesFromTheCacheOnly() {
+        when(cartStore.getItems(7L)).thenReturn(cart(1L, 2, 2L, 5));
+        when(productCacheStore.getAll(Set.of(1L, 2L))).thenReturn(new HashMap<>(Map.of(
+                1L, product(1, "5.50", 10), 2L, product(2, "10.00", 3))));
+
+        CartResponse cart = cartService.getCart(7L);
+
+        assertThat(cart.getTotal()).isEqualByComparingTo("61.00");
+        assertThat(cart.getItems()).extracting(CartLineResponse::getProductId).containsExactly(1L, 2L);
+        assertThat(cart.getItems()).extracting(CartLineResponse::isInStock).containsExactly(true, false);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getCart_cacheMisses_loadedThroughProductService_deletedProductsPruned() {
+        when(cartStore.getItems(7L)).thenReturn(cart(1L, 1, 2L, 1, 3L, 1));
+        when(productCacheStore.getAll(Set.of(1L, 2L, 3L))).thenReturn(new HashMap<>(Map.of(1L, product(1, "1.00", 10))));
+        when(productService.getProducts(List.of(2L, 3L))).thenReturn(List.of(product(2, "2.00", 10)));
+
+        CartResponse cart = cartService.getCart(7L);
+
+        assertThat(cart.getItems()).extracting(CartLineResponse::getProductId).containsExactly(1L, 2L);
+        assertThat(cart.getTotal()).isEqualByComparingTo("3.00");
+        verify(cartStore).remove(7L, 3L);
+        verify(cartStore, never()).remove(7L, 1L);
+    }
+
+    @Test
+    void addItem_addsToTheExistingQuantity() {
+        when(productCacheStore.getAll(List.of(1L))).thenReturn(new HashMap<>(Map.of(1L, product(1, "5.50", 10))));
+        when(productCacheStore.getAll(Set.of(1L))).thenReturn(new HashMap<>(Map.of(1L, product(1, "5.50", 10))));
+        when(cartStore.add(7L, 1L, 3, 999, 100)).thenReturn(5);
+        when(cartStore.getItems(7L)).thenReturn(cart(1L, 5));
+
+        CartResponse cart = cartService.addItem(7L, new ItemRequest(1L, 3));
+
+        assertThat(cart.getItems().get(0).getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void addItem_unknownProduct_throwsNotFound() {
+        when(productCacheStore.getAll(List.of(9L))).thenReturn(new HashMap<>());
+        when(productService.getProducts(List.of(9L))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> cartService.addItem(7L, new ItemRequest(9L, 1)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(cartStore, never()).add(anyLong(), anyLong(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void addItem_overALimit_isRejectedByTheStore() {
+        props.setMaxItems(1);
+        when(productCacheStore.getAll(List.of(2L))).thenReturn(new HashMap<>(Map.of(2L, product(2, "5.50", 10))));
+        when(cartStore.add(7L, 2L, 1, 999, 1)).thenThrow(CartLimitException.tooManyProducts(1));
+
+        assertThatThrownBy(() -> cartService.addItem(7L, new ItemRequest(2L, 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 1 different products");
+        verify(cartStore, never()).getItems(anyLong());
+    }
+
+    @Test
+    void updateItem_notInCart_throwsNotFound() {
+        when(cartStore.getItems(7L)).thenReturn(new TreeMap<>());
+
+        assertThatThrownBy(() -> cartService.updateItem(7L, 1L, new CartItemUpdateRequest(2)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void checkout_placesTheOrderBehindAdmission_andEmptiesTheCart() {
+        LocalUser user = new LocalUser();
+        user.setId(7L);
+        when(cartStore.getItems(7L)).thenReturn(cart(1L, 2, 3L, 1));
+        when(productCacheStore.getAll(Set.of(1L, 3L))).thenReturn(new HashMap<>(Map.of(
+                1L, product(1, "1.00", 10), 3L, product(3, "3.00", 10))));
+        when(checkoutAdmission.checkout(eq(7L), anyList(), eq("ticket"), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(3).get());
+        OrderResponse placed = new OrderResponse();
+        when(orderService.createOrder(eq(user), any())).thenReturn(placed);
+
+        assertThat(cartService.checkout(user, new CartCheckoutRequest(4L), "ticket")).isSameAs(placed);
+
+        ArgumentCaptor<CreateOrderRequest> request = ArgumentCaptor.forClass(CreateOrderRequest.class);
+        verify(orderService).createOrder(eq(user), request.capture());
+        assertThat(request.getValue().getAddressId()).isEqualTo(4L);
+        assertThat(request.getValue().getItems()).extracting(ItemRequest::getProductId, ItemRequest::getQuantity)
+                .containsExactly(tuple(1L, 2), tuple(3L, 1));
+        verify(cartStore).clear(7L);
+    }
+
+    @Test
+    void checkout_failedOrder_keepsTheCart() {
+        LocalUser user = new LocalUser();
+        user.setId(7L);
+        when(cartStore.getItems(7L)).thenReturn(cart(1L, 2));
+        when(productCacheStore.getAll(Set.of(1L))).thenReturn(new HashMap<>(Map.of(1L, product(1, "1.00", 10))));
+        when(checkoutAdmission.checkout(eq(7L), anyList(), isNull(), any()))
+                .thenThrow(new InsufficientStockException("no stock", 1L));
+
+        assertThatThrownBy(() -> cartService.checkout(user, new CartCheckoutRequest(4L), null))
+                .isInstanceOf(InsufficientStockException.class);
+        verify(cartStore, never()).clear(anyLong());
+    }
+
+    @Test
+    void checkout_deletedProduct_isPrunedAndTheCheckoutRefused() {
+        LocalUser user = new LocalUser();
+        user.setId(7L);
+        when(cartStore.getItems(7L)).thenReturn(cart(1L, 2, 3L, 1));
+        when(productCacheStore.getAll(Set.of(1L, 3L))).thenReturn(new HashMap<>(Map.of(1L, product(1, "1.00", 10))));
+        when(productService.getProducts(List.of(3L))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> cartService.checkout(user, new CartCheckoutRequest(4L), null))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("[3]");
+        verify(cartStore).remove(7L, 3L);
+        verify(cartStore, never()).clear(anyLong());
+        verifyNoInteractions(checkoutAdmission, orderService);
+    }
+
+    @Test
+    void checkout_emptyCart_isRejected() {
+        LocalUser user = new LocalUser();
+        user.setId(7L);
+        when(cartStore.getItems(7L)).thenReturn(new TreeMap<>());
+
+        assertThatThrownBy(() -> cartService.checkout(user, new CartCheckoutRequest(4L), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(orderService);
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.liuchangming88.ecommerce_backend.service.cart;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.CartProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.CartLimitException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RedisCartStore against a real Redis, for the parts a mock can't show: HINCRBY and the limit script, the TTL
+ * renewed by writes, and deletes. Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisCartStoreTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    static LettuceConnectionFactory connectionFactory;
+    static StringRedisTemplate redisTemplate;
+
+    CartProperties props = new CartProperties();
+    RedisCartStore store;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        props.setTtl(Duration.ofHours(1));
+        store = new RedisCartStore(redisTemplate, props);
+    }
+
+    @Test
+    void add_incrementsTheLine_andRenewsTheTtl() {
+        assertThat(store.add(7L, 1L, 2, 10, 5)).isEqualTo(2);
+        redisTemplate.expire("cart:7", Duration.ofSeconds(5));
+
+        assertThat(store.add(7L, 1L, 3, 10, 5)).isEqualTo(5);
+
+        assertThat(redisTemplate.opsForHash().entries("cart:7")).isEqualTo(Map.of("1", "5"));
+        assertThat(redisTemplate.getExpire("cart:7", TimeUnit.SECONDS)).isGreaterThan(3500);
+        assertThat(store.getItems(7L)).containsExactly(Map.entry(1L, 5));
+    }
+
+    @Test
+    void add_overMaxQuantity_writesNothing() {
+        store.add(7L, 1L, 8, 10, 5);
+
+        assertThatThrownBy(() -> store.add(7L, 1L, 3, 10, 5)).isInstanceOf(CartLimitException.class);
+        assertThat(store.getItems(7L)).containsExactly(Map.entry(1L, 8));
+    }
+
+    @Test
+    void add_newLineInAFullCart_writesNothing_butExistingLinesStillGrow() {
+        store.add(7L, 1L, 1, 10, 2);
+        store.add(7L, 2L, 1, 10, 2);
+
+        assertThatThrownBy(() -> store.add(7L, 3L, 1, 10, 2)).isInstanceOf(CartLimitException.class);
+        assertThat(store.add(7L, 2L, 1, 10, 2)).isEqualTo(2);
+        assertThat(store.getItems(7L)).containsOnlyKeys(1L, 2L);
+    }
+
+    @Test
+    void set_replacesTheQuantity_andRenewsTheTtl() {
+        store.add(7L, 1L, 4, 10, 5);
+        redisTemplate.expire("cart:7", Duration.ofSeconds(5));
+
+        store.set(7L, 1L, 1);
+
+        assertThat(store.getItems(7L)).containsExactly(Map.entry(1L, 1));
+        assertThat(redisTemplate.getExpire("cart:7", TimeUnit.SECONDS)).isGreaterThan(3500);
+    }
+
+    @Test
+    void remove_andClear_deleteLinesAndTheCart() {
+        store.add(7L, 1L, 1, 10, 5);
+        store.add(7L, 2L, 1, 10, 5);
+
+        assertThat(store.remove(7L, 1L)).isTrue();
+        assertThat(store.remove(7L, 1L)).isFalse();
+        assertThat(store.getItems(7L)).containsOnlyKeys(2L);
+
+        store.clear(7L);
+        assertThat(redisTemplate.hasKey("cart:7")).isFalse();
+        assertThat(store.getItems(7L)).isEmpty();
+    }
+}
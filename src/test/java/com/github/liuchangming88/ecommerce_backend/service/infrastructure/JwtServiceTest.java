@@ -6,6 +6,7 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import com.github.liuchangming88.ecommerce_backend.model.user.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -17,10 +18,12 @@ import static org.junit.jupiter.api.Assertions.*;
 public class JwtServiceTest {
 
     private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     public void setUp() {
-        jwtService = new JwtService();
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(meterRegistry);
         // Inject test-specific values
         ReflectionTestUtils.setField(jwtService, "algorithmKey", "test-secret-key");
         ReflectionTestUtils.setField(jwtService, "issuer", "test-issuer");
@@ -42,6 +45,7 @@ public class JwtServiceTest {
         // Assert
         assertNotNull(token, "Token should not be null");
         assertEquals("testUser", extractedUsername);
+        assertEquals(1, meterRegistry.get("jwt.verify").tag("outcome", "valid").timer().count());
     }
 
     @Test
@@ -62,6 +66,7 @@ public class JwtServiceTest {
                 JWTVerificationException.class,
                 () -> jwtService.getSubject(token)
         );
+        assertEquals(1, meterRegistry.get("jwt.verify").tag("outcome", "invalid").timer().count());
     }
 
     @Test
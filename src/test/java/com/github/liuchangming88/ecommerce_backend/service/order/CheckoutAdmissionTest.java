@@ -0,0 +1,216 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.CheckoutTicketResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.ItemRequest;
+import com.github.liuchangming88.ecommerce_backend.configuration.CheckoutAdmissionProperties;
+import com.github.liuchangming88.ecommerce_backend.exception.CheckoutQueuedException;
+import com.github.liuchangming88.ecommerce_backend.exception.InsufficientStockException;
+import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class CheckoutAdmissionTest {
+
+    static final long PRODUCT = 1L;
+
+    InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MutableClock clock = new MutableClock();
+    CheckoutAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        CheckoutAdmissionProperties props = new CheckoutAdmissionProperties();
+        props.setMaxConcurrentPerProduct(1);
+        admission = new CheckoutAdmission(props, inventoryRepository, meterRegistry, clock);
+        when(inventoryRepository.findQuantityByProductId(PRODUCT)).thenReturn(Optional.of(10L));
+    }
+
+    @Test
+    void soldOut_rejectedWithoutCheckout_andStockReadOncePerInterval() {
+        when(inventoryRepository.findQuantityByProductId(PRODUCT)).thenReturn(Optional.of(0L));
+        AtomicInteger checkouts = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> admission.checkout(7L, items(1), null, checkouts::incrementAndGet))
+                    .isInstanceOf(InsufficientStockException.class);
+        }
+
+        assertThat(checkouts).hasValue(0);
+        verify(inventoryRepository, times(1)).findQuantityByProductId(PRODUCT);
+        assertThat(meterRegistry.counter("orders.admission", "outcome", "sold_out").count()).isEqualTo(3);
+    }
+
+    @Test
+    void busyProduct_queuesWithTicket_andAdmitsItOnceTheSlotIsFree() {
+        CheckoutQueuedException[] queued = new CheckoutQueuedException[2];
+
+        admission.checkout(7L, items(1), null, () -> {
+            queued[0] = catchQueued(() -> admission.checkout(8L, items(1), null, () -> "second"));
+            queued[1] = catchQueued(() -> admission.checkout(9L, items(1), null, () -> "third"));
+            return "first";
+        });
+
+        CheckoutTicketResponse second = queued[0].getTicket();
+        assertThat(second.getStatus()).isEqualTo("WAITING");
+        assertThat(queued[1].getTicket().getPosition()).isEqualTo(2);
+        assertThat(meterRegistry.get("orders.admission.waiting").gauge().value()).isEqualTo(1);
+
+        // The first checkout finished: the head of the line holds the slot, the rest moved up
+        assertThat(admission.ticketStatus(8L, second.getTicket()).getStatus()).isEqualTo("ADMITTED");
+        assertThat(admission.ticketStatus(9L, queued[1].getTicket().getTicket()).getPosition()).isEqualTo(1);
+        assertThatThrownBy(() -> admission.checkout(10L, items(1), null, () -> "overtaking"))
+                .isInstanceOf(CheckoutQueuedException.class);
+
+        assertThat(admission.checkout(8L, items(1), second.getTicket(), () -> "second")).isEqualTo("second");
+        assertThat(admission.ticketStatus(9L, queued[1].getTicket().getTicket()).getStatus()).isEqualTo("ADMITTED");
+    }
+
+    @Test
+    void askingAgainWhileWaiting_keepsTheSameTicket() {
+        admission.checkout(7L, items(1), null, () -> {
+            String first = catchQueued(() -> admission.checkout(8L, items(1), null, () -> "x")).getTicket().getTicket();
+            String again = catchQueued(() -> admission.checkout(8L, items(1), null, () -> "x")).getTicket().getTicket();
+            String withTicket = catchQueued(() -> admission.checkout(8L, items(1), first, () -> "x")).getTicket().getTicket();
+            assertThat(again).isEqualTo(first);
+            assertThat(withTicket).isEqualTo(first);
+            return "first";
+        });
+    }
+
+    @Test
+    void ticketOfAnotherUser_isNotFound() {
+        String ticket = admission.checkout(7L, items(1), null,
+                () -> catchQueued(() -> admission.checkout(8L, items(1), null, () -> "x")).getTicket().getTicket());
+
+        assertThatThrownBy(() -> admission.ticketStatus(9L, ticket)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> admission.ticketStatus(8L, "unknown")).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void unusedAdmission_expires_andFreesTheSlot() {
+        String ticket = admission.checkout(7L, items(1), null,
+                () -> catchQueued(() -> admission.checkout(8L, items(1), null, () -> "x")).getTicket().getTicket());
+        assertThat(admission.ticketStatus(8L, ticket).getStatus()).isEqualTo("ADMITTED");
+
+        clock.advance(Duration.ofSeconds(31));
+
+        assertThat(admission.checkout(9L, items(1), null, () -> "next")).isEqualTo("next");
+        assertThat(admission.ticketStatus(8L, ticket).getStatus()).isEqualTo("EXPIRED");
+    }
+
+    @Test
+    void insufficientStockInCheckout_lowersTheKnownLevel() {
+        assertThatThrownBy(() -> admission.checkout(7L, items(5), null, () -> {
+            throw new InsufficientStockException("only 3 left", PRODUCT);
+        })).isInstanceOf(InsufficientStockException.class);
+
+        AtomicInteger checkouts = new AtomicInteger();
+        assertThatThrownBy(() -> admission.checkout(8L, items(5), null, checkouts::incrementAndGet))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThat(checkouts).hasValue(0);
+        assertThat(admission.checkout(9L, items(4), null, () -> "fits")).isEqualTo("fits");
+    }
+
+    @Test
+    void successfulCheckouts_countDownTheKnownLevel() {
+        when(inventoryRepository.findQuantityByProductId(PRODUCT)).thenReturn(Optional.of(2L));
+
+        admission.checkout(7L, items(2), null, () -> "all of it");
+
+        assertThatThrownBy(() -> admission.checkout(8L, items(1), null, () -> "none left"))
+                .isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    void productWithoutInventory_isReadOncePerInterval_andLeftToCheckout() {
+        when(inventoryRepository.findQuantityByProductId(99L)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> admission.checkout(7L, List.of(new ItemRequest(99L, 1)), null, () -> {
+                throw new ResourceNotFoundException("Product with id 99 not found");
+            })).isInstanceOf(ResourceNotFoundException.class);
+        }
+        verify(inventoryRepository, times(1)).findQuantityByProductId(99L);
+
+        clock.advance(Duration.ofSeconds(3));
+        assertThatThrownBy(() -> admission.checkout(7L, List.of(new ItemRequest(99L, 1)), null, () -> {
+            throw new ResourceNotFoundException("Product with id 99 not found");
+        })).isInstanceOf(ResourceNotFoundException.class);
+        verify(inventoryRepository, times(2)).findQuantityByProductId(99L);
+    }
+
+    @Test
+    void idleProducts_areForgotten_butNotWhileAnAdmissionIsHeld() {
+        CheckoutAdmissionProperties props = new CheckoutAdmissionProperties();
+        props.setMaxConcurrentPerProduct(1);
+        props.setAbandonAfter(Duration.ofSeconds(10));
+        admission = new CheckoutAdmission(props, inventoryRepository, meterRegistry, clock);
+        when(inventoryRepository.findQuantityByProductId(2L)).thenReturn(Optional.of(10L));
+
+        for (long id = 100; id < 110; id++) {
+            admission.checkout(7L, List.of(new ItemRequest(id, 1)), null, () -> "unknown product");
+        }
+        String ticket = admission.checkout(7L, items(1), null,
+                () -> catchQueued(() -> admission.checkout(8L, items(1), null, () -> "x")).getTicket().getTicket());
+        assertThat(admission.trackedProducts()).isEqualTo(11);
+
+        clock.advance(Duration.ofSeconds(11));
+        admission.checkout(9L, List.of(new ItemRequest(2L, 1)), null, () -> "other product");
+
+        assertThat(admission.trackedProducts()).isEqualTo(2);
+        assertThat(admission.ticketStatus(8L, ticket).getStatus()).isEqualTo("ADMITTED");
+        assertThat(admission.checkout(8L, items(1), ticket, () -> "admitted")).isEqualTo("admitted");
+    }
+
+    private static List<ItemRequest> items(int quantity) {
+        return List.of(new ItemRequest(PRODUCT, quantity));
+    }
+
+    private static CheckoutQueuedException catchQueued(Supplier<?> checkout) {
+        try {
+            checkout.get();
+        } catch (CheckoutQueuedException e) {
+            return e;
+        }
+        throw new AssertionError("checkout was not queued");
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
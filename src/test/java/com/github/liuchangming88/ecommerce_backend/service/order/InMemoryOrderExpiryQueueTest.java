@@ -0,0 +1,45 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryOrderExpiryQueueTest {
+
+    private final InMemoryOrderExpiryQueue queue = new InMemoryOrderExpiryQueue();
+    private final OffsetDateTime now = OffsetDateTime.parse("2025-01-01T12:00:00Z");
+
+    @Test
+    void pollDue_returnsOnlyExpiredOrdersEarliestFirst() {
+        queue.schedule(1L, now.minusSeconds(1));
+        queue.schedule(2L, now.minusSeconds(5));
+        queue.schedule(3L, now.plusSeconds(1));
+        queue.schedule(4L, now);
+
+        assertThat(queue.pollDue(now, 10)).containsExactly(2L, 1L);
+        assertThat(queue.pollDue(now, 10)).isEmpty();
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void pollDue_respectsMax() {
+        queue.schedule(1L, now.minusSeconds(3));
+        queue.schedule(2L, now.minusSeconds(2));
+        queue.schedule(3L, now.minusSeconds(1));
+
+        assertThat(queue.pollDue(now, 2)).containsExactly(1L, 2L);
+        assertThat(queue.pollDue(now, 2)).containsExactly(3L);
+    }
+
+    @Test
+    void schedule_sameOrderAgain_movesIt() {
+        queue.schedule(1L, now.minusSeconds(1));
+        queue.schedule(1L, now.plusMinutes(1));
+
+        assertThat(queue.pollDue(now, 10)).isEmpty();
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.pollDue(now.plusMinutes(2), 10)).containsExactly(1L);
+    }
+}
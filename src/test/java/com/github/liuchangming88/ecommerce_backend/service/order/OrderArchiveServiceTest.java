@@ -0,0 +1,86 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderHistoryRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderItemsResponse;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderResponse;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderArchiveServiceTest {
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        // Orders 1 (paid, with a payment) and 2 (failed) are old; 3 is old but still pending
+        OffsetDateTime old = now.minusDays(120);
+        jdbcTemplate.update("UPDATE local_order SET status = 'PAID', created_at = ? WHERE id = 1", old);
+        jdbcTemplate.update("UPDATE local_order SET status = 'FAILED', created_at = ? WHERE id = 2", old.plusDays(1));
+        jdbcTemplate.update("UPDATE local_order SET created_at = ? WHERE id = 3", old);
+        jdbcTemplate.update("""
+                INSERT INTO payment (id, local_order_id, status, provider, amount, currency, txn_ref, created_at)
+                VALUES (900, 1, 'SUCCEEDED', 'VNPAY', 30.00, 'VND', 'archive-test-1', ?)
+                """, old);
+    }
+
+    @Test
+    void archiveBatch_movesOldTerminalOrdersWithItemsAndPayments() {
+        int moved = orderArchiveService.archiveBatch(now.minusDays(90), 10);
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM local_order WHERE id IN (1, 2)")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM local_order_archive WHERE id IN (1, 2)")).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM local_order_items_archive WHERE local_order_id IN (1, 2)")).isEqualTo(5);
+        assertThat(count("SELECT COUNT(*) FROM payment_archive WHERE txn_ref = 'archive-test-1'")).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM payment WHERE id = 900")).isZero();
+        // Pending orders stay, whatever their age
+        assertThat(count("SELECT COUNT(*) FROM local_order WHERE id = 3")).isEqualTo(1);
+    }
+
+    @Test
+    void archiveBatch_respectsBatchSizeOldestFirst() {
+        assertThat(orderArchiveService.archiveBatch(now.minusDays(90), 1)).isEqualTo(1);
+
+        assertThat(count("SELECT COUNT(*) FROM local_order_archive WHERE id = 1")).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM local_order WHERE id = 2")).isEqualTo(1);
+    }
+
+    @Test
+    void archiveBatch_movesViewRows_andHistoryStillShowsTheOrders() {
+        orderArchiveService.archiveBatch(now.minusDays(90), 10);
+
+        assertThat(count("SELECT COUNT(*) FROM order_view WHERE order_id IN (1, 2)")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM order_view_archive WHERE order_id IN (1, 2)")).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM order_view WHERE order_id = 3")).isEqualTo(1);
+
+        List<OrderResponse> history = orderHistoryService.getOrderHistory(1L, new OrderHistoryRequest()).getOrders();
+        assertThat(history).extracting(OrderResponse::getId).contains(1L, 3L);
+        assertThat(history).filteredOn(order -> order.getId() == 1L).singleElement()
+                .satisfies(order -> assertThat(order.getItems()).extracting(OrderItemsResponse::getProductId)
+                        .containsExactlyInAnyOrder(1L, 2L));
+    }
+
+    private Integer count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
@@ -1,12 +1,15 @@
 package com.github.liuchangming88.ecommerce_backend.service.order;
 
+import com.github.liuchangming88.ecommerce_backend.events.OrderExpired;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrderItems;
 import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
 import com.github.liuchangming88.ecommerce_backend.model.order.repository.LocalOrderRepository;
-import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.repository.InventoryRepository;
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -23,6 +26,9 @@ import static org.mockito.Mockito.*;
 class OrderRestockServiceTest {
 
     @Mock LocalOrderRepository localOrderRepository;
+    @Mock InventoryRepository inventoryRepository;
+    @Mock OrderViewProjector orderViewProjector;
+    @Mock Outbox outbox;
     @InjectMocks OrderRestockService restockService;
 
     private static LocalOrder order(long id,
@@ -35,14 +41,14 @@ class OrderRestockServiceTest {
         o.setStatus(status);
         o.setRestocked(restocked);
         o.setExpiresAt(expiresAt);
+        LocalUser user = new LocalUser();
+        user.setId(7L);
+        o.setLocalUser(user);
         List<LocalOrderItems> lines = new ArrayList<>();
         int prodId = 1;
         for (int q : qtys) {
             Product p = new Product();
             p.setId((long) prodId++);
-            Inventory inv = new Inventory();
-            inv.setQuantity(100L);
-            p.setInventory(inv);
 
             LocalOrderItems li = new LocalOrderItems();
             li.setQuantity(q);
@@ -93,6 +99,7 @@ class OrderRestockServiceTest {
         assertThat(alreadyRestocked.isRestocked()).isTrue();
         assertThat(noExpiry.isRestocked()).isFalse();
         assertThat(notYetExpired.isRestocked()).isFalse();
+        verifyNoInteractions(orderViewProjector, outbox);
     }
 
     @Test
@@ -102,6 +109,7 @@ class OrderRestockServiceTest {
         when(localOrderRepository.findExpiredPendingOrderIds(eq(now), any(PageRequest.class)))
                 .thenReturn(List.of(10L));
         when(localOrderRepository.findById(10L)).thenReturn(Optional.of(expired));
+        when(localOrderRepository.releaseIfPending(10L, OrderStatus.FAILED, now)).thenReturn(1);
 
         int processed = restockService.failAndRestockExpired(now, 5);
 
@@ -109,10 +117,10 @@ class OrderRestockServiceTest {
         assertThat(expired.getStatus()).isEqualTo(OrderStatus.FAILED);
         assertThat(expired.isRestocked()).isTrue();
         // inventory +2 and +3 added
-        Long q1 = expired.getItems().get(0).getProduct().getInventory().getQuantity();
-        Long q2 = expired.getItems().get(1).getProduct().getInventory().getQuantity();
-        assertThat(q1).isEqualTo(102L);
-        assertThat(q2).isEqualTo(103L);
+        verify(inventoryRepository).incrementQuantity(1L, 2);
+        verify(inventoryRepository).incrementQuantity(2L, 3);
+        verify(orderViewProjector).statusChanged(expired);
+        verify(outbox).append(new OrderExpired(10L, 7L, now, List.of(1L, 2L)));
     }
 
     @Test
@@ -122,17 +130,47 @@ class OrderRestockServiceTest {
         when(localOrderRepository.findExpiredPendingOrderIds(eq(now), any(PageRequest.class)))
                 .thenReturn(List.of(50L));
         when(localOrderRepository.findById(50L)).thenReturn(Optional.of(expired));
+        when(localOrderRepository.releaseIfPending(50L, OrderStatus.FAILED, now)).thenReturn(1);
 
         int first = restockService.failAndRestockExpired(now, 1);
         assertThat(first).isEqualTo(1);
-        Long qtyAfterFirst = expired.getItems().get(0).getProduct().getInventory().getQuantity();
-        assertThat(qtyAfterFirst).isEqualTo(105L);
 
         // Second pass: restocked=true → skipped
         int second = restockService.failAndRestockExpired(now, 1);
         assertThat(second).isZero();
-        Long qtyAfterSecond = expired.getItems().get(0).getProduct().getInventory().getQuantity();
-        assertThat(qtyAfterSecond).isEqualTo(105L); // unchanged
+        verify(inventoryRepository, times(1)).incrementQuantity(1L, 5); // not applied again
+    }
+
+    @Test
+    void cancelledMeanwhile_casLost_notRestocked() {
+        OffsetDateTime now = OffsetDateTime.now();
+        // Loaded as PENDING, but the user's cancellation committed first
+        LocalOrder expired = order(60, OrderStatus.PENDING, false, now.minusMinutes(2), 5);
+        when(localOrderRepository.findExpiredPendingOrderIds(eq(now), any(PageRequest.class)))
+                .thenReturn(List.of(60L));
+        when(localOrderRepository.findById(60L)).thenReturn(Optional.of(expired));
+        when(localOrderRepository.releaseIfPending(60L, OrderStatus.FAILED, now)).thenReturn(0);
+
+        int processed = restockService.failAndRestockExpired(now, 1);
+
+        assertThat(processed).isZero();
+        assertThat(expired.getStatus()).isEqualTo(OrderStatus.PENDING);
+        verifyNoInteractions(inventoryRepository, orderViewProjector, outbox);
+    }
+
+    @Test
+    void releaseIfPending_cancels_andRestocks() {
+        OffsetDateTime now = OffsetDateTime.now();
+        LocalOrder pending = order(90, OrderStatus.PENDING, false, now.plusMinutes(10), 2);
+        when(localOrderRepository.releaseIfPending(90L, OrderStatus.CANCELLED, now)).thenReturn(1);
+
+        assertThat(restockService.releaseIfPending(pending, OrderStatus.CANCELLED, now)).isTrue();
+
+        assertThat(pending.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(pending.isRestocked()).isTrue();
+        verify(inventoryRepository).incrementQuantity(1L, 2);
+        verify(orderViewProjector).statusChanged(pending);
+        verifyNoInteractions(outbox);
     }
 
     @Test
@@ -148,4 +186,27 @@ class OrderRestockServiceTest {
         assertThat(equalExpiry.isRestocked()).isFalse();
         assertThat(equalExpiry.getStatus()).isEqualTo(OrderStatus.PENDING);
     }
-}
\ No newline at end of file
+
+    @Test
+    void failAndRestock_restocksOnlyDuePendingOrders() {
+        OffsetDateTime now = OffsetDateTime.now();
+        LocalOrder expired = order(80, OrderStatus.PENDING, false, now.minusSeconds(1), 4);
+        LocalOrder paid = order(81, OrderStatus.PAID, false, now.minusSeconds(1), 4);
+        // 82 was deleted meanwhile: findAllById simply leaves it out
+        when(localOrderRepository.findAllById(List.of(80L, 81L, 82L))).thenReturn(List.of(expired, paid));
+        when(localOrderRepository.releaseIfPending(80L, OrderStatus.FAILED, now)).thenReturn(1);
+
+        int processed = restockService.failAndRestock(List.of(80L, 81L, 82L), now);
+
+        assertThat(processed).isEqualTo(1);
+        assertThat(expired.getStatus()).isEqualTo(OrderStatus.FAILED);
+        verify(inventoryRepository).incrementQuantity(1L, 4);
+        assertThat(paid.isRestocked()).isFalse();
+    }
+
+    @Test
+    void failAndRestock_emptyIds_doesNotQuery() {
+        assertThat(restockService.failAndRestock(List.of(), OffsetDateTime.now())).isZero();
+        verifyNoInteractions(localOrderRepository);
+    }
+}
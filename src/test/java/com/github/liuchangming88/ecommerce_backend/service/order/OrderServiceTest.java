@@ -1,20 +1,31 @@
 package com.github.liuchangming88.ecommerce_backend.service.order;
 
 import com.github.liuchangming88.ecommerce_backend.api.model.*;
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderHoldProperties;
+import com.github.liuchangming88.ecommerce_backend.events.OrderCancelled;
+import com.github.liuchangming88.ecommerce_backend.events.OrderCreated;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
 import com.github.liuchangming88.ecommerce_backend.exception.AuthorizationException;
 import com.github.liuchangming88.ecommerce_backend.exception.InsufficientStockException;
+import com.github.liuchangming88.ecommerce_backend.exception.OrderNotPendingException;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
 import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.ProductStock;
 import com.github.liuchangming88.ecommerce_backend.model.product.repository.InventoryRepository;
 import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
 import com.github.liuchangming88.ecommerce_backend.model.user.Address;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
 import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrderItems;
 import com.github.liuchangming88.ecommerce_backend.model.order.repository.LocalOrderRepository;
+import com.github.liuchangming88.ecommerce_backend.model.order.repository.OrderViewRepository;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderView;
 import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
 import com.github.liuchangming88.ecommerce_backend.model.user.repository.AddressRepository;
+import com.github.liuchangming88.ecommerce_backend.payment.PaymentRepository;
+import com.github.liuchangming88.ecommerce_backend.service.product.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +35,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
@@ -49,6 +61,15 @@ class OrderServiceTest {
     @Mock AddressRepository addressRepository;
     @Mock InventoryRepository inventoryRepository;
     @Mock ModelMapper modelMapper;
+    @Mock OrderExpiryQueue orderExpiryQueue;
+    @Mock OrderViewRepository orderViewRepository;
+    @Mock OrderViewProjector orderViewProjector;
+    @Mock Outbox outbox;
+    @Mock ProductService productService;
+    @Mock OrderRestockService orderRestockService;
+    @Mock PaymentRepository paymentRepository;
+    @Spy OrderHoldProperties holdProperties = new OrderHoldProperties();
+    @Spy SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks OrderService orderService;
 
@@ -64,42 +85,24 @@ class OrderServiceTest {
         address.setLocalUser(user);
     }
 
-    // Existing getAllOrders test (kept, slightly cleaned)
     @Test
-    void getAllOrders_withValidUserId_returnsMappedResponses() {
+    void getAllOrders_withValidUserId_returnsOrdersFromReadModel() {
         Long userId = 10L;
-
-        // Prepare mock order
-        LocalOrderItems line = new LocalOrderItems();
-        LocalOrder order = new LocalOrder();
-        order.setItems(List.of(line));
-        order.setAddress(new Address());
+        OrderView view = new OrderView();
 
         // Page containing our single order
         Pageable pageable = PageRequest.of(0, 10);
-        Page<LocalOrder> orderPage = new PageImpl<>(List.of(order), pageable, 1);
+        Page<OrderView> viewPage = new PageImpl<>(List.of(view), pageable, 1);
+        when(orderViewRepository.findByLocalUserIdAndStatus(userId, OrderStatus.PENDING, pageable)).thenReturn(viewPage);
 
-        when(localOrderRepository.findByLocalUser_IdAndStatus(userId, OrderStatus.PENDING, pageable)).thenReturn(orderPage);
-
-        // Prepare DTO mappings
-        OrderItemsResponse lineDto = new OrderItemsResponse();
-        AddressResponse addrDto = new AddressResponse();
         OrderResponse orderDto = new OrderResponse();
+        when(orderViewProjector.toResponse(view)).thenReturn(orderDto);
 
-        when(modelMapper.map(line, OrderItemsResponse.class)).thenReturn(lineDto);
-        when(modelMapper.map(order.getAddress(), AddressResponse.class)).thenReturn(addrDto);
-        when(modelMapper.map(order, OrderResponse.class)).thenReturn(orderDto);
-
-        // Call service
         Page<OrderResponse> result = orderService.getAllOrders(userId, 0, 10);
 
-        // Assertions
         Assertions.assertEquals(1, result.getTotalElements());
-        OrderResponse mappedOrder = result.getContent().get(0);
-
-        Assertions.assertEquals(orderDto, mappedOrder);
-        Assertions.assertEquals(List.of(lineDto), mappedOrder.getItems());
-        Assertions.assertEquals(addrDto, mappedOrder.getAddressResponse());
+        Assertions.assertEquals(orderDto, result.getContent().get(0));
+        verifyNoInteractions(localOrderRepository);
     }
 
 
@@ -190,6 +193,8 @@ class OrderServiceTest {
         when(inventoryRepository.decrementIfAvailable(5L,3)).thenReturn(false);
         assertThatThrownBy(() -> orderService.createOrder(user, req))
                 .isInstanceOf(InsufficientStockException.class);
+        assertThat(meterRegistry.get("inventory.decrement.conflicts").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("orders.create").tag("outcome", "insufficient_stock").timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -244,6 +249,132 @@ class OrderServiceTest {
         InOrder inOrder = inOrder(inventoryRepository);
         inOrder.verify(inventoryRepository).decrementIfAvailable(10L,3);
         inOrder.verify(inventoryRepository).decrementIfAvailable(20L,2);
+        // No surrounding transaction in this test, so the order is queued right away
+        verify(orderExpiryQueue).schedule(saved.getId(), saved.getExpiresAt());
+        verify(orderViewProjector).orderCreated(saved);
+        ArgumentCaptor<OrderCreated> created = ArgumentCaptor.forClass(OrderCreated.class);
+        verify(outbox).append(created.capture());
+        assertThat(created.getValue()).isEqualTo(new OrderCreated(saved.getId(), 10L, saved.getTotalAmount(), "VND",
+                saved.getCreatedAt(), created.getValue().productIds()));
+        assertThat(created.getValue().productIds()).containsExactlyInAnyOrder(10L, 20L);
+
+        assertThat(meterRegistry.get("orders.create").tag("outcome", "created").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.create.phase").timers()).hasSize(6)
+                .allSatisfy(timer -> assertThat(timer.count()).isEqualTo(1));
+    }
+
+    @Test
+    void createOrder_holdsStockForTheShortestHoldOfItsProductClasses() {
+        holdProperties.getByClass().put("flash-sale", Duration.ofMinutes(5));
+        CreateOrderRequest req = baseReq(List.of(item(10L, 1), item(20L, 1)));
+        when(addressRepository.findById(address.getId())).thenReturn(Optional.of(address));
+        Product flashSale = product(10L, new BigDecimal("100"), 100L);
+        flashSale.setProductClass("flash-sale");
+        Product unclassified = product(20L, new BigDecimal("5.5"), 200L);
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(flashSale, unclassified));
+        when(inventoryRepository.decrementIfAvailable(anyLong(), anyInt())).thenReturn(true);
+        ArgumentCaptor<LocalOrder> cap = ArgumentCaptor.forClass(LocalOrder.class);
+        when(localOrderRepository.save(cap.capture())).thenAnswer(inv -> inv.getArgument(0));
+        when(modelMapper.map(any(LocalOrder.class), eq(OrderResponse.class))).thenAnswer(inv -> new OrderResponse());
+
+        orderService.createOrder(user, req);
+
+        LocalOrder saved = cap.getValue();
+        assertThat(Duration.between(saved.getCreatedAt(), saved.getExpiresAt())).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    // -------- cancelOrder --------
+
+    @Test
+    void cancelOrder_pending_releasesStock_expiresPayments_andAnnounces() {
+        LocalOrder order = order(77L, user, OrderStatus.PENDING);
+        when(localOrderRepository.findById(77L)).thenReturn(Optional.of(order));
+        when(orderRestockService.releaseIfPending(eq(order), eq(OrderStatus.CANCELLED), any())).thenAnswer(inv -> {
+            order.setStatus(OrderStatus.CANCELLED);
+            return true;
+        });
+        when(modelMapper.map(any(LocalOrder.class), eq(OrderResponse.class))).thenAnswer(inv -> new OrderResponse());
+
+        orderService.cancelOrder(user, 77L);
+
+        ArgumentCaptor<OrderCancelled> event = ArgumentCaptor.forClass(OrderCancelled.class);
+        verify(outbox).append(event.capture());
+        assertThat(event.getValue().orderId()).isEqualTo(77L);
+        assertThat(event.getValue().userId()).isEqualTo(10L);
+        assertThat(event.getValue().productIds()).containsExactly(3L);
+        verify(paymentRepository).expireInitiatedForOrder(77L, event.getValue().cancelledAt());
+    }
+
+    @Test
+    void cancelOrder_ofAnotherUser_isRejected() {
+        LocalUser other = new LocalUser(); other.setId(999L);
+        when(localOrderRepository.findById(77L)).thenReturn(Optional.of(order(77L, other, OrderStatus.PENDING)));
+
+        assertThatThrownBy(() -> orderService.cancelOrder(user, 77L)).isInstanceOf(AuthorizationException.class);
+        verifyNoInteractions(orderRestockService, paymentRepository, outbox);
+    }
+
+    @Test
+    void cancelOrder_noLongerPending_isRejected() {
+        LocalOrder order = order(77L, user, OrderStatus.PAID);
+        when(localOrderRepository.findById(77L)).thenReturn(Optional.of(order));
+        when(orderRestockService.releaseIfPending(eq(order), eq(OrderStatus.CANCELLED), any())).thenReturn(false);
+
+        assertThatThrownBy(() -> orderService.cancelOrder(user, 77L))
+                .isInstanceOf(OrderNotPendingException.class)
+                .hasMessageContaining("Only PENDING orders can be cancelled");
+        verifyNoInteractions(paymentRepository, outbox);
+    }
+
+    @Test
+    void cancelOrder_unknownOrder_throwsNotFound() {
+        when(localOrderRepository.findById(77L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> orderService.cancelOrder(user, 77L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Order 77");
+    }
+
+    // -------- quote --------
+
+    @Test
+    void quote_pricesLikeCreateOrder_andFlagsShortStock_withoutReserving() {
+        OrderQuoteRequest req = new OrderQuoteRequest(List.of(item(20L, 2), item(10L, 3)));
+        when(productService.getProducts(List.of(20L, 10L))).thenReturn(List.of(
+                new ProductResponse(10L, "Ten", "s", "l", new BigDecimal("100"), 100L),
+                new ProductResponse(20L, "Twenty", "s", "l", new BigDecimal("5.5"), 100L)));
+        when(inventoryRepository.findStockByProductIds(List.of(20L, 10L)))
+                .thenReturn(List.of(new ProductStock(10L, 50L), new ProductStock(20L, 1L)));
+
+        OrderQuoteResponse quote = orderService.quote(req);
+
+        assertThat(quote.getTotalAmount()).isEqualByComparingTo("311.00");
+        assertThat(quote.getCurrency()).isEqualTo("VND");
+        assertThat(quote.isAvailable()).isFalse();
+        assertThat(quote.getItems()).extracting(OrderQuoteLineResponse::getProductId).containsExactly(20L, 10L);
+        assertThat(quote.getItems()).extracting(OrderQuoteLineResponse::getUnitPrice)
+                .containsExactly(new BigDecimal("5.50"), new BigDecimal("100.00"));
+        assertThat(quote.getItems()).extracting(OrderQuoteLineResponse::isAvailable).containsExactly(false, true);
+        verify(inventoryRepository, never()).decrementIfAvailable(anyLong(), anyInt());
+        verifyNoInteractions(localOrderRepository, outbox, orderExpiryQueue);
+    }
+
+    @Test
+    void quote_unknownProduct_throwsNotFound() {
+        when(productService.getProducts(List.of(1L, 2L))).thenReturn(List.of(
+                new ProductResponse(1L, "One", "s", "l", BigDecimal.ONE, 1L)));
+
+        assertThatThrownBy(() -> orderService.quote(new OrderQuoteRequest(List.of(item(1L, 1), item(2L, 1)))))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Product 2");
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void quote_duplicateProductId_isRejectedLikeCreateOrder() {
+        assertThatThrownBy(() -> orderService.quote(new OrderQuoteRequest(List.of(item(1L, 1), item(1L, 2)))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Duplicate product id");
     }
 
     // -------- Helpers --------
@@ -261,6 +392,21 @@ class OrderServiceTest {
         return ir;
     }
 
+    private LocalOrder order(Long id, LocalUser owner, OrderStatus status) {
+        LocalOrder o = new LocalOrder();
+        o.setId(id);
+        o.setLocalUser(owner);
+        o.setStatus(status);
+        Product product = new Product();
+        product.setId(3L);
+        LocalOrderItems line = new LocalOrderItems();
+        line.setProduct(product);
+        line.setQuantity(1);
+        line.setUnitPrice(BigDecimal.ONE);
+        o.setItems(List.of(line));
+        return o;
+    }
+
     private Product product(Long id, BigDecimal price, Long stock) {
         Product p = new Product();
         p.setId(id);
@@ -0,0 +1,120 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.OrderStatusStreamProperties;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusStreamsTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    Deque<SseEmitter> emitters = new ArrayDeque<>();
+    OrderStatusStreams streams;
+
+    private OrderStatusStreams streams(int maxPendingEvents) {
+        OrderStatusStreamProperties props = new OrderStatusStreamProperties();
+        props.setSendThreads(2);
+        props.setSendTimeout(Duration.ofMillis(300));
+        props.setHeartbeatInterval(Duration.ofHours(1));
+        props.setMaxPendingEvents(maxPendingEvents);
+        streams = new OrderStatusStreams(props, meterRegistry) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return emitters.removeFirst();
+            }
+        };
+        return streams;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        streams.destroy();
+    }
+
+    @Test
+    void stalledClient_doesntHoldUpOtherStreams_andIsClosedAfterSendTimeout() throws Exception {
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter live = new RecordingEmitter();
+        emitters.add(stalled);
+        emitters.add(live);
+        streams(32);
+
+        streams.subscribe(1L, null);
+        streams.subscribe(2L, null);
+        streams.deliver(update(1, 1L));
+        streams.deliver(update(2, 2L));
+
+        assertThat(live.await(2)).satisfiesExactly(
+                connected -> assertThat(connected).startsWith(":connected"),
+                event -> assertThat(event).startsWith("id:2\n"));
+        assertThat(stalled.failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("orders.status.streams.dropped").tag("reason", "stalled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientFallingBehind_isClosed() throws Exception {
+        StalledEmitter stalled = new StalledEmitter();
+        emitters.add(stalled);
+        streams(2);
+
+        streams.subscribe(1L, null);
+        for (int i = 1; i <= 4; i++) streams.deliver(update(i, 1L));
+
+        assertThat(stalled.failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("orders.status.streams.dropped").tag("reason", "behind").counter().count()).isEqualTo(1);
+    }
+
+    private static OrderStatusUpdate update(long id, Long userId) {
+        return new OrderStatusUpdate(id, userId, 100L + id, OrderStatus.PAID, OffsetDateTime.now());
+    }
+
+    // A client that stopped reading: its first write never returns until the stream is failed
+    private static class StalledEmitter extends SseEmitter {
+        final CountDownLatch failed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                failed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("closed");
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            // The first part of an event is its header lines, ":connected" or "id:2 event:order-status data:"
+            sent.add(builder.build().iterator().next().getData().toString());
+        }
+
+        List<String> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < count && System.nanoTime() < deadline) Thread.sleep(10);
+            return sent;
+        }
+    }
+}
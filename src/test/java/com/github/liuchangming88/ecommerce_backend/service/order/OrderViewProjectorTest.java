@@ -0,0 +1,100 @@
+package com.github.liuchangming88.ecommerce_backend.service.order;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.CreateOrderRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.ItemRequest;
+import com.github.liuchangming88.ecommerce_backend.api.model.OrderResponse;
+import com.github.liuchangming88.ecommerce_backend.model.order.LocalOrder;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderStatus;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderView;
+import com.github.liuchangming88.ecommerce_backend.model.order.OrderViewItem;
+import com.github.liuchangming88.ecommerce_backend.model.order.repository.LocalOrderRepository;
+import com.github.liuchangming88.ecommerce_backend.model.order.repository.OrderViewRepository;
+import com.github.liuchangming88.ecommerce_backend.model.user.LocalUser;
+import com.github.liuchangming88.ecommerce_backend.model.user.repository.LocalUserRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class OrderViewProjectorTest {
+
+    @Autowired
+    private OrderViewProjector orderViewProjector;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRestockService orderRestockService;
+
+    @Autowired
+    private LocalOrderRepository localOrderRepository;
+
+    @Autowired
+    private LocalUserRepository localUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createOrder_writesViewRowWithLinesAndAddress() {
+        LocalUser user = localUserRepository.findByUsernameIgnoreCase("usernameA").orElseThrow();
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setAddressId(1L);
+        request.setItems(List.of(new ItemRequest(1L, 2), new ItemRequest(3L, 1)));
+
+        OrderResponse created = orderService.createOrder(user, request);
+
+        OrderView view = orderViewRepository.findById(created.getId()).orElseThrow();
+        assertThat(view.getLocalUserId()).isEqualTo(user.getId());
+        assertThat(view.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(view.getTotalAmount()).isEqualByComparingTo(created.getTotalAmount());
+        assertThat(view.getCity()).isEqualTo("Testerton");
+        assertThat(view.getItems()).extracting(OrderViewItem::getProductName).containsExactly("Product #1", "Product #3");
+        assertThat(orderViewProjector.toResponse(view).getItems()).hasSize(2);
+    }
+
+    @Test
+    void restock_updatesViewStatus() {
+        jdbcTemplate.update("UPDATE local_order SET expires_at = ? WHERE id = 1", OffsetDateTime.now().minusMinutes(1));
+
+        assertThat(orderRestockService.failAndRestock(List.of(1L), OffsetDateTime.now())).isEqualTo(1);
+
+        assertThat(orderViewRepository.findById(1L).orElseThrow().getStatus()).isEqualTo(OrderStatus.FAILED);
+    }
+
+    @Test
+    void statusChanged_withoutViewRow_writesFullRow() {
+        jdbcTemplate.update("DELETE FROM order_view WHERE order_id = 2");
+        LocalOrder order = localOrderRepository.findById(2L).orElseThrow();
+        order.setStatus(OrderStatus.PAID);
+
+        orderViewProjector.statusChanged(order);
+
+        OrderView view = orderViewRepository.findById(2L).orElseThrow();
+        assertThat(view.getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(view.getItems()).hasSize(3);
+    }
+
+    @Test
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    void statusChanged_outsideTransaction_isRejected() {
+        LocalOrder order = localOrderRepository.findById(1L).orElseThrow();
+
+        assertThatThrownBy(() -> orderViewProjector.statusChanged(order))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+}
@@ -3,6 +3,8 @@ package com.github.liuchangming88.ecommerce_backend.service.product;
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductRequest;
 import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
 import com.github.liuchangming88.ecommerce_backend.configuration.MapperConfig;
+import com.github.liuchangming88.ecommerce_backend.events.Outbox;
+import com.github.liuchangming88.ecommerce_backend.events.ProductChanged;
 import com.github.liuchangming88.ecommerce_backend.exception.DuplicateResourceException;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
@@ -28,6 +30,12 @@ public class AdminProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private Outbox outbox;
+
+    @Mock
+    private CatalogRevision catalogRevision;
+
     @InjectMocks
     private AdminProductService adminProductService;
 
@@ -51,6 +59,7 @@ public class AdminProductServiceTest {
 
         verify(productRepository).existsByName(request.getName());
         verify(productRepository, times(0)).save(any(Product.class));
+        verifyNoInteractions(outbox, catalogRevision);
     }
 
     @Test
@@ -82,6 +91,8 @@ public class AdminProductServiceTest {
         // Verify
         verify(productRepository).existsByName(request.getName());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(outbox).append(new ProductChanged(product.getId(), ProductChanged.Change.CREATED));
+        verify(catalogRevision).bump();
     }
 
     @Test
@@ -147,6 +158,7 @@ public class AdminProductServiceTest {
         request.setLongDescription("Updated long");
         request.setPrice(BigDecimal.valueOf(75.0));
         request.setQuantity(40L);
+        request.setProductClass("flash-sale");
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
         when(productRepository.existsByName(request.getName())).thenReturn(false);
@@ -162,11 +174,14 @@ public class AdminProductServiceTest {
         assertEquals(request.getLongDescription(), response.getLongDescription());
         assertEquals(request.getPrice(), response.getPrice());
         assertEquals(request.getQuantity(), response.getQuantity());
+        assertEquals("flash-sale", response.getProductClass());
 
         // Verify
         verify(productRepository).findById(productId);
         verify(productRepository).existsByName(request.getName());
         verify(productRepository).save(existingProduct);
+        verify(outbox).append(new ProductChanged(productId, ProductChanged.Change.UPDATED));
+        verify(catalogRevision).bump();
     }
 
     @Test
@@ -198,6 +213,8 @@ public class AdminProductServiceTest {
         // Verify
         verify(productRepository).findById(productId);
         verify(productRepository).delete(product);
+        verify(outbox).append(new ProductChanged(productId, ProductChanged.Change.DELETED));
+        verify(catalogRevision).bump();
     }
 
     @Test
@@ -243,6 +260,8 @@ public class AdminProductServiceTest {
         // Verify
         verify(productRepository).findById(productId);
         verify(productRepository).save(product);
+        verify(outbox).append(new ProductChanged(productId, ProductChanged.Change.UPDATED));
+        verify(catalogRevision).bump();
     }
 
     private static Product mapRequestToProduct(ProductRequest request) {
@@ -0,0 +1,43 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.github.liuchangming88.ecommerce_backend.api.model.ProductResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductCacheStoreTest {
+
+    @SuppressWarnings("unchecked")
+    ObjectProvider<RedisConnectionFactory> noRedis = mock(ObjectProvider.class);
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ProductCacheStore store = new ProductCacheStore(cacheManager, noRedis, meterRegistry);
+
+    @Test
+    void putAll_thenGetAll_returnsOnlyCachedIds() {
+        ProductResponse product = new ProductResponse(1L, "Product #1", null, null, BigDecimal.ONE, 5L);
+        store.putAll(Map.of(1L, product));
+
+        Map<Long, ProductResponse> found = store.getAll(List.of(1L, 2L));
+
+        assertThat(found).containsOnlyKeys(1L);
+        // Shares entries with @Cacheable("product") lookups
+        assertThat(cacheManager.getCache("product").get(1L, ProductResponse.class)).isSameAs(product);
+        assertThat(meterRegistry.get("cache.batch.gets").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.batch.gets").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void getAll_emptyInput_returnsEmptyMap() {
+        assertThat(store.getAll(List.of())).isEmpty();
+    }
+}
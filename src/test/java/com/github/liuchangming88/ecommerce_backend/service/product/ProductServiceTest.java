@@ -5,6 +5,7 @@ import com.github.liuchangming88.ecommerce_backend.configuration.MapperConfig;
 import com.github.liuchangming88.ecommerce_backend.exception.ResourceNotFoundException;
 import com.github.liuchangming88.ecommerce_backend.model.product.Inventory;
 import com.github.liuchangming88.ecommerce_backend.model.product.Product;
+import com.github.liuchangming88.ecommerce_backend.model.product.ProductVersion;
 import com.github.liuchangming88.ecommerce_backend.model.product.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,12 +20,23 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +45,9 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCacheStore productCacheStore;
+
     @InjectMocks
     private ProductService productService;
 
@@ -99,4 +114,81 @@ public class ProductServiceTest {
         assertEquals(product.getName(), response.getName());
         assertEquals(product.getInventory().getQuantity(), response.getQuantity());
     }
+
+    @Test
+    public void getProductVersion_productDoesNotExist_throwsResourceNotFoundException() {
+        when(productRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> productService.getProductVersion(1L));
+    }
+
+    @Test
+    public void getProductVersion_etagTracksProductAndInventoryVersions() {
+        OffsetDateTime older = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+        OffsetDateTime newer = OffsetDateTime.parse("2025-02-01T00:00:00Z");
+        when(productRepository.findVersionById(1L))
+                .thenReturn(Optional.of(new ProductVersion(1L, 2L, 5L, older, newer)));
+
+        ProductVersion version = productService.getProductVersion(1L);
+
+        assertEquals("\"p1-2-5\"", version.toEtag());
+        assertEquals(newer.toInstant().toEpochMilli(), version.lastModifiedMillis());
+    }
+
+    @Test
+    public void getProducts_mixesCacheHitsAndDatabaseMisses_inRequestOrder() {
+        ProductResponse cached = new ProductResponse(2L, "Product #2", null, null, BigDecimal.TEN, 1L);
+        Map<Long, ProductResponse> hits = new HashMap<>();
+        hits.put(2L, cached);
+        when(productCacheStore.getAll(anyCollection())).thenReturn(hits);
+        when(productRepository.findAllById(List.of(3L, 1L)))
+                .thenReturn(List.of(productWithId(1L), productWithId(3L)));
+
+        List<ProductResponse> result = productService.getProducts(List.of(3L, 2L, 1L, 3L));
+
+        assertEquals(List.of(3L, 2L, 1L), result.stream().map(ProductResponse::getId).toList());
+        verify(productCacheStore).putAll(argThat(m -> m.keySet().equals(Set.of(1L, 3L))));
+    }
+
+    @Test
+    public void getProducts_allCached_skipsDatabase() {
+        Map<Long, ProductResponse> hits = new HashMap<>();
+        hits.put(1L, new ProductResponse(1L, "Product #1", null, null, BigDecimal.ONE, 1L));
+        when(productCacheStore.getAll(anyCollection())).thenReturn(hits);
+
+        List<ProductResponse> result = productService.getProducts(List.of(1L));
+
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    public void getProducts_tooManyIds_throwsIllegalArgumentException() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i <= 100; i++) ids.add(i);
+
+        assertThrows(IllegalArgumentException.class, () -> productService.getProducts(ids));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProducts(List.of()));
+    }
+
+    @Test
+    public void getProducts_tooManyIdsBeforeDeduplication_throwsIllegalArgumentException() {
+        List<Long> ids = Collections.nCopies(101, 1L);
+
+        assertThrows(IllegalArgumentException.class, () -> productService.getProducts(ids));
+        verifyNoInteractions(productCacheStore, productRepository);
+    }
+
+    private static Product productWithId(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product #" + id);
+        product.setPrice(BigDecimal.ONE);
+        Inventory inventory = new Inventory();
+        inventory.setQuantity(4L);
+        inventory.setProduct(product);
+        product.setInventory(inventory);
+        return product;
+    }
 }
@@ -0,0 +1,70 @@
+package com.github.liuchangming88.ecommerce_backend.service.product;
+
+import com.github.liuchangming88.ecommerce_backend.api.controller.product.ProductResponseCacheFilter;
+import com.github.liuchangming88.ecommerce_backend.events.OrderCreated;
+import com.github.liuchangming88.ecommerce_backend.events.OrderExpired;
+import com.github.liuchangming88.ecommerce_backend.events.ProductChanged;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ProductStockEvictionHandlerTest {
+
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    CatalogRevision catalogRevision = mock(CatalogRevision.class);
+    ProductStockEvictionHandler handler = new ProductStockEvictionHandler(cacheManager, catalogRevision);
+
+    Cache product = cacheManager.getCache("product");
+    Cache products = cacheManager.getCache("products");
+    Cache responses = cacheManager.getCache(ProductResponseCacheFilter.CACHE_NAME);
+    Cache pages = cacheManager.getCache(ProductResponseCacheFilter.PAGE_CACHE_NAME);
+
+    @BeforeEach
+    void fill() {
+        for (long id = 1; id <= 3; id++) {
+            product.put(id, "product " + id);
+            responses.put(ProductResponseCacheFilter.productKey(id), "rendered " + id);
+        }
+        products.put("0_10", "page");
+        pages.put("/products?page=0&size=10", "rendered page");
+    }
+
+    @Test
+    void stockChange_evictsItsProducts_andClearsPages() {
+        handler.handle(new OrderCreated(9L, 7L, BigDecimal.TEN, "VND", OffsetDateTime.now(), List.of(1L, 3L)));
+
+        assertThat(product.get(1L)).isNull();
+        assertThat(product.get(3L)).isNull();
+        assertThat(product.get(2L)).isNotNull();
+        assertThat(responses.get(ProductResponseCacheFilter.productKey(1L))).isNull();
+        assertThat(responses.get(ProductResponseCacheFilter.productKey(2L))).isNotNull();
+        assertThat(products.get("0_10")).isNull();
+        assertThat(pages.get("/products?page=0&size=10")).isNull();
+        verify(catalogRevision).bump();
+    }
+
+    @Test
+    void stockChange_withoutProductIds_clearsEveryProduct() {
+        handler.handle(new OrderExpired(9L, 7L, OffsetDateTime.now(), null));
+
+        assertThat(product.get(2L)).isNull();
+        assertThat(responses.get(ProductResponseCacheFilter.productKey(2L))).isNull();
+    }
+
+    @Test
+    void otherEvents_areIgnored() {
+        handler.handle(new ProductChanged(1L, ProductChanged.Change.UPDATED));
+
+        assertThat(product.get(1L)).isNotNull();
+        assertThat(pages.get("/products?page=0&size=10")).isNotNull();
+        verifyNoInteractions(catalogRevision);
+    }
+}
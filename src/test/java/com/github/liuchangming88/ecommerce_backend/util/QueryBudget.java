@@ -0,0 +1,47 @@
+package com.github.liuchangming88.ecommerce_backend.util;
+
+import com.github.liuchangming88.ecommerce_backend.configuration.SqlStatementStats;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts how many SQL statements Hibernate runs for a block of test code, e.g.
+ *   QueryBudget.assertAtMost(3, () -> mockMvc.perform(get("/products")));
+ * Nests with the per-request scope of SqlAccountingFilter, so MockMvc calls are counted too.
+ * Only statements issued by Hibernate on the test thread are seen (not JdbcTemplate).
+ */
+public class QueryBudget {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    public static SqlStatementStats record(Action action) throws Exception {
+        try (SqlStatementStats stats = SqlStatementStats.open()) {
+            action.run();
+            return stats;
+        }
+    }
+
+    public static SqlStatementStats assertAtMost(int maxStatements, Action action) throws Exception {
+        SqlStatementStats stats = record(action);
+        assertThat(stats.getStatements())
+                .as("SQL statements executed; by shape: %s", stats.getShapes())
+                .isLessThanOrEqualTo(maxStatements);
+        return stats;
+    }
+
+    public static SqlStatementStats assertNoRepeats(int maxExecutionsPerShape, Action action) throws Exception {
+        SqlStatementStats stats = record(action);
+        Map.Entry<String, Integer> mostRepeated = stats.getMostRepeated();
+        if (mostRepeated != null) {
+            assertThat(mostRepeated.getValue())
+                    .as("Executions of [%s] (possible N+1)", mostRepeated.getKey())
+                    .isLessThanOrEqualTo(maxExecutionsPerShape);
+        }
+        return stats;
+    }
+}
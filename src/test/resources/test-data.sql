@@ -12,35 +12,49 @@ INSERT INTO address(address_line_1,address_line_2 , city, country, local_user_id
     ('123 Tester Hill', 'Apt 4B', 'Testerton', 'England', 1),
     ('312 Spring Boot', 'Suite 5C', 'Hibernate', 'USA', 3);
 
-INSERT INTO product (name, short_description, long_description, price) VALUES
-    ('Product #1', 'Product one short description.', 'This is a very long description of product #1.', 5.50),
-    ('Product #2', 'Product two short description.', 'This is a very long description of product #2.', 10.56),
-    ('Product #3', 'Product three short description.', 'This is a very long description of product #3.', 2.74),
-    ('Product #4', 'Product four short description.', 'This is a very long description of product #4.', 15.69),
-    ('Product #5', 'Product five short description.', 'This is a very long description of product #5.', 42.59);
-
-INSERT INTO inventory (product_id, quantity) VALUES
-    (1, 5),
-    (2, 8),
-    (3, 12),
-    (4, 73),
-    (5, 2);
-
-INSERT INTO local_order (address_id, local_user_id, status, total_amount, currency, created_at, restocked) VALUES
-      (1, 1, 'PENDING',  30.00, 'VND', CURRENT_TIMESTAMP, false),
-      (1, 1, 'PENDING', 100.00, 'VND', CURRENT_TIMESTAMP, false),
-      (1, 1, 'PENDING',  30.00, 'VND', CURRENT_TIMESTAMP, false),
-      (2, 3, 'PENDING',  60.00, 'VND', CURRENT_TIMESTAMP, false),
-      (2, 3, 'PENDING',  40.00, 'VND', CURRENT_TIMESTAMP, false);
-
-INSERT INTO local_order_items (local_order_id, product_id, quantity, unit_price) VALUES
-    (1, 1, 5, 2),
-    (1, 2, 5, 4),
-    (2, 3, 5, 6),
-    (2, 2, 5, 4),
-    (2, 5, 5, 10),
-    (3, 3, 5, 6),
-    (4, 4, 5, 8),
-    (4, 2, 5, 4),
-    (5, 3, 5, 6),
-    (5, 1, 5, 2);
\ No newline at end of file
+INSERT INTO product (id, name, short_description, long_description, price) VALUES
+    (1, 'Product #1', 'Product one short description.', 'This is a very long description of product #1.', 5.50),
+    (2, 'Product #2', 'Product two short description.', 'This is a very long description of product #2.', 10.56),
+    (3, 'Product #3', 'Product three short description.', 'This is a very long description of product #3.', 2.74),
+    (4, 'Product #4', 'Product four short description.', 'This is a very long description of product #4.', 15.69),
+    (5, 'Product #5', 'Product five short description.', 'This is a very long description of product #5.', 42.59);
+
+INSERT INTO inventory (id, product_id, quantity) VALUES
+    (1, 1, 5),
+    (2, 2, 8),
+    (3, 3, 12),
+    (4, 4, 73),
+    (5, 5, 2);
+
+INSERT INTO local_order (id, address_id, local_user_id, status, total_amount, currency, created_at, restocked) VALUES
+      (1, 1, 1, 'PENDING',  30.00, 'VND', CURRENT_TIMESTAMP, false),
+      (2, 1, 1, 'PENDING', 100.00, 'VND', CURRENT_TIMESTAMP, false),
+      (3, 1, 1, 'PENDING',  30.00, 'VND', CURRENT_TIMESTAMP, false),
+      (4, 2, 3, 'PENDING',  60.00, 'VND', CURRENT_TIMESTAMP, false),
+      (5, 2, 3, 'PENDING',  40.00, 'VND', CURRENT_TIMESTAMP, false);
+
+INSERT INTO local_order_items (id, local_order_id, product_id, quantity, unit_price) VALUES
+    (1, 1, 1, 5, 2),
+    (2, 1, 2, 5, 4),
+    (3, 2, 3, 5, 6),
+    (4, 2, 2, 5, 4),
+    (5, 2, 5, 5, 10),
+    (6, 3, 3, 5, 6),
+    (7, 4, 4, 5, 8),
+    (8, 4, 2, 5, 4),
+    (9, 5, 3, 5, 6),
+    (10, 5, 1, 5, 2);
+
+-- Read model of the orders above, as OrderViewProjector would have written it
+INSERT INTO order_view (order_id, local_user_id, status, total_amount, currency, created_at, address_id, address_line_1, address_line_2, city, country, items, version) VALUES
+    (1, 1, 'PENDING', 30.00, 'VND', CURRENT_TIMESTAMP, 1, '123 Tester Hill', 'Apt 4B', 'Testerton', 'England', JSON '[{"id":1,"productId":1,"productName":"Product #1","quantity":5,"unitPrice":2,"lineTotal":10},{"id":2,"productId":2,"productName":"Product #2","quantity":5,"unitPrice":4,"lineTotal":20}]', 0),
+    (2, 1, 'PENDING', 100.00, 'VND', CURRENT_TIMESTAMP, 1, '123 Tester Hill', 'Apt 4B', 'Testerton', 'England', JSON '[{"id":3,"productId":3,"productName":"Product #3","quantity":5,"unitPrice":6,"lineTotal":30},{"id":4,"productId":2,"productName":"Product #2","quantity":5,"unitPrice":4,"lineTotal":20},{"id":5,"productId":5,"productName":"Product #5","quantity":5,"unitPrice":10,"lineTotal":50}]', 0),
+    (3, 1, 'PENDING', 30.00, 'VND', CURRENT_TIMESTAMP, 1, '123 Tester Hill', 'Apt 4B', 'Testerton', 'England', JSON '[{"id":6,"productId":3,"productName":"Product #3","quantity":5,"unitPrice":6,"lineTotal":30}]', 0),
+    (4, 3, 'PENDING', 60.00, 'VND', CURRENT_TIMESTAMP, 2, '312 Spring Boot', 'Suite 5C', 'Hibernate', 'USA', JSON '[{"id":7,"productId":4,"productName":"Product #4","quantity":5,"unitPrice":8,"lineTotal":40},{"id":8,"productId":2,"productName":"Product #2","quantity":5,"unitPrice":4,"lineTotal":20}]', 0),
+    (5, 3, 'PENDING', 40.00, 'VND', CURRENT_TIMESTAMP, 2, '312 Spring Boot', 'Suite 5C', 'Hibernate', 'USA', JSON '[{"id":9,"productId":3,"productName":"Product #3","quantity":5,"unitPrice":6,"lineTotal":30},{"id":10,"productId":1,"productName":"Product #1","quantity":5,"unitPrice":2,"lineTotal":10}]', 0);
+
+-- Rows above use explicit ids; move the pooled sequences past them (pooled-lo: the next block starts at this value)
+ALTER SEQUENCE product_seq RESTART WITH 6;
+ALTER SEQUENCE inventory_seq RESTART WITH 6;
+ALTER SEQUENCE local_order_seq RESTART WITH 6;
+ALTER SEQUENCE local_order_items_seq RESTART WITH 11;
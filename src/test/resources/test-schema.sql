@@ -0,0 +1,76 @@
+-- Tables that only exist in the Flyway migrations (no entity), without the PostgreSQL partitioning.
+-- Runs after Hibernate has created the mapped tables.
+
+CREATE TABLE IF NOT EXISTS local_order_archive (
+    id bigint not null,
+    local_user_id bigint not null,
+    address_id bigint not null,
+    status varchar(16) not null,
+    total_amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    restocked boolean,
+    archived_at timestamp(6) with time zone not null,
+    primary key (id, created_at)
+);
+
+CREATE TABLE IF NOT EXISTS local_order_items_archive (
+    id bigint not null,
+    local_order_id bigint not null,
+    product_id bigint not null,
+    quantity integer not null,
+    unit_price numeric(19,2) not null,
+    order_created_at timestamp(6) with time zone not null,
+    primary key (id, order_created_at)
+);
+
+CREATE TABLE IF NOT EXISTS payment_archive (
+    id bigint not null,
+    local_order_id bigint not null,
+    status varchar(16) not null,
+    provider varchar(16) not null,
+    amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    txn_ref varchar(64) not null,
+    transaction_no varchar(32),
+    response_code varchar(8),
+    bank_code varchar(32),
+    raw_params clob,
+    client_ip varchar(64),
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    version bigint,
+    order_created_at timestamp(6) with time zone not null,
+    primary key (id, order_created_at)
+);
+
+CREATE TABLE IF NOT EXISTS order_view_archive (
+    order_id bigint not null,
+    local_user_id bigint not null,
+    status varchar(16) not null,
+    total_amount numeric(19,2) not null,
+    currency varchar(3) not null,
+    created_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    address_id bigint,
+    address_line_1 varchar(512),
+    address_line_2 varchar(512),
+    city varchar(255),
+    country varchar(75),
+    items json not null,
+    archived_at timestamp(6) with time zone not null,
+    primary key (order_id, created_at)
+);
+
+CREATE TABLE IF NOT EXISTS catalog_revision (
+    id smallint not null,
+    revision bigint not null,
+    updated_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+
+MERGE INTO catalog_revision KEY (id) VALUES (1, 0, CURRENT_TIMESTAMP);